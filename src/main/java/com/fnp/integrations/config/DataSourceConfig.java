@@ -0,0 +1,32 @@
+package com.fnp.integrations.config;
+
+import com.fnp.integrations.constants.DynamicConstants;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * The order outbox promises that an accepted order survives a restart, so with
+ * {@code lalamove.order-outbox.enabled} the application refuses to start on an embedded in-memory
+ * database. Every profile running it sets {@code spring.datasource.url}, {@code username},
+ * {@code password} and {@code driver-class-name}; the webhook events and order snapshots live there too.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class DataSourceConfig {
+
+    private final DataSource dataSource;
+    private final DynamicConstants constants;
+
+    @PostConstruct
+    void requireDurableDatabaseForOutbox() {
+        if (constants.isLalamoveOrderOutboxEnabled() && EmbeddedDatabaseConnection.isEmbedded(dataSource)) {
+            throw new IllegalStateException("lalamove.order-outbox.enabled needs a durable database: set spring.datasource.url,"
+                    + " spring.datasource.username, spring.datasource.password and spring.datasource.driver-class-name,"
+                    + " or disable the outbox");
+        }
+    }
+}
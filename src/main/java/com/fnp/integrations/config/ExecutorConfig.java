@@ -0,0 +1,81 @@
+package com.fnp.integrations.config;
+
+import com.fnp.integrations.constants.DynamicConstants;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors for work taken off request threads, plus scheduling for the background drainers.
+ * The batch pool hands off directly (no queue): when every thread is busy the submitter rejects
+ * and the caller runs the work itself, so a burst degrades to sequential instead of queueing.
+ * With {@code spring.threads.virtual.enabled=true} both executors start a virtual thread per task
+ * instead; concurrency is then bounded only by the callers (batch parallelism, outbox and polling workers).
+ */
+@Configuration
+@EnableScheduling
+@RequiredArgsConstructor
+public class ExecutorConfig {
+
+    private final DynamicConstants constants;
+
+    @Bean
+    public AsyncTaskExecutor lalamoveBatchExecutor() {
+        if (constants.isVirtualThreadsEnabled()) {
+            return virtualThreadExecutor("lalamove-batch-");
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(constants.getLalamoveQuotationBatchPoolSize());
+        executor.setMaxPoolSize(constants.getLalamoveQuotationBatchPoolSize());
+        executor.setQueueCapacity(0);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("lalamove-batch-");
+        return executor;
+    }
+
+    /**
+     * Outbox workers; the outbox service never hands out more tasks than there are workers, the
+     * queue only absorbs the moment between a worker releasing its slot and its thread going idle.
+     */
+    @Bean
+    public AsyncTaskExecutor lalamoveOutboxExecutor() {
+        if (constants.isVirtualThreadsEnabled()) {
+            return virtualThreadExecutor("lalamove-outbox-");
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(constants.getLalamoveOrderOutboxWorkers());
+        executor.setMaxPoolSize(constants.getLalamoveOrderOutboxWorkers());
+        executor.setQueueCapacity(constants.getLalamoveOrderOutboxWorkers());
+        executor.setThreadNamePrefix("lalamove-outbox-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Order status polls; like the outbox, the poller never hands out more tasks than there are workers.
+     */
+    @Bean
+    public AsyncTaskExecutor lalamovePollingExecutor() {
+        if (constants.isVirtualThreadsEnabled()) {
+            return virtualThreadExecutor("lalamove-polling-");
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(constants.getLalamoveOrderPollingWorkers());
+        executor.setMaxPoolSize(constants.getLalamoveOrderPollingWorkers());
+        executor.setQueueCapacity(constants.getLalamoveOrderPollingWorkers());
+        executor.setThreadNamePrefix("lalamove-polling-");
+        return executor;
+    }
+
+    private static SimpleAsyncTaskExecutor virtualThreadExecutor(String threadNamePrefix) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        executor.setTaskTerminationTimeout(30_000);
+        return executor;
+    }
+}
@@ -0,0 +1,23 @@
+package com.fnp.integrations.config;
+
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Settings of the single application {@code ObjectMapper} built by Spring Boot. The MVC
+ * converters, {@code RestTemplate}, {@code AsyncRestClient}, the outbound logger and the Lalamove
+ * services all use it, so they share one serializer and deserializer cache. Module beans are
+ * registered on the mapper by Spring Boot; Blackbird replaces reflective property access with
+ * generated lambdas when {@code jackson.blackbird.enabled=true}.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "jackson.blackbird.enabled", havingValue = "true")
+    public BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
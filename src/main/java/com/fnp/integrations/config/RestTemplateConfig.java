@@ -1,26 +1,142 @@
 package com.fnp.integrations.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fnp.integrations.constants.DynamicConstants;
+import com.fnp.integrations.http.HttpCompression;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import lombok.RequiredArgsConstructor;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * Outbound HTTP transport.
+ * By default RestTemplate runs on a pooled, keep-alive Apache HttpClient 5 connection manager so
+ * TCP/TLS handshakes are paid once per connection instead of once per call. Setting
+ * {@code http.client.pooling-enabled=false} falls back to the JDK {@code HttpURLConnection} factory.
+ * The non-blocking {@code AsyncRestClient} runs on a separate JDK {@link HttpClient}.
+ * Both negotiate compression through {@link HttpCompression}, whatever the transport.
+ */
 @Configuration
+@RequiredArgsConstructor
 public class RestTemplateConfig {
 
+    private final DynamicConstants constants;
+
+    /**
+     * The JSON converter gets the application {@link ObjectMapper} instead of building its own, so
+     * responses are read with the same settings and (de)serializer cache as everything else.
+     */
     @Bean
-    public RestTemplate restTemplate() {
+    public RestTemplate restTemplate(ClientHttpRequestFactory clientHttpRequestFactory, ObjectMapper objectMapper,
+                                     HttpCompression httpCompression) {
         RestTemplate restTemplate = new RestTemplate();
-        restTemplate.setRequestFactory(clientHttpRequestFactory());
+        restTemplate.setRequestFactory(clientHttpRequestFactory);
+        restTemplate.getInterceptors().add(httpCompression);
+        restTemplate.getMessageConverters().stream()
+                .filter(MappingJackson2HttpMessageConverter.class::isInstance)
+                .forEach(converter -> ((MappingJackson2HttpMessageConverter) converter).setObjectMapper(objectMapper));
         return restTemplate;
     }
 
     @Bean
-    public ClientHttpRequestFactory clientHttpRequestFactory() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(10000); // 10 seconds
-        factory.setReadTimeout(30000);    // 30 seconds
-        return factory;
+    public ClientHttpRequestFactory clientHttpRequestFactory(ObjectProvider<CloseableHttpClient> httpClient) {
+        CloseableHttpClient pooledClient = httpClient.getIfAvailable();
+        if (pooledClient == null) {
+            SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+            factory.setConnectTimeout(constants.getHttpClientConnectTimeout());
+            factory.setReadTimeout(constants.getHttpClientReadTimeout());
+            return factory;
+        }
+        return new HttpComponentsClientHttpRequestFactory(pooledClient);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "http.client.pooling-enabled", havingValue = "true", matchIfMissing = true)
+    public PoolingHttpClientConnectionManager httpClientConnectionManager() {
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(constants.getHttpClientConnectTimeout()))
+                .setSocketTimeout(Timeout.ofMilliseconds(constants.getHttpClientReadTimeout()))
+                .setTimeToLive(TimeValue.ofMilliseconds(constants.getHttpClientConnectionTtl()))
+                .setValidateAfterInactivity(TimeValue.ofMilliseconds(constants.getHttpClientValidateAfterInactivity()))
+                .build();
+
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(constants.getHttpClientMaxConnectionsTotal())
+                .setMaxConnPerRoute(constants.getHttpClientMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(connectionConfig)
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+                .setConnPoolPolicy(PoolReusePolicy.LIFO) // keep a hot working set, let the rest idle out
+                .build();
+    }
+
+    /**
+     * Pool gauges ({@code httpcomponents.httpclient.pool.*}: leased, available and pending
+     * connections, limits) for the shared connection manager, when pooling is enabled.
+     */
+    @Bean
+    public MeterBinder httpClientPoolMetrics(ObjectProvider<PoolingHttpClientConnectionManager> httpClientConnectionManager) {
+        return registry -> httpClientConnectionManager.ifAvailable(connectionManager ->
+                new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "rest-template").bindTo(registry));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "http.client.pooling-enabled", havingValue = "true", matchIfMissing = true)
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager httpClientConnectionManager) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(constants.getHttpClientConnectionRequestTimeout()))
+                .setResponseTimeout(Timeout.ofMilliseconds(constants.getHttpClientReadTimeout()))
+                // Used when the server does not send a Keep-Alive header
+                .setConnectionKeepAlive(TimeValue.ofMilliseconds(constants.getHttpClientKeepAlive()))
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(httpClientConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                // RetryPolicy owns retries (budget, backoff, Retry-After); the client's own would repeat 429s and 503s unseen
+                .disableAutomaticRetries()
+                // HttpCompression negotiates and decodes, counting wire bytes, on every transport
+                .disableContentCompression()
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(constants.getHttpClientIdleEviction()))
+                .build();
+    }
+
+    /**
+     * Transport for {@code AsyncRestClient}. The JDK client multiplexes every exchange over one
+     * selector thread and keeps its own keep-alive pool; completions run on the client executor,
+     * which is a virtual thread per task when virtual threads are enabled.
+     */
+    @Bean
+    public HttpClient asyncHttpClient() {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(constants.getHttpClientConnectTimeout()))
+                .followRedirects(HttpClient.Redirect.NORMAL);
+        if (constants.isVirtualThreadsEnabled()) {
+            builder.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        return builder.build();
     }
-} 
\ No newline at end of file
+}
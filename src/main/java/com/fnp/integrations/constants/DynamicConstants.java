@@ -33,6 +33,266 @@ public class DynamicConstants {
     @Value("${api.retry-count}")
     private int apiRetryCount;
 
+    // Threading: Tomcat, the scheduler and the executors in ExecutorConfig run on virtual threads when set
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    // HTTP Client Configuration
+    @Value("${http.client.pooling-enabled:true}")
+    private boolean httpClientPoolingEnabled;
+
+    @Value("${http.client.connect-timeout:10000}")
+    private int httpClientConnectTimeout;
+
+    @Value("${http.client.read-timeout:30000}")
+    private int httpClientReadTimeout;
+
+    @Value("${http.client.max-connections-total:200}")
+    private int httpClientMaxConnectionsTotal;
+
+    @Value("${http.client.max-connections-per-route:50}")
+    private int httpClientMaxConnectionsPerRoute;
+
+    @Value("${http.client.connection-request-timeout:2000}")
+    private int httpClientConnectionRequestTimeout;
+
+    @Value("${http.client.keep-alive:30000}")
+    private long httpClientKeepAlive;
+
+    @Value("${http.client.idle-eviction:60000}")
+    private long httpClientIdleEviction;
+
+    @Value("${http.client.connection-ttl:300000}")
+    private long httpClientConnectionTtl;
+
+    @Value("${http.client.validate-after-inactivity:2000}")
+    private long httpClientValidateAfterInactivity;
+
+    // Largest body RestClient.stream reads, in bytes
+    @Value("${http.client.max-response-size:52428800}")
+    private long httpClientMaxResponseSize;
+
+    // Outbound Rate Limiting (per host)
+    @Value("${http.rate-limit.enabled:true}")
+    private boolean httpRateLimitEnabled;
+
+    @Value("${http.rate-limit.max-rate:50}")
+    private double httpRateLimitMaxRate;
+
+    @Value("${http.rate-limit.min-rate:1}")
+    private double httpRateLimitMinRate;
+
+    @Value("${http.rate-limit.burst:50}")
+    private double httpRateLimitBurst;
+
+    @Value("${http.rate-limit.decrease-factor:0.5}")
+    private double httpRateLimitDecreaseFactor;
+
+    @Value("${http.rate-limit.increase-step:1}")
+    private double httpRateLimitIncreaseStep;
+
+    @Value("${http.rate-limit.adjust-interval:1000}")
+    private long httpRateLimitAdjustInterval;
+
+    @Value("${http.rate-limit.queue-timeout:2000}")
+    private long httpRateLimitQueueTimeout;
+
+    // Outbound Retries (attempts come from api.retry-count)
+    @Value("${http.retry.enabled:true}")
+    private boolean httpRetryEnabled;
+
+    @Value("${http.retry.backoff-base:100}")
+    private long httpRetryBackoffBase;
+
+    @Value("${http.retry.backoff-max:2000}")
+    private long httpRetryBackoffMax;
+
+    @Value("${http.retry.budget-percent:20}")
+    private double httpRetryBudgetPercent;
+
+    @Value("${http.retry.budget-min-per-second:3}")
+    private int httpRetryBudgetMinPerSecond;
+
+    // Outbound Circuit Breaker (per host)
+    @Value("${http.circuit-breaker.enabled:true}")
+    private boolean httpCircuitBreakerEnabled;
+
+    @Value("${http.circuit-breaker.window-size:50}")
+    private int httpCircuitBreakerWindowSize;
+
+    @Value("${http.circuit-breaker.minimum-calls:20}")
+    private int httpCircuitBreakerMinimumCalls;
+
+    @Value("${http.circuit-breaker.failure-rate-threshold:50}")
+    private double httpCircuitBreakerFailureRateThreshold;
+
+    @Value("${http.circuit-breaker.slow-call-rate-threshold:80}")
+    private double httpCircuitBreakerSlowCallRateThreshold;
+
+    @Value("${http.circuit-breaker.slow-call-duration:5000}")
+    private long httpCircuitBreakerSlowCallDuration;
+
+    @Value("${http.circuit-breaker.open-duration:30000}")
+    private long httpCircuitBreakerOpenDuration;
+
+    @Value("${http.circuit-breaker.half-open-probes:3}")
+    private int httpCircuitBreakerHalfOpenProbes;
+
+    // Outbound Hedging (per operation; used where an operation opts in)
+    @Value("${http.hedging.percentile:95}")
+    private double httpHedgingPercentile;
+
+    @Value("${http.hedging.min-delay:20}")
+    private long httpHedgingMinDelay;
+
+    @Value("${http.hedging.window:1000}")
+    private int httpHedgingWindow;
+
+    @Value("${http.hedging.min-samples:50}")
+    private int httpHedgingMinSamples;
+
+    @Value("${http.hedging.budget-percent:5}")
+    private double httpHedgingBudgetPercent;
+
+    @Value("${http.hedging.budget-min-per-second:1}")
+    private int httpHedgingBudgetMinPerSecond;
+
+    // Outbound Compression (gzip/deflate responses; gzip request bodies to the listed hosts)
+    @Value("${http.compression.enabled:true}")
+    private boolean httpCompressionEnabled;
+
+    @Value("${http.compression.request-hosts:}")
+    private String[] httpCompressionRequestHosts;
+
+    @Value("${http.compression.request-min-size:2048}")
+    private int httpCompressionRequestMinSize;
+
+    // Outbound request/response logging (DEBUG only)
+    @Value("${http.logging.sample-rate:1.0}")
+    private double httpLoggingSampleRate;
+
+    @Value("${http.logging.max-body-length:2048}")
+    private int httpLoggingMaxBodyLength;
+
+    @Value("${http.logging.redact-headers:Authorization,Proxy-Authorization,Cookie,Set-Cookie,X-API-Key}")
+    private String[] httpLoggingRedactHeaders;
+
+    @Value("${http.logging.redact-fields:password,secret,appSecret,token,accessToken,refreshToken,apiKey,signature}")
+    private String[] httpLoggingRedactFields;
+
+    // JSON: generate (de)serializer accessors with LambdaMetafactory instead of reflection
+    @Value("${jackson.blackbird.enabled:false}")
+    private boolean jacksonBlackbirdEnabled;
+
+    // Lalamove Configuration
+    @Value("${lalamove.scheme:https}")
+    private String lalamoveScheme;
+
+    @Value("${lalamove.hostname}")
+    private String lalamoveHostname;
+
+    @Value("${lalamove.appKey}")
+    private String lalamoveAppKey;
+
+    @Value("${lalamove.appSecret}")
+    private String lalamoveAppSecret;
+
+    @Value("${lalamove.market}")
+    private String lalamoveMarket;
+
+    @Value("${lalamove.quotation-cache.max-size:10000}")
+    private long lalamoveQuotationCacheMaxSize;
+
+    @Value("${lalamove.quotation-cache.coordinate-precision:5}")
+    private int lalamoveQuotationCacheCoordinatePrecision;
+
+    @Value("${lalamove.quotation-cache.expiry-margin:30000}")
+    private long lalamoveQuotationCacheExpiryMargin;
+
+    @Value("${lalamove.quotation-coalescing.enabled:true}")
+    private boolean lalamoveQuotationCoalescingEnabled;
+
+    @Value("${lalamove.quotation-coalescing.window:100}")
+    private long lalamoveQuotationCoalescingWindow;
+
+    @Value("${lalamove.quotation-hedging.enabled:false}")
+    private boolean lalamoveQuotationHedgingEnabled;
+
+    @Value("${lalamove.quotation-batch.max-items:20}")
+    private int lalamoveQuotationBatchMaxItems;
+
+    @Value("${lalamove.quotation-batch.parallelism:8}")
+    private int lalamoveQuotationBatchParallelism;
+
+    @Value("${lalamove.quotation-batch.pool-size:32}")
+    private int lalamoveQuotationBatchPoolSize;
+
+    @Value("${lalamove.order-outbox.enabled:true}")
+    private boolean lalamoveOrderOutboxEnabled;
+
+    @Value("${lalamove.order-outbox.workers:8}")
+    private int lalamoveOrderOutboxWorkers;
+
+    @Value("${lalamove.order-outbox.max-attempts:8}")
+    private int lalamoveOrderOutboxMaxAttempts;
+
+    @Value("${lalamove.order-outbox.backoff-initial:1000}")
+    private long lalamoveOrderOutboxBackoffInitial;
+
+    @Value("${lalamove.order-outbox.backoff-max:60000}")
+    private long lalamoveOrderOutboxBackoffMax;
+
+    @Value("${lalamove.order-outbox.lease:60000}")
+    private long lalamoveOrderOutboxLease;
+
+    @Value("${lalamove.webhook.dedupe-size:100000}")
+    private int lalamoveWebhookDedupeSize;
+
+    @Value("${lalamove.webhook.buffer-size:10000}")
+    private int lalamoveWebhookBufferSize;
+
+    @Value("${lalamove.webhook.batch-size:500}")
+    private int lalamoveWebhookBatchSize;
+
+    @Value("${lalamove.webhook.max-clock-skew:300000}")
+    private long lalamoveWebhookMaxClockSkew;
+
+    @Value("${lalamove.order-read-model.max-size:100000}")
+    private int lalamoveOrderReadModelMaxSize;
+
+    @Value("${lalamove.order-read-model.max-staleness:30000}")
+    private long lalamoveOrderReadModelMaxStaleness;
+
+    @Value("${lalamove.order-polling.enabled:true}")
+    private boolean lalamoveOrderPollingEnabled;
+
+    @Value("${lalamove.order-polling.tick:250}")
+    private long lalamoveOrderPollingTick;
+
+    @Value("${lalamove.order-polling.pickup-interval:15000}")
+    private long lalamoveOrderPollingPickupInterval;
+
+    @Value("${lalamove.order-polling.en-route-interval:60000}")
+    private long lalamoveOrderPollingEnRouteInterval;
+
+    @Value("${lalamove.order-polling.jitter:0.2}")
+    private double lalamoveOrderPollingJitter;
+
+    @Value("${lalamove.order-polling.max-tracking-time:43200000}")
+    private long lalamoveOrderPollingMaxTrackingTime;
+
+    @Value("${lalamove.order-polling.max-orders:100000}")
+    private int lalamoveOrderPollingMaxOrders;
+
+    @Value("${lalamove.order-polling.max-qps:5}")
+    private double lalamoveOrderPollingMaxQps;
+
+    @Value("${lalamove.order-polling.rate-share:0.5}")
+    private double lalamoveOrderPollingRateShare;
+
+    @Value("${lalamove.order-polling.workers:4}")
+    private int lalamoveOrderPollingWorkers;
+
     // Security Configuration (only in UAT and PROD)
     @Value("${security.enabled:false}")
     private boolean securityEnabled;
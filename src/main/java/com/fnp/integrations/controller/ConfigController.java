@@ -3,6 +3,10 @@ package com.fnp.integrations.controller;
 import com.fnp.integrations.constants.DynamicConstants;
 import com.fnp.integrations.dto.ResponseDto;
 import com.fnp.integrations.exception.ResponseException;
+import com.fnp.integrations.http.CircuitBreakerRegistry;
+import com.fnp.integrations.http.HttpCompression;
+import com.fnp.integrations.http.RateLimiterRegistry;
+import com.fnp.integrations.http.RetryPolicy;
 import com.fnp.integrations.service.ExternalApiService;
 
 import lombok.RequiredArgsConstructor;
@@ -13,6 +17,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -22,6 +27,10 @@ public class ConfigController {
 
     private final DynamicConstants dynamicConstants;
     private final ExternalApiService externalApiService;
+    private final RateLimiterRegistry rateLimiterRegistry;
+    private final RetryPolicy retryPolicy;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final HttpCompression httpCompression;
 
     @GetMapping("/info")
     public ResponseDto<Map<String, Object>> getConfigInfo() {
@@ -50,6 +59,26 @@ public class ConfigController {
         return ResponseDto.success("Application is healthy", health);
     }
 
+    @GetMapping("/rate-limits")
+    public ResponseDto<Map<String, Object>> getRateLimits() {
+        return ResponseDto.success("Outbound rate limiter state retrieved successfully", rateLimiterRegistry.getStats());
+    }
+
+    @GetMapping("/retries")
+    public ResponseDto<Map<String, Object>> getRetries() {
+        return ResponseDto.success("Outbound retry statistics retrieved successfully", retryPolicy.getStats());
+    }
+
+    @GetMapping("/circuit-breakers")
+    public ResponseDto<Map<String, Object>> getCircuitBreakers() {
+        return ResponseDto.success("Outbound circuit breaker state retrieved successfully", circuitBreakerRegistry.getStats());
+    }
+
+    @GetMapping("/compression")
+    public ResponseDto<Map<String, Object>> getCompression() {
+        return ResponseDto.success("Outbound compression statistics retrieved successfully", httpCompression.getStats());
+    }
+
     @GetMapping("/test-error")
     public ResponseDto<String> testError(@RequestParam(required = false) String type) {
         if ("response".equals(type)) {
@@ -85,4 +114,13 @@ public class ConfigController {
             return ResponseDto.error(500, 500, "REST client test failed", errorData);
         }
     }
-} 
\ No newline at end of file
+
+    @GetMapping("/test-async-rest-client")
+    public ResponseDto<Map<String, Object>> testAsyncRestClient(@RequestParam(required = false) List<String> endpoints) {
+        List<String> testEndpoints = endpoints != null && !endpoints.isEmpty() ? endpoints : List.of("/test");
+        Map<String, Object> response = new HashMap<>();
+        response.put("results", externalApiService.getExternalDataParallel(testEndpoints));
+        response.put("apiBaseUrl", dynamicConstants.getApiBaseUrl());
+        return ResponseDto.success("Async REST client test completed successfully", response);
+    }
+}
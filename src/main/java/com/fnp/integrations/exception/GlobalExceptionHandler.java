@@ -1,6 +1,10 @@
 package com.fnp.integrations.exception;
 
 import com.fnp.integrations.dto.ResponseDto;
+import com.fnp.integrations.http.OutboundMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -14,11 +18,15 @@ import java.util.Map;
 
 @Slf4j
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+
     @ExceptionHandler(ResponseException.class)
     public ResponseEntity<ResponseDto<Map<String, Object>>> handleResponseException(ResponseException ex, WebRequest request) {
         log.error("ResponseException occurred: {}", ex.getMessage(), ex);
+        countError(ex.getErrorCode());
         
         Map<String, Object> errorData = new HashMap<>();
         errorData.put("timestamp", LocalDateTime.now());
@@ -41,6 +49,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ResponseDto<Map<String, Object>>> handleGenericException(Exception ex, WebRequest request) {
         log.error("Unexpected error occurred: {}", ex.getMessage(), ex);
+        countError(500);
         
         Map<String, Object> errorData = new HashMap<>();
         errorData.put("timestamp", LocalDateTime.now());
@@ -59,6 +68,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ResponseDto<Map<String, Object>>> handleIllegalArgumentException(IllegalArgumentException ex, WebRequest request) {
         log.error("IllegalArgumentException occurred: {}", ex.getMessage(), ex);
+        countError(400);
         
         Map<String, Object> errorData = new HashMap<>();
         errorData.put("timestamp", LocalDateTime.now());
@@ -73,4 +83,12 @@ public class GlobalExceptionHandler {
         
         return new ResponseEntity<>(responseDto, HttpStatus.BAD_REQUEST);
     }
+
+    private void countError(Integer errorCode) {
+        Counter.builder(OutboundMetrics.ERRORS)
+                .tag("code", String.valueOf(errorCode))
+                .tag("source", OutboundMetrics.SOURCE_INBOUND)
+                .register(meterRegistry)
+                .increment();
+    }
 } 
\ No newline at end of file
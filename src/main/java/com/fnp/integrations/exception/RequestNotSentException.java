@@ -0,0 +1,12 @@
+package com.fnp.integrations.exception;
+
+/**
+ * An outbound call that never reached the upstream: its circuit was open, the local rate limiter had
+ * no permit, or no connection could be made. Repeating it cannot duplicate its effect, even for a POST.
+ */
+public class RequestNotSentException extends ResponseException {
+
+    public RequestNotSentException(Integer appErrorCode, String errorMessage) {
+        super(appErrorCode, errorMessage);
+    }
+}
@@ -0,0 +1,177 @@
+package com.fnp.integrations.http;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token bucket for one upstream host whose refill rate adapts to the upstream's feedback
+ * (AIMD): a 429 cuts the rate by {@code decreaseFactor} (at most once per {@code adjustInterval},
+ * so one burst of 429s counts once), and each interval without one adds {@code increaseStep}
+ * permits/s back until {@code maxRate} is reached. A {@code Retry-After} additionally stops
+ * handing out permits until that instant.
+ * <p>
+ * Permits are reserved, not polled: a caller that cannot be served immediately books the next
+ * free slot and sleeps until it, so waiting callers are served in arrival order without spinning.
+ * The bucket holds at most {@code burst} unused permits.
+ */
+public class AdaptiveRateLimiter {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final double maxRate;
+    private final double minRate;
+    private final double burst;
+    private final double decreaseFactor;
+    private final double increaseStep;
+    private final long adjustIntervalNanos;
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final LongAdder granted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    private volatile double rate; // written under this, read lock-free on the success path
+
+    // guarded by this
+    private double storedPermits;
+    private long nextFreeNanos;
+    private long lastAdjustNanos;
+
+    public AdaptiveRateLimiter(double maxRate, double minRate, double burst, double decreaseFactor,
+                               double increaseStep, long adjustIntervalMillis) {
+        this.maxRate = maxRate;
+        this.minRate = Math.min(minRate, maxRate);
+        this.burst = Math.max(1, burst);
+        this.decreaseFactor = decreaseFactor;
+        this.increaseStep = increaseStep;
+        this.adjustIntervalNanos = TimeUnit.MILLISECONDS.toNanos(adjustIntervalMillis);
+        this.rate = maxRate;
+        this.storedPermits = this.burst;
+        long now = System.nanoTime();
+        this.nextFreeNanos = now;
+        this.lastAdjustNanos = now;
+    }
+
+    /**
+     * Takes one permit, waiting up to {@code timeoutMillis} for it; 0 never waits.
+     *
+     * @return false if no permit becomes free within the timeout (nothing is reserved then)
+     */
+    public boolean tryAcquire(long timeoutMillis) throws InterruptedException {
+        long waitNanos = reserve(TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+        if (waitNanos < 0) {
+            rejected.increment();
+            return false;
+        }
+        if (waitNanos > 0) {
+            queueDepth.incrementAndGet();
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } finally {
+                queueDepth.decrementAndGet();
+            }
+        }
+        granted.increment();
+        return true;
+    }
+
+    /**
+     * The upstream answered 429 (or 503 with Retry-After).
+     *
+     * @param retryAfterMillis the upstream's Retry-After, or a negative value when absent
+     */
+    public synchronized void onThrottled(long retryAfterMillis) {
+        throttled.increment();
+        long now = System.nanoTime();
+        resync(now);
+        if (now - lastAdjustNanos >= adjustIntervalNanos || rate >= maxRate) {
+            rate = Math.max(minRate, rate * decreaseFactor);
+            lastAdjustNanos = now;
+        }
+        storedPermits = 0; // the upstream disagrees with our idea of the burst
+        if (retryAfterMillis > 0) {
+            nextFreeNanos = Math.max(nextFreeNanos, now + TimeUnit.MILLISECONDS.toNanos(retryAfterMillis));
+        }
+    }
+
+    /**
+     * The upstream accepted a request; grows the rate back by one step per elapsed interval.
+     */
+    public void onSuccess() {
+        if (rate >= maxRate) {
+            return; // racy read is fine, steady state stays lock-free
+        }
+        synchronized (this) {
+            long now = System.nanoTime();
+            long intervals = (now - lastAdjustNanos) / adjustIntervalNanos;
+            if (intervals > 0) {
+                resync(now);
+                rate = Math.min(maxRate, rate + intervals * increaseStep);
+                lastAdjustNanos += intervals * adjustIntervalNanos;
+            }
+        }
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public synchronized double getAvailablePermits() {
+        resync(System.nanoTime());
+        return storedPermits;
+    }
+
+    /**
+     * Milliseconds until the next permit is free for a new caller (Retry-After and queued callers included).
+     */
+    public synchronized long getWaitMillis() {
+        long now = System.nanoTime();
+        resync(now);
+        long waitNanos = nextFreeNanos - now;
+        if (storedPermits < 1) {
+            waitNanos += (long) ((1 - storedPermits) * NANOS_PER_SECOND / rate);
+        }
+        return TimeUnit.NANOSECONDS.toMillis(Math.max(0, waitNanos));
+    }
+
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public long getGranted() {
+        return granted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getThrottled() {
+        return throttled.sum();
+    }
+
+    /**
+     * @return nanos the caller must wait for its permit, or -1 if that exceeds the timeout
+     */
+    private synchronized long reserve(long timeoutNanos) {
+        long now = System.nanoTime();
+        resync(now);
+        long waitNanos = nextFreeNanos - now;
+        double fromStored = Math.min(1, storedPermits);
+        long freshNanos = (long) ((1 - fromStored) * NANOS_PER_SECOND / rate);
+        if (waitNanos + freshNanos > timeoutNanos) {
+            return -1;
+        }
+        storedPermits -= fromStored;
+        nextFreeNanos += freshNanos;
+        return waitNanos + freshNanos;
+    }
+
+    private void resync(long now) {
+        if (now > nextFreeNanos) {
+            storedPermits = Math.min(burst, storedPermits + (now - nextFreeNanos) * rate / NANOS_PER_SECOND);
+            nextFreeNanos = now;
+        }
+    }
+}
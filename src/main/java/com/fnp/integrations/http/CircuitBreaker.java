@@ -0,0 +1,185 @@
+package com.fnp.integrations.http;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker for one upstream host over a count-based sliding window of the last
+ * {@code windowSize} calls. Once at least {@code minimumCalls} are recorded, the breaker opens when
+ * the share of failed calls or of slow calls (at least {@code slowCallDuration}) reaches its
+ * threshold. While open every call is refused without touching the network. After
+ * {@code openDuration} it half-opens and lets {@code halfOpenProbes} calls through: if they stay
+ * under both thresholds the breaker closes with a fresh window, otherwise it opens again.
+ * <p>
+ * Each permit carries the generation it was issued in; every state change starts a new one. A call
+ * that finishes after the breaker changed state (e.g. one admitted while closed that answers during
+ * the half-open probes) is not counted.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    public static final long NOT_PERMITTED = -1;
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenProbes;
+    private final LongSupplier nanoClock;
+
+    private final LongAdder notPermitted = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+
+    // guarded by this
+    private final byte[] window;
+    private int next;
+    private int calls;
+    private int failures;
+    private int slowCalls;
+    private volatile State state = State.CLOSED;
+    private long openedAt;
+    private long generation;
+    private int probesIssued;
+    private int probesDone;
+    private int probeFailures;
+    private int probeSlowCalls;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, double slowCallRateThreshold,
+                          long slowCallDurationMillis, long openDurationMillis, int halfOpenProbes) {
+        this(windowSize, minimumCalls, failureRateThreshold, slowCallRateThreshold, slowCallDurationMillis,
+                openDurationMillis, halfOpenProbes, System::nanoTime);
+    }
+
+    CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, double slowCallRateThreshold,
+                   long slowCallDurationMillis, long openDurationMillis, int halfOpenProbes, LongSupplier nanoClock) {
+        this.window = new byte[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, window.length));
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallDurationMillis);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMillis);
+        this.halfOpenProbes = Math.max(1, halfOpenProbes);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return {@link #NOT_PERMITTED} while the breaker refuses calls; otherwise a permit that must be
+     * passed to {@link #onResult} or {@link #onIgnored}
+     */
+    public synchronized long tryAcquire() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAt < openNanos) {
+                notPermitted.increment();
+                return NOT_PERMITTED;
+            }
+            state = State.HALF_OPEN;
+            generation++;
+            probesIssued = probesDone = probeFailures = probeSlowCalls = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesIssued >= halfOpenProbes) {
+                notPermitted.increment();
+                return NOT_PERMITTED;
+            }
+            probesIssued++;
+        }
+        return generation;
+    }
+
+    /**
+     * Records a finished call. 4xx answers count as successes: the host is up and answering.
+     */
+    public synchronized void onResult(long permit, long durationNanos, boolean failed) {
+        if (permit != generation) {
+            return; // admitted before the last state change; nothing to learn from it
+        }
+        byte outcome = (byte) ((failed ? FAILED : 0) | (durationNanos >= slowCallNanos ? SLOW : 0));
+        if (state == State.HALF_OPEN) {
+            probesDone++;
+            probeFailures += outcome & FAILED;
+            probeSlowCalls += (outcome & SLOW) >> 1;
+            if (probesDone >= halfOpenProbes) {
+                if (exceeds(probeFailures, probeSlowCalls, probesDone)) {
+                    open();
+                } else {
+                    close();
+                }
+            }
+        } else if (state == State.CLOSED) {
+            record(outcome);
+            if (calls >= minimumCalls && exceeds(failures, slowCalls, calls)) {
+                open();
+            }
+        }
+    }
+
+    /**
+     * The permitted call never reached the upstream (e.g. the rate limiter refused it).
+     */
+    public synchronized void onIgnored(long permit) {
+        if (permit == generation && state == State.HALF_OPEN) {
+            probesIssued--;
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public synchronized double getFailureRate() {
+        return calls == 0 ? 0 : 100.0 * failures / calls;
+    }
+
+    public synchronized double getSlowCallRate() {
+        return calls == 0 ? 0 : 100.0 * slowCalls / calls;
+    }
+
+    public synchronized int getBufferedCalls() {
+        return calls;
+    }
+
+    public long getNotPermitted() {
+        return notPermitted.sum();
+    }
+
+    public long getOpened() {
+        return opened.sum();
+    }
+
+    private boolean exceeds(int failed, int slow, int total) {
+        return 100.0 * failed / total >= failureRateThreshold || 100.0 * slow / total >= slowCallRateThreshold;
+    }
+
+    private void record(byte outcome) {
+        if (calls == window.length) {
+            byte evicted = window[next];
+            failures -= evicted & FAILED;
+            slowCalls -= (evicted & SLOW) >> 1;
+        } else {
+            calls++;
+        }
+        window[next] = outcome;
+        failures += outcome & FAILED;
+        slowCalls += (outcome & SLOW) >> 1;
+        next = (next + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        generation++;
+        openedAt = nanoClock.getAsLong();
+        opened.increment();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        generation++;
+        next = calls = failures = slowCalls = 0;
+    }
+}
@@ -0,0 +1,64 @@
+package com.fnp.integrations.http;
+
+import com.fnp.integrations.constants.DynamicConstants;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link CircuitBreaker} per upstream host, created on first use from the
+ * {@code http.circuit-breaker.*} settings.
+ */
+@Component
+@RequiredArgsConstructor
+public class CircuitBreakerRegistry {
+
+    private final DynamicConstants constants;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return constants.isHttpCircuitBreakerEnabled();
+    }
+
+    public CircuitBreaker forHost(String host) {
+        return breakers.computeIfAbsent(host, ignored -> new CircuitBreaker(
+                constants.getHttpCircuitBreakerWindowSize(),
+                constants.getHttpCircuitBreakerMinimumCalls(),
+                constants.getHttpCircuitBreakerFailureRateThreshold(),
+                constants.getHttpCircuitBreakerSlowCallRateThreshold(),
+                constants.getHttpCircuitBreakerSlowCallDuration(),
+                constants.getHttpCircuitBreakerOpenDuration(),
+                constants.getHttpCircuitBreakerHalfOpenProbes()));
+    }
+
+    /**
+     * Failures that say the host is unhealthy: no usable answer in time, or a 5xx.
+     */
+    public static boolean isFailure(Throwable failure) {
+        return failure instanceof ResourceAccessException || failure instanceof HttpServerErrorException;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> hosts = new TreeMap<>();
+        breakers.forEach((host, breaker) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("state", breaker.getState());
+            stats.put("failureRate", breaker.getFailureRate());
+            stats.put("slowCallRate", breaker.getSlowCallRate());
+            stats.put("bufferedCalls", breaker.getBufferedCalls());
+            stats.put("notPermittedCalls", breaker.getNotPermitted());
+            stats.put("timesOpened", breaker.getOpened());
+            hosts.put(host, stats);
+        });
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", isEnabled());
+        result.put("hosts", hosts);
+        return result;
+    }
+}
@@ -0,0 +1,227 @@
+package com.fnp.integrations.http;
+
+import com.fnp.integrations.constants.DynamicConstants;
+import com.fnp.integrations.exception.ResponseException;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Hedged requests for latency-critical idempotent calls. The first attempt is sent at once. If it
+ * has not answered within the operation's tracked {@code http.hedging.percentile} latency (at
+ * least {@code min-delay}), an identical second attempt is sent. The first success wins and the
+ * other attempt is cancelled, which aborts its exchange. A failure only completes the call once
+ * no attempt is left in flight.
+ * <p>
+ * Hedging must not turn an upstream outage into twice the load:
+ * <ul>
+ *   <li>there is no hedge until {@code min-samples} latencies were seen;</li>
+ *   <li>each hedge spends a token of the operation's {@link RetryBudget} ({@code budget-percent} of
+ *       its requests, plus {@code budget-min-per-second});</li>
+ *   <li>each attempt needs a rate-limit permit without queueing and a closed circuit for the host.
+ *       When the first attempt cannot get them the whole call takes the {@code fallback} path
+ *       (normally {@code RestClient}), which queues, refuses and maps errors as usual.</li>
+ * </ul>
+ * Attempts report their outcome to the host's circuit breaker and rate limiter.
+ */
+@Component
+@RequiredArgsConstructor
+public class HedgingPolicy {
+
+    private final DynamicConstants constants;
+    private final RateLimiterRegistry rateLimiterRegistry;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor scheduler = newScheduler();
+
+    /**
+     * Runs {@code attempt} hedged and waits for the outcome.
+     *
+     * @param operation names the latency distribution and budget, e.g. {@code lalamove.quotations}
+     * @param attempt   sends one attempt; the call must be idempotent and cancelling the future must abort it
+     * @param fallback  the unhedged call, used when the first attempt is not admitted
+     */
+    public <T> T call(String operation, String host, Supplier<CompletableFuture<T>> attempt, Supplier<T> fallback) {
+        Operation state = operationFor(operation);
+        AdaptiveRateLimiter rateLimiter = rateLimiterRegistry.isEnabled() && null != host ? rateLimiterRegistry.forHost(host) : null;
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.isEnabled() && null != host ? circuitBreakerRegistry.forHost(host) : null;
+        long permit = admit(rateLimiter, circuitBreaker);
+        if (permit == CircuitBreaker.NOT_PERMITTED) {
+            return fallback.get();
+        }
+        state.requests.increment();
+        state.budget.onRequest();
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger inFlight = new AtomicInteger(1);
+        long started = System.nanoTime();
+        CompletableFuture<T> primary = send(attempt, result, inFlight, state, rateLimiter, circuitBreaker, permit, started, false);
+
+        long delay = state.delayNanos(TimeUnit.MILLISECONDS.toNanos(constants.getHttpHedgingMinDelay()));
+        if (delay >= 0) {
+            ScheduledFuture<?> timer = scheduler.schedule(() -> {
+                if (result.isDone() || !state.budget.tryRetry()) {
+                    return;
+                }
+                long hedgePermit = admit(rateLimiter, circuitBreaker);
+                if (hedgePermit == CircuitBreaker.NOT_PERMITTED) {
+                    return;
+                }
+                inFlight.incrementAndGet();
+                state.hedges.increment();
+                CompletableFuture<T> hedge = send(attempt, result, inFlight, state, rateLimiter, circuitBreaker, hedgePermit, started, true);
+                result.whenComplete((value, error) -> hedge.cancel(true));
+            }, delay, TimeUnit.NANOSECONDS);
+            result.whenComplete((value, error) -> timer.cancel(false));
+        }
+        result.whenComplete((value, error) -> primary.cancel(true));
+
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public Map<String, Object> getStats(String operation) {
+        Operation state = operationFor(operation);
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long delay = state.delayNanos(TimeUnit.MILLISECONDS.toNanos(constants.getHttpHedgingMinDelay()));
+        stats.put("hedgeDelayMs", delay < 0 ? null : TimeUnit.NANOSECONDS.toMillis(delay));
+        stats.put("samples", state.latencies.getSampleCount());
+        stats.put("requests", state.requests.sum());
+        stats.put("hedges", state.hedges.sum());
+        stats.put("hedgeWins", state.hedgeWins.sum());
+        stats.put("budgetExhausted", state.budget.getExhausted());
+        return stats;
+    }
+
+    private <T> CompletableFuture<T> send(Supplier<CompletableFuture<T>> attempt, CompletableFuture<T> result, AtomicInteger inFlight,
+                                          Operation state, AdaptiveRateLimiter rateLimiter, CircuitBreaker circuitBreaker,
+                                          long permit, long callStarted, boolean hedge) {
+        long started = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = attempt.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((value, error) -> {
+            long elapsed = System.nanoTime() - started;
+            Throwable failure = error instanceof CompletionException && null != error.getCause() ? error.getCause() : error;
+            if (failure instanceof CancellationException) {
+                if (null != circuitBreaker) {
+                    circuitBreaker.onIgnored(permit); // the loser: its latency is unknown
+                }
+                return;
+            }
+            int errorCode = failure instanceof ResponseException ex && null != ex.getErrorCode() ? ex.getErrorCode() : 500;
+            if (null != circuitBreaker) {
+                circuitBreaker.onResult(permit, elapsed, null != failure && errorCode >= 500);
+            }
+            if (null != rateLimiter) {
+                if (null == failure) {
+                    rateLimiter.onSuccess();
+                } else if (errorCode == 429) {
+                    rateLimiter.onThrottled(-1);
+                }
+            }
+            if (null == failure) {
+                if (result.complete(value)) {
+                    // the primary's latency; when the hedge wins, the time the primary had taken by then
+                    state.latencies.record(System.nanoTime() - callStarted);
+                    if (hedge) {
+                        state.hedgeWins.increment();
+                    }
+                }
+            } else if (inFlight.decrementAndGet() == 0) {
+                result.completeExceptionally(failure);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * @return the breaker permit if the host's breaker is closed and the limiter has a permit right
+     * now, otherwise {@link CircuitBreaker#NOT_PERMITTED}
+     */
+    private static long admit(AdaptiveRateLimiter rateLimiter, CircuitBreaker circuitBreaker) {
+        if (null != circuitBreaker && circuitBreaker.getState() != CircuitBreaker.State.CLOSED) {
+            return CircuitBreaker.NOT_PERMITTED;
+        }
+        long permit = null != circuitBreaker ? circuitBreaker.tryAcquire() : 0;
+        if (permit == CircuitBreaker.NOT_PERMITTED) {
+            return permit;
+        }
+        try {
+            if (null == rateLimiter || rateLimiter.tryAcquire(0)) {
+                return permit;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (null != circuitBreaker) {
+            circuitBreaker.onIgnored(permit);
+        }
+        return CircuitBreaker.NOT_PERMITTED;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * One daemon thread for the hedge timers. It only starts attempts, which return at once, and a
+     * timer is removed as soon as its call completes, so the queue holds the calls in flight.
+     */
+    private static ScheduledThreadPoolExecutor newScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1,
+                Thread.ofPlatform().name("hedging-timer").daemon().factory());
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    private Operation operationFor(String operation) {
+        return operations.computeIfAbsent(operation, ignored -> new Operation(
+                new LatencyTracker(constants.getHttpHedgingPercentile(), constants.getHttpHedgingWindow(), constants.getHttpHedgingMinSamples()),
+                new RetryBudget(constants.getHttpHedgingBudgetPercent(), constants.getHttpHedgingBudgetMinPerSecond())));
+    }
+
+    private static final class Operation {
+        private final LatencyTracker latencies;
+        private final RetryBudget budget;
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder hedges = new LongAdder();
+        private final LongAdder hedgeWins = new LongAdder();
+
+        private Operation(LatencyTracker latencies, RetryBudget budget) {
+            this.latencies = latencies;
+            this.budget = budget;
+        }
+
+        /**
+         * @return the hedge delay, or -1 while there is too little history to hedge
+         */
+        private long delayNanos(long minDelayNanos) {
+            long percentile = latencies.getPercentileNanos();
+            return percentile < 0 ? -1 : Math.max(minDelayNanos, percentile);
+        }
+    }
+}
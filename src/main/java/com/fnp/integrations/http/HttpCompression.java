@@ -0,0 +1,292 @@
+package com.fnp.integrations.http;
+
+import com.fnp.integrations.constants.DynamicConstants;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Content coding for the outbound clients, installed on {@code RestTemplate} as an interceptor and
+ * called directly by {@code AsyncRestClient}:
+ * <ul>
+ *   <li>every request offers {@value #ACCEPT_ENCODING}; compressed responses are decoded while the
+ *       body is read, so a streamed response stays streamed;</li>
+ *   <li>request bodies to the hosts listed in {@code http.compression.request-hosts} are gzipped
+ *       once they reach {@code request-min-size} bytes, or the size given per host
+ *       ({@code host=bytes}). Only list partners known to accept {@code Content-Encoding: gzip}.</li>
+ * </ul>
+ * Bytes are counted per host both on the wire and decoded, so the savings are visible under
+ * {@code GET /api/config/compression}.
+ */
+@Component
+public class HttpCompression implements ClientHttpRequestInterceptor {
+
+    public static final String ACCEPT_ENCODING = "gzip, deflate";
+    public static final String GZIP = "gzip";
+
+    private final DynamicConstants constants;
+    private final Map<String, Integer> requestThresholds = new HashMap<>();
+    private final Map<String, Traffic> traffic = new ConcurrentHashMap<>();
+
+    public HttpCompression(DynamicConstants constants) {
+        this.constants = constants;
+        for (String entry : constants.getHttpCompressionRequestHosts()) {
+            String[] hostAndSize = entry.trim().split("=", 2);
+            if (!hostAndSize[0].isEmpty()) {
+                requestThresholds.put(hostAndSize[0].toLowerCase(Locale.ROOT), hostAndSize.length > 1
+                        ? Integer.parseInt(hostAndSize[1].trim()) : constants.getHttpCompressionRequestMinSize());
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return constants.isHttpCompressionEnabled();
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        if (!isEnabled()) {
+            return execution.execute(request, body);
+        }
+        String host = request.getURI().getHost();
+        HttpHeaders headers = request.getHeaders();
+        if (!headers.containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+            headers.set(HttpHeaders.ACCEPT_ENCODING, ACCEPT_ENCODING);
+        }
+        byte[] wire = headers.containsKey(HttpHeaders.CONTENT_ENCODING) ? null : encodeRequest(host, body);
+        if (null != wire) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+            headers.setContentLength(wire.length);
+        } else {
+            wire = body;
+            recordRequest(host, body.length, body.length);
+        }
+        ClientHttpResponse response = execution.execute(request, wire);
+        return new DecodedResponse(response, this, host);
+    }
+
+    /**
+     * @return the gzipped body if this host takes compressed requests of this size, otherwise null
+     */
+    public byte[] encodeRequest(String host, byte[] body) throws IOException {
+        Integer threshold = null != host && isEnabled() ? requestThresholds.get(host.toLowerCase(Locale.ROOT)) : null;
+        if (null == threshold || body.length == 0 || body.length < threshold) {
+            return null;
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(body);
+        }
+        byte[] wire = buffer.toByteArray();
+        recordRequest(host, body.length, wire.length);
+        trafficFor(host).compressedRequests.increment();
+        return wire;
+    }
+
+    /**
+     * Counts a request body: its size and the bytes that went on the wire.
+     */
+    public void recordRequest(String host, long bytes, long wireBytes) {
+        if (bytes > 0) {
+            Traffic counters = trafficFor(host);
+            counters.requestBytes.add(bytes);
+            counters.requestWireBytes.add(wireBytes);
+        }
+    }
+
+    /**
+     * Wraps a response body so it is decoded (gzip, x-gzip or deflate) and counted as it is read.
+     * Any other content coding is passed through unchanged.
+     */
+    public InputStream decodeResponse(String host, String contentEncoding, InputStream wire) throws IOException {
+        Traffic counters = trafficFor(host);
+        InputStream counted = new CountingInputStream(wire, counters.responseWireBytes);
+        if (!isDecodable(contentEncoding)) {
+            return new CountingInputStream(counted, counters.responseBytes);
+        }
+        // peek at the first two bytes: an empty body (204, HEAD) has no stream header to read, and
+        // HTTP "deflate" is meant to be zlib-wrapped but some servers send it raw
+        PushbackInputStream in = new PushbackInputStream(counted, 2);
+        int first = in.read();
+        int second = first < 0 ? -1 : in.read();
+        if (second >= 0) {
+            in.unread(second);
+        }
+        if (first < 0) {
+            return in;
+        }
+        in.unread(first);
+        InputStream decoded;
+        if (contentEncoding.trim().equalsIgnoreCase("deflate")) {
+            boolean zlib = second >= 0 && (first & 0x0f) == 8 && ((first << 8) | second) % 31 == 0;
+            decoded = new InflaterInputStream(in, new Inflater(!zlib), 8192);
+        } else {
+            decoded = new GZIPInputStream(in, 8192);
+        }
+        counters.compressedResponses.increment();
+        return new CountingInputStream(decoded, counters.responseBytes);
+    }
+
+    public static boolean isDecodable(String contentEncoding) {
+        String coding = null != contentEncoding ? contentEncoding.trim().toLowerCase(Locale.ROOT) : "";
+        return coding.equals("gzip") || coding.equals("x-gzip") || coding.equals("deflate");
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> hosts = new TreeMap<>();
+        traffic.forEach((host, counters) -> {
+            long requestBytes = counters.requestBytes.sum();
+            long requestWireBytes = counters.requestWireBytes.sum();
+            long responseBytes = counters.responseBytes.sum();
+            long responseWireBytes = counters.responseWireBytes.sum();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("requestBytes", requestBytes);
+            stats.put("requestWireBytes", requestWireBytes);
+            stats.put("compressedRequests", counters.compressedRequests.sum());
+            stats.put("responseBytes", responseBytes);
+            stats.put("responseWireBytes", responseWireBytes);
+            stats.put("compressedResponses", counters.compressedResponses.sum());
+            stats.put("savedBytes", requestBytes - requestWireBytes + responseBytes - responseWireBytes);
+            hosts.put(host, stats);
+        });
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", isEnabled());
+        result.put("hosts", hosts);
+        return result;
+    }
+
+    private Traffic trafficFor(String host) {
+        return traffic.computeIfAbsent(null != host ? host : "none", ignored -> new Traffic());
+    }
+
+    private static final class Traffic {
+        private final LongAdder requestBytes = new LongAdder();
+        private final LongAdder requestWireBytes = new LongAdder();
+        private final LongAdder compressedRequests = new LongAdder();
+        private final LongAdder responseBytes = new LongAdder();
+        private final LongAdder responseWireBytes = new LongAdder();
+        private final LongAdder compressedResponses = new LongAdder();
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private final LongAdder counter;
+
+        private CountingInputStream(InputStream in, LongAdder counter) {
+            super(in);
+            this.counter = counter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                counter.increment();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                counter.add(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            counter.add(skipped);
+            return skipped;
+        }
+    }
+
+    /**
+     * The response as the caller should see it: the body decoded and counted, and the coding
+     * headers of a decoded body removed (its length is no longer the declared one).
+     */
+    private static final class DecodedResponse implements ClientHttpResponse {
+        private final ClientHttpResponse response;
+        private final HttpCompression compression;
+        private final String host;
+        private HttpHeaders headers;
+        private InputStream body;
+
+        private DecodedResponse(ClientHttpResponse response, HttpCompression compression, String host) {
+            this.response = response;
+            this.compression = compression;
+            this.host = host;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            if (null == headers) {
+                HttpHeaders original = response.getHeaders();
+                if (isDecodable(original.getFirst(HttpHeaders.CONTENT_ENCODING))) {
+                    headers = new HttpHeaders();
+                    headers.putAll(original);
+                    headers.remove(HttpHeaders.CONTENT_ENCODING);
+                    headers.remove(HttpHeaders.CONTENT_LENGTH);
+                } else {
+                    headers = original;
+                }
+            }
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (null == body) {
+                body = compression.decodeResponse(host, response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING), response.getBody());
+            }
+            return body;
+        }
+
+        /**
+         * Closes the decoding stream before the response, so its {@link Inflater} is released even when
+         * the body was not read to the end.
+         */
+        @Override
+        public void close() {
+            try (response) {
+                if (null != body) {
+                    body.close();
+                }
+            } catch (IOException ignored) {
+                // the response is closed regardless, and the caller has nothing left to read
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.fnp.integrations.http;
+
+import java.util.Arrays;
+
+/**
+ * A percentile of the last {@code window} latencies of one operation. Samples go into a ring
+ * buffer; the percentile is recomputed (copy and sort) after every twentieth of a window of new
+ * samples, so reading it costs nothing and it follows a shifting distribution within a window.
+ */
+public class LatencyTracker {
+
+    private final double percentile;
+    private final int minSamples;
+    private final int recomputeEvery;
+
+    // guarded by this
+    private final long[] samples;
+    private int next;
+    private int count;
+    private int sinceRecompute;
+    private volatile long percentileNanos = -1;
+
+    public LatencyTracker(double percentile, int window, int minSamples) {
+        this.percentile = percentile;
+        this.samples = new long[Math.max(1, window)];
+        this.minSamples = Math.max(1, Math.min(minSamples, samples.length));
+        this.recomputeEvery = Math.max(1, samples.length / 20);
+    }
+
+    public synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+        if (count >= minSamples && (++sinceRecompute >= recomputeEvery || percentileNanos < 0)) {
+            sinceRecompute = 0;
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(percentile / 100 * count) - 1;
+            percentileNanos = sorted[Math.max(0, Math.min(count - 1, rank))];
+        }
+    }
+
+    /**
+     * @return the tracked percentile, or -1 until {@code minSamples} latencies were recorded
+     */
+    public long getPercentileNanos() {
+        return percentileNanos;
+    }
+
+    public synchronized int getSampleCount() {
+        return count;
+    }
+}
@@ -0,0 +1,118 @@
+package com.fnp.integrations.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fnp.integrations.constants.DynamicConstants;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Request/response logging for the outbound clients, at DEBUG and for a sampled share of calls
+ * only. Nothing is serialized on the calling thread unless the line is actually written: bodies
+ * and headers are passed as lazy arguments rendered by the appender's formatter. Rendered bodies
+ * have the configured JSON fields masked and are cut to {@code http.logging.max-body-length}
+ * characters; the configured headers (Authorization by default) are always masked.
+ */
+@Slf4j
+@Component
+public class OutboundLogger {
+
+    static final String MASK = "***";
+
+    private final ObjectMapper objectMapper;
+    private final DynamicConstants constants;
+    private final Set<String> redactedHeaders;
+    private final Pattern redactedFields;
+
+    public OutboundLogger(ObjectMapper objectMapper, DynamicConstants constants) {
+        this.objectMapper = objectMapper;
+        this.constants = constants;
+        this.redactedHeaders = Arrays.stream(constants.getHttpLoggingRedactHeaders())
+                .map(header -> header.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        String fields = Arrays.stream(constants.getHttpLoggingRedactFields())
+                .map(String::trim).filter(field -> !field.isEmpty()).map(Pattern::quote)
+                .collect(Collectors.joining("|"));
+        this.redactedFields = fields.isEmpty() ? null
+                : Pattern.compile("\"(" + fields + ")\"\\s*:\\s*(\"(?:[^\"\\\\]|\\\\.)*\"|[^,}\\]\\s]+)", Pattern.CASE_INSENSITIVE);
+    }
+
+    /**
+     * Decides once per call whether its request and response are logged.
+     */
+    public boolean sample() {
+        if (!log.isDebugEnabled()) {
+            return false;
+        }
+        double rate = constants.getHttpLoggingSampleRate();
+        return rate >= 1 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    public void request(boolean sampled, HttpMethod method, String url, HttpHeaders headers, Object payload) {
+        if (sampled) {
+            log.debug("--> {} {} Headers: {}, Payload: {}", method, url, lazy(() -> redact(headers)), lazy(() -> render(payload)));
+        }
+    }
+
+    public void response(boolean sampled, HttpMethod method, String url, long elapsedNanos, Object body) {
+        if (sampled) {
+            log.debug("<-- {} {} in {}ms, Response: {}", method, url, elapsedNanos / 1_000_000, lazy(() -> render(body)));
+        }
+    }
+
+    String redact(HttpHeaders headers) {
+        if (null == headers) {
+            return null;
+        }
+        StringBuilder out = new StringBuilder("[");
+        headers.forEach((name, values) -> {
+            if (out.length() > 1) {
+                out.append(", ");
+            }
+            out.append(name).append(':').append(redactedHeaders.contains(name.toLowerCase(Locale.ROOT)) ? MASK : values);
+        });
+        return out.append(']').toString();
+    }
+
+    String render(Object body) {
+        if (null == body) {
+            return null;
+        }
+        String text;
+        if (body instanceof byte[] bytes) {
+            text = new String(bytes, StandardCharsets.UTF_8); // pre-serialized JSON payload
+        } else if (body instanceof CharSequence chars) {
+            text = chars.toString();
+        } else {
+            try {
+                text = objectMapper.writeValueAsString(body);
+            } catch (Exception ex) {
+                return body.getClass().getSimpleName() + " (not serializable: " + ex.getMessage() + ")";
+            }
+        }
+        if (null != redactedFields) {
+            text = redactedFields.matcher(text).replaceAll("\"$1\":\"" + MASK + "\"");
+        }
+        int max = constants.getHttpLoggingMaxBodyLength();
+        return max >= 0 && text.length() > max ? text.substring(0, max) + "... (" + text.length() + " chars)" : text;
+    }
+
+    private static Object lazy(Supplier<String> rendering) {
+        return new Object() {
+            @Override
+            public String toString() {
+                return rendering.get();
+            }
+        };
+    }
+}
@@ -0,0 +1,131 @@
+package com.fnp.integrations.http;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Micrometer instrumentation of the outbound clients:
+ * <ul>
+ *   <li>{@value #OUTBOUND_REQUESTS}: one timer sample per attempt, tagged host, method, uri (the
+ *       path template), status and outcome; percentiles are configured under
+ *       {@code management.metrics.distribution};</li>
+ *   <li>{@value #ERRORS}: the {@code ResponseStatus} error codes handed to callers, by source;</li>
+ *   <li>per-host gauges of the rate limiter, circuit breaker and retry budget, bound on first use.</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboundMetrics {
+
+    public static final String OUTBOUND_REQUESTS = "http.client.outbound";
+    public static final String ERRORS = "fnp.errors";
+    public static final String SOURCE_UPSTREAM = "upstream";
+    public static final String SOURCE_INBOUND = "inbound";
+
+    private static final String NONE = "none";
+    // Path segments that carry ids rather than routes (four or more digits), e.g. orders/3351234611470438, not v3
+    private static final Pattern ID_SEGMENT = Pattern.compile("/[^/{}]*(?:\\d[^/{}]*){4,}");
+
+    private final MeterRegistry meterRegistry;
+    private final RateLimiterRegistry rateLimiterRegistry;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final RetryPolicy retryPolicy;
+    private final Set<String> boundHosts = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param status the upstream status, or a negative value when no response was received
+     */
+    public void record(String host, HttpMethod method, String url, int status, long elapsedNanos) {
+        String hostTag = null != host ? host : NONE;
+        bindHostGauges(hostTag);
+        Timer.builder(OUTBOUND_REQUESTS)
+                .description("Outbound HTTP calls, one sample per attempt")
+                .tag("host", hostTag)
+                .tag("method", method.name())
+                .tag("uri", uriTemplate(url))
+                .tag("status", status < 0 ? "IO_ERROR" : String.valueOf(status))
+                .tag("outcome", outcome(status))
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void record(String host, HttpMethod method, String url, Throwable failure, long elapsedNanos) {
+        record(host, method, url, failure instanceof HttpStatusCodeException ex ? ex.getStatusCode().value() : -1, elapsedNanos);
+    }
+
+    public void error(int errorCode, String source) {
+        Counter.builder(ERRORS)
+                .description("ResponseStatus error codes returned to callers")
+                .tag("code", String.valueOf(errorCode))
+                .tag("source", source)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * The route part of the URL: scheme, host and query are dropped, {@code {uriVariable}}
+     * placeholders are kept and concrete ids are folded into {@code {id}} to bound tag cardinality.
+     */
+    static String uriTemplate(String url) {
+        if (null == url) {
+            return NONE;
+        }
+        int start = url.indexOf("://");
+        start = start < 0 ? 0 : url.indexOf('/', start + 3);
+        if (start < 0) {
+            return "/";
+        }
+        int end = url.indexOf('?', start);
+        String path = end < 0 ? url.substring(start) : url.substring(start, end);
+        return ID_SEGMENT.matcher(path).replaceAll("/{id}");
+    }
+
+    private static String outcome(int status) {
+        if (status < 0) {
+            return "IO_ERROR";
+        }
+        if (status < 300) {
+            return "SUCCESS";
+        }
+        if (status < 400) {
+            return "REDIRECTION";
+        }
+        return status < 500 ? "CLIENT_ERROR" : "SERVER_ERROR";
+    }
+
+    private void bindHostGauges(String host) {
+        if (NONE.equals(host) || !boundHosts.add(host)) {
+            return;
+        }
+        if (rateLimiterRegistry.isEnabled()) {
+            AdaptiveRateLimiter limiter = rateLimiterRegistry.forHost(host);
+            Gauge.builder("http.client.rate-limit.rate", limiter, AdaptiveRateLimiter::getRate)
+                    .description("Current permits per second").tag("host", host).register(meterRegistry);
+            Gauge.builder("http.client.rate-limit.queue", limiter, AdaptiveRateLimiter::getQueueDepth)
+                    .description("Callers waiting for a permit").tag("host", host).register(meterRegistry);
+        }
+        if (circuitBreakerRegistry.isEnabled()) {
+            CircuitBreaker breaker = circuitBreakerRegistry.forHost(host);
+            Gauge.builder("http.client.circuit-breaker.state", breaker, b -> b.getState().ordinal())
+                    .description("0 closed, 1 open, 2 half-open").tag("host", host).register(meterRegistry);
+            Gauge.builder("http.client.circuit-breaker.failure-rate", breaker, CircuitBreaker::getFailureRate)
+                    .description("Failed calls in the window, %").tag("host", host).register(meterRegistry);
+        }
+        if (retryPolicy.isEnabled()) {
+            RetryBudget budget = retryPolicy.budgetFor(host);
+            Gauge.builder("http.client.retry.budget", budget, RetryBudget::getBalance)
+                    .description("Retry tokens available").tag("host", host).register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.fnp.integrations.http;
+
+import com.fnp.integrations.constants.DynamicConstants;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link AdaptiveRateLimiter} per upstream host, created on first use from the
+ * {@code http.rate-limit.*} settings. Callers pick the waiting behaviour per request with the
+ * {@value #TIMEOUT_HEADER} header (milliseconds to queue for a permit, 0 to fail fast); it is
+ * stripped before the request is sent. Without it {@code http.rate-limit.queue-timeout} applies.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimiterRegistry {
+
+    public static final String TIMEOUT_HEADER = "X-Rate-Limit-Timeout";
+
+    private final DynamicConstants constants;
+    private final Map<String, AdaptiveRateLimiter> limiters = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return constants.isHttpRateLimitEnabled();
+    }
+
+    public AdaptiveRateLimiter forHost(String host) {
+        return limiters.computeIfAbsent(host, ignored -> new AdaptiveRateLimiter(
+                constants.getHttpRateLimitMaxRate(),
+                constants.getHttpRateLimitMinRate(),
+                constants.getHttpRateLimitBurst(),
+                constants.getHttpRateLimitDecreaseFactor(),
+                constants.getHttpRateLimitIncreaseStep(),
+                constants.getHttpRateLimitAdjustInterval()));
+    }
+
+    /**
+     * Removes the {@value #TIMEOUT_HEADER} control header and returns its value, or the configured default.
+     */
+    public long takeTimeout(HttpHeaders headers) {
+        String value = headers.getFirst(TIMEOUT_HEADER);
+        headers.remove(TIMEOUT_HEADER);
+        if (null != value) {
+            try {
+                return Math.max(0, Long.parseLong(value.trim()));
+            } catch (NumberFormatException ignored) {
+                // fall through to the default
+            }
+        }
+        return constants.getHttpRateLimitQueueTimeout();
+    }
+
+    /**
+     * {@code Retry-After} in milliseconds, either delta-seconds or an HTTP-date; -1 when absent or unparseable.
+     */
+    public static long retryAfterMillis(HttpHeaders headers) {
+        String value = null != headers ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null;
+        if (null == value || value.isBlank()) {
+            return -1;
+        }
+        try {
+            return Duration.ofSeconds(Long.parseLong(value.trim())).toMillis();
+        } catch (NumberFormatException ignored) {
+            // not delta-seconds, try the HTTP-date form
+        }
+        try {
+            ZonedDateTime at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, Duration.between(ZonedDateTime.now(at.getZone()), at).toMillis());
+        } catch (DateTimeParseException ignored) {
+            return -1;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> hosts = new TreeMap<>();
+        limiters.forEach((host, limiter) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("rate", limiter.getRate());
+            stats.put("maxRate", constants.getHttpRateLimitMaxRate());
+            stats.put("availablePermits", limiter.getAvailablePermits());
+            stats.put("waitMillis", limiter.getWaitMillis());
+            stats.put("queueDepth", limiter.getQueueDepth());
+            stats.put("granted", limiter.getGranted());
+            stats.put("rejected", limiter.getRejected());
+            stats.put("throttled", limiter.getThrottled());
+            hosts.put(host, stats);
+        });
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", isEnabled());
+        result.put("hosts", hosts);
+        return result;
+    }
+}
@@ -0,0 +1,79 @@
+package com.fnp.integrations.http;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps retries towards one host at a share of its live traffic, so retries cannot multiply the
+ * load on an upstream that is already failing. Every original request deposits
+ * {@code percent / 100} of a token and every retry spends a whole one; the balance is capped at
+ * the tokens earned over the last 1000 requests. A small per-second reserve keeps retries possible
+ * when traffic is too low to earn tokens.
+ */
+public class RetryBudget {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final double depositPerRequest;
+    private final double maxBalance;
+    private final int minRetriesPerSecond;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    // guarded by this
+    private double balance;
+    private long reserveSecond;
+    private int reserveUsed;
+
+    public RetryBudget(double percent, int minRetriesPerSecond) {
+        this.depositPerRequest = percent / 100;
+        this.maxBalance = Math.max(1, depositPerRequest * 1000);
+        this.minRetriesPerSecond = minRetriesPerSecond;
+    }
+
+    public synchronized void onRequest() {
+        requests.increment();
+        balance = Math.min(maxBalance, balance + depositPerRequest);
+    }
+
+    /**
+     * @return true if one more retry fits the budget; the retry is then accounted for
+     */
+    public synchronized boolean tryRetry() {
+        if (balance >= 1) {
+            balance -= 1;
+            retries.increment();
+            return true;
+        }
+        long second = System.nanoTime() / NANOS_PER_SECOND;
+        if (second != reserveSecond) {
+            reserveSecond = second;
+            reserveUsed = 0;
+        }
+        if (reserveUsed < minRetriesPerSecond) {
+            reserveUsed++;
+            retries.increment();
+            return true;
+        }
+        exhausted.increment();
+        return false;
+    }
+
+    public synchronized double getBalance() {
+        return balance;
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    public long getExhausted() {
+        return exhausted.sum();
+    }
+}
@@ -0,0 +1,102 @@
+package com.fnp.integrations.http;
+
+import com.fnp.integrations.constants.DynamicConstants;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether and when a failed outbound call is retried:
+ * <ul>
+ *   <li>only I/O failures (timeouts, refused or reset connections), 5xx other than 501, and 429;</li>
+ *   <li>only idempotent methods, or a POST/PATCH carrying an {@value #IDEMPOTENCY_KEY_HEADER} header;</li>
+ *   <li>at most {@code api.retry-count} times, and only while the host's {@link RetryBudget} allows it;</li>
+ *   <li>after a decorrelated-jitter backoff ({@code random(base, 3 * previous)}, capped), or the
+ *       upstream's {@code Retry-After} when longer; a Retry-After beyond the cap is not waited for.</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+public class RetryPolicy {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private static final Set<HttpMethod> IDEMPOTENT_METHODS = Set.of(
+            HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.PUT, HttpMethod.DELETE, HttpMethod.TRACE);
+
+    private final DynamicConstants constants;
+    private final Map<String, RetryBudget> budgets = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return constants.isHttpRetryEnabled() && constants.getApiRetryCount() > 0;
+    }
+
+    public int getMaxRetries() {
+        return constants.getApiRetryCount();
+    }
+
+    public RetryBudget budgetFor(String host) {
+        return budgets.computeIfAbsent(host, ignored ->
+                new RetryBudget(constants.getHttpRetryBudgetPercent(), constants.getHttpRetryBudgetMinPerSecond()));
+    }
+
+    public static boolean isIdempotent(HttpMethod method, HttpHeaders headers) {
+        return IDEMPOTENT_METHODS.contains(method) || (null != headers && headers.containsKey(IDEMPOTENCY_KEY_HEADER));
+    }
+
+    public static boolean isRetryable(Throwable failure) {
+        if (failure instanceof ResourceAccessException) {
+            return true;
+        }
+        if (failure instanceof HttpServerErrorException serverError) {
+            return !serverError.getStatusCode().equals(HttpStatus.NOT_IMPLEMENTED);
+        }
+        return failure instanceof HttpClientErrorException.TooManyRequests;
+    }
+
+    /**
+     * @param previousMillis the previous backoff, or 0 before the first retry
+     * @param retryAfterMillis the upstream's Retry-After, or a negative value when absent
+     * @return milliseconds to wait before the next attempt, or -1 if the upstream asks for longer than the cap
+     */
+    public long backoffMillis(long previousMillis, long retryAfterMillis) {
+        long base = constants.getHttpRetryBackoffBase();
+        long max = constants.getHttpRetryBackoffMax();
+        if (retryAfterMillis > max) {
+            return -1;
+        }
+        long upper = Math.max(base, previousMillis * 3);
+        long jittered = Math.min(max, base + ThreadLocalRandom.current().nextLong(upper - base + 1));
+        return Math.max(jittered, retryAfterMillis);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> hosts = new TreeMap<>();
+        budgets.forEach((host, budget) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("requests", budget.getRequests());
+            stats.put("retries", budget.getRetries());
+            stats.put("budgetExhausted", budget.getExhausted());
+            stats.put("budgetBalance", budget.getBalance());
+            hosts.put(host, stats);
+        });
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", isEnabled());
+        result.put("maxRetries", getMaxRetries());
+        result.put("budgetPercent", constants.getHttpRetryBudgetPercent());
+        result.put("hosts", hosts);
+        return result;
+    }
+}
@@ -1,17 +1,33 @@
 package com.fnp.integrations.lalamove.controllers;
 
+import com.fnp.integrations.concurrent.SingleFlight;
+import com.fnp.integrations.dto.ResponseDto;
 import com.fnp.integrations.lalamove.dtos.LalamoveOrderRequestWrapper;
 import com.fnp.integrations.lalamove.dtos.LalamoveOrderResponseDto;
+import com.fnp.integrations.lalamove.dtos.LalamoveOrderTrackingDto;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.fnp.integrations.lalamove.dtos.LalamoveDeliveryRequestWrapper;
+import com.fnp.integrations.lalamove.dtos.LalamoveQuotationBatchResponseDto;
 import com.fnp.integrations.lalamove.dtos.LalamoveQuotationResponseDto;
+import com.fnp.integrations.lalamove.services.LalamoveOrderOutboxService;
+import com.fnp.integrations.lalamove.services.LalamoveOrderPoller;
+import com.fnp.integrations.lalamove.services.LalamoveQuotationBatchService;
+import com.fnp.integrations.lalamove.services.LalamoveQuotationCache;
 import com.fnp.integrations.lalamove.services.LalamoveService;
+import com.fnp.integrations.lalamove.services.LalamoveWebhookService;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/lalamove")
@@ -20,14 +36,91 @@ public class LalamoveController {
     @Autowired
     private LalamoveService lalamoveService;
 
+    @Autowired
+    private LalamoveQuotationCache quotationCache;
+
+    @Autowired
+    private LalamoveQuotationBatchService quotationBatchService;
+
+    @Autowired
+    private LalamoveOrderOutboxService orderOutboxService;
+
+    @Autowired
+    private LalamoveWebhookService webhookService;
+
+    @Autowired
+    private LalamoveOrderPoller orderPoller;
+
     @PostMapping("/quotations")
     public ResponseEntity<LalamoveQuotationResponseDto> getQuotations(@RequestBody LalamoveDeliveryRequestWrapper request) {
         // Call the service to get quotations from Lalamove API
         return ResponseEntity.ok(lalamoveService.getQuotations(request));
     }
 
+    @PostMapping("/quotations/batch")
+    public ResponseEntity<LalamoveQuotationBatchResponseDto> getQuotationsBatch(@RequestBody List<LalamoveDeliveryRequestWrapper> requests) {
+        return ResponseEntity.ok(quotationBatchService.getQuotations(requests));
+    }
+
+    @GetMapping("/quotations/cache/stats")
+    public ResponseDto<Map<String, Object>> getQuotationCacheStats() {
+        Map<String, Object> stats = quotationCache.getStats();
+        SingleFlight<?, ?> flights = lalamoveService.getQuotationFlights();
+        stats.put("coalescing", Map.of(
+                "inFlight", flights.getInFlight(),
+                "upstreamCalls", flights.getExecutions(),
+                "coalescedRequests", flights.getCoalesced()));
+        stats.put("hedging", lalamoveService.getQuotationHedgingStats());
+        return ResponseDto.success("Quotation cache statistics retrieved successfully", stats);
+    }
+
     @PostMapping("/orders")
     public ResponseEntity<LalamoveOrderResponseDto> placeOrders(@RequestBody LalamoveOrderRequestWrapper request) {
         return ResponseEntity.ok(lalamoveService.placeOrders(request));
     }
-}
\ No newline at end of file
+
+    @PostMapping("/orders/async")
+    public ResponseEntity<LalamoveOrderTrackingDto> placeOrdersAsync(@RequestBody LalamoveOrderRequestWrapper request) {
+        LalamoveOrderTrackingDto tracking = orderOutboxService.submit(request);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/lalamove/orders/async/" + tracking.getTrackingId()))
+                .body(tracking);
+    }
+
+    @GetMapping("/orders/{orderId}")
+    public ResponseEntity<LalamoveOrderResponseDto> getOrder(@PathVariable String orderId) {
+        return ResponseEntity.ok(lalamoveService.getOrder(orderId));
+    }
+
+    @GetMapping("/orders/cache/stats")
+    public ResponseDto<Map<String, Object>> getOrderReadModelStats() {
+        Map<String, Object> stats = lalamoveService.getOrderReadModelStats();
+        stats.put("polling", orderPoller.getStats());
+        return ResponseDto.success("Order read model statistics retrieved successfully", stats);
+    }
+
+    @GetMapping("/orders/async/{trackingId}")
+    public ResponseEntity<LalamoveOrderTrackingDto> getAsyncOrderStatus(@PathVariable String trackingId) {
+        return ResponseEntity.ok(orderOutboxService.getStatus(trackingId));
+    }
+
+    @PostMapping("/orders/async/{trackingId}/reconcile")
+    public ResponseEntity<LalamoveOrderTrackingDto> reconcileAsyncOrder(@PathVariable String trackingId,
+                                                                        @RequestParam(required = false) String orderId) {
+        return ResponseEntity.ok(orderOutboxService.reconcile(trackingId, orderId));
+    }
+
+    @PostMapping("/webhooks")
+    public ResponseEntity<Void> receiveWebhook(@RequestBody(required = false) byte[] body) {
+        // Lalamove validates a new webhook URL with an empty POST, which only needs a 200
+        if (null != body && body.length > 0) {
+            webhookService.receive(body);
+        }
+        return ResponseEntity.ok().build();
+    }
+
+    @GetMapping("/webhooks/stats")
+    public ResponseDto<Map<String, Object>> getWebhookStats() {
+        return ResponseDto.success("Webhook statistics retrieved successfully", webhookService.getStats());
+    }
+}
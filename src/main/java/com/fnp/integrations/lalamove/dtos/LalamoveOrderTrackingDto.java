@@ -0,0 +1,27 @@
+package com.fnp.integrations.lalamove.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LalamoveOrderTrackingDto {
+    private String trackingId;
+    private String status;
+    private int attempts;
+    private Instant nextAttemptAt;
+    private String orderId;
+    private Integer lastErrorCode;
+    private String lastError;
+    private Instant createdAt;
+    private Instant updatedAt;
+    private LalamoveOrderResponseDto order;
+}
@@ -0,0 +1,38 @@
+package com.fnp.integrations.lalamove.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LalamoveQuotationBatchResponseDto {
+
+    private int succeeded;
+    private int failed;
+    private List<Result> results;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Result {
+        private int index;
+        private String status;
+        private LalamoveQuotationResponseDto quotation;
+        private Integer errorCode;
+        private String errorMessage;
+
+        public static Result success(int index, LalamoveQuotationResponseDto quotation) {
+            return new Result(index, "SUCCESS", quotation, null, null);
+        }
+
+        public static Result error(int index, Integer errorCode, String errorMessage) {
+            return new Result(index, "ERROR", null, errorCode, errorMessage);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.fnp.integrations.lalamove.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * An order accepted for asynchronous placement. The row is the durable hand-off between the
+ * request thread and the outbox workers: it holds the request as submitted, the placement state
+ * and, once placed, Lalamove's response. {@code UNKNOWN} marks an attempt that may or may not
+ * have created the order (timeout, reset, upstream 5xx, lost worker); it is never placed again
+ * automatically, only reconciled.
+ */
+@Entity
+@Table(name = "lalamove_order_outbox", indexes = @Index(name = "idx_lalamove_order_outbox_due", columnList = "status, next_attempt_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class LalamoveOrderOutbox {
+
+    public enum Status {
+        PENDING, IN_PROGRESS, SUCCEEDED, FAILED, UNKNOWN
+    }
+
+    @Id
+    @Column(name = "tracking_id", length = 36)
+    private String trackingId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private Status status;
+
+    @Lob
+    @Column(name = "request_payload", nullable = false)
+    private String requestPayload;
+
+    @Lob
+    @Column(name = "response_payload")
+    private String responsePayload;
+
+    @Column(name = "order_id", length = 64)
+    private String orderId;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+
+    @Column(name = "last_error_code")
+    private Integer lastErrorCode;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+}
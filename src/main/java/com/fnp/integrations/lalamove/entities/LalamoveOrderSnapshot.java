@@ -0,0 +1,41 @@
+package com.fnp.integrations.lalamove.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * The last known state of a Lalamove order, as placed or as last read from Lalamove. Backs the
+ * in-memory order read model ({@code LalamoveOrderReadModel}) after an eviction or a restart.
+ */
+@Entity
+@Table(name = "lalamove_order_snapshot")
+@Getter
+@Setter
+@NoArgsConstructor
+public class LalamoveOrderSnapshot {
+
+    @Id
+    @Column(name = "order_id", length = 64)
+    private String orderId;
+
+    @Column(name = "status", length = 32)
+    private String status;
+
+    /**
+     * The Lalamove order response, as JSON.
+     */
+    @Lob
+    @Column(name = "payload", nullable = false)
+    private String payload;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private Instant refreshedAt;
+}
@@ -0,0 +1,58 @@
+package com.fnp.integrations.lalamove.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * A webhook event received from Lalamove (order status, driver assignment, proof of delivery...).
+ * Rows are written in JDBC batches by {@code LalamoveWebhookService}; the entity declares the
+ * table for schema management and reads. The event id is the key, so a redelivered event is stored once.
+ */
+@Entity
+@Table(name = "lalamove_webhook_event", indexes = @Index(name = "idx_lalamove_webhook_event_order", columnList = "order_id, received_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class LalamoveWebhookEvent {
+
+    public static final int MAX_ID_LENGTH = 64;
+    public static final int MAX_STATUS_LENGTH = 32;
+
+    @Id
+    @Column(name = "event_id", length = MAX_ID_LENGTH)
+    private String eventId;
+
+    @Column(name = "event_type", nullable = false, length = MAX_ID_LENGTH)
+    private String eventType;
+
+    @Column(name = "order_id", length = MAX_ID_LENGTH)
+    private String orderId;
+
+    @Column(name = "order_status", length = MAX_STATUS_LENGTH)
+    private String orderStatus;
+
+    /**
+     * The event's {@code timestamp} as sent by Lalamove.
+     */
+    @Column(name = "event_timestamp", nullable = false)
+    private long eventTimestamp;
+
+    /**
+     * The event's {@code data} object, as received and signed.
+     */
+    @Lob
+    @Column(name = "payload", nullable = false)
+    private String payload;
+
+    @Column(name = "received_at", nullable = false)
+    private Instant receivedAt;
+}
@@ -0,0 +1,182 @@
+package com.fnp.integrations.lalamove.model;
+
+import com.fnp.integrations.lalamove.dtos.LalamoveOrderResponseDto;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compact, immutable form of a placed Lalamove order for keeping in memory, built like
+ * {@link LalamoveQuote}. Only what identifies and tracks the order is kept: ids, status, driver,
+ * share link, price, distance and stop coordinates. Stop contacts, delivery codes and metadata
+ * are dropped, so {@link #toDto()} returns stops with coordinates only.
+ */
+@Getter
+public final class LalamoveOrder {
+
+    public static final long NONE = WireFormat.NONE;
+
+    private static final Set<String> TERMINAL_STATUSES = Set.of("COMPLETED", "CANCELED", "REJECTED", "EXPIRED");
+
+    private final String orderId;
+    private final String quotationId;
+    private final String status;
+    private final String driverId;
+    private final String shareLink;
+    private final String partner;
+    private final String currency;
+    private final long base;
+    private final long extraMileage;
+    private final long totalExcludePriorityFee;
+    private final long total;
+    @Getter(AccessLevel.NONE)
+    private final byte baseScale;
+    @Getter(AccessLevel.NONE)
+    private final byte extraMileageScale;
+    @Getter(AccessLevel.NONE)
+    private final byte totalExcludePriorityFeeScale;
+    @Getter(AccessLevel.NONE)
+    private final byte totalScale;
+    private final double distance;
+    private final String distanceUnit;
+    @Getter(AccessLevel.NONE)
+    private final double[] coordinates; // lat, lng of each stop in order
+
+    private LalamoveOrder(LalamoveOrderResponseDto.DataPayload data) {
+        orderId = data.getOrderId();
+        quotationId = data.getQuotationId();
+        status = WireFormat.intern(data.getStatus());
+        driverId = "".equals(data.getDriverId()) ? "" : data.getDriverId(); // unassigned orders share one empty string
+        shareLink = data.getShareLink();
+        partner = WireFormat.intern(data.getPartner());
+
+        LalamoveOrderResponseDto.PriceBreakdown price = null != data.getPriceBreakdown()
+                ? data.getPriceBreakdown() : new LalamoveOrderResponseDto.PriceBreakdown();
+        currency = WireFormat.intern(price.getCurrency());
+        int digits = WireFormat.fractionDigits(currency);
+        base = WireFormat.minorUnits(price.getBase(), digits);
+        extraMileage = WireFormat.minorUnits(price.getExtraMileage(), digits);
+        totalExcludePriorityFee = WireFormat.minorUnits(price.getTotalExcludePriorityFee(), digits);
+        total = WireFormat.minorUnits(price.getTotal(), digits);
+        baseScale = WireFormat.scale(price.getBase());
+        extraMileageScale = WireFormat.scale(price.getExtraMileage());
+        totalExcludePriorityFeeScale = WireFormat.scale(price.getTotalExcludePriorityFee());
+        totalScale = WireFormat.scale(price.getTotal());
+
+        distance = null != data.getDistance() ? WireFormat.decimal(data.getDistance().getValue()) : Double.NaN;
+        distanceUnit = null != data.getDistance() ? WireFormat.intern(data.getDistance().getUnit()) : null;
+
+        List<LalamoveOrderResponseDto.Stop> stops = null != data.getStops() ? data.getStops() : List.of();
+        coordinates = new double[stops.size() * 2];
+        for (int i = 0; i < stops.size(); i++) {
+            LalamoveOrderResponseDto.Coordinates point = stops.get(i).getCoordinates();
+            coordinates[2 * i] = null != point ? WireFormat.decimal(point.getLat()) : Double.NaN;
+            coordinates[2 * i + 1] = null != point ? WireFormat.decimal(point.getLng()) : Double.NaN;
+        }
+    }
+
+    private LalamoveOrder(LalamoveOrder order, String status) {
+        orderId = order.orderId;
+        quotationId = order.quotationId;
+        this.status = WireFormat.intern(status);
+        driverId = order.driverId;
+        shareLink = order.shareLink;
+        partner = order.partner;
+        currency = order.currency;
+        base = order.base;
+        extraMileage = order.extraMileage;
+        totalExcludePriorityFee = order.totalExcludePriorityFee;
+        total = order.total;
+        baseScale = order.baseScale;
+        extraMileageScale = order.extraMileageScale;
+        totalExcludePriorityFeeScale = order.totalExcludePriorityFeeScale;
+        totalScale = order.totalScale;
+        distance = order.distance;
+        distanceUnit = order.distanceUnit;
+        coordinates = order.coordinates; // never written after construction, so safe to share
+    }
+
+    /**
+     * @throws IllegalArgumentException if the order has no data or a number cannot be parsed
+     * @throws ArithmeticException      if an amount is finer than the currency's minor unit or cannot be written back as received
+     * @throws DateTimeException        if a time cannot be parsed
+     */
+    public static LalamoveOrder from(LalamoveOrderResponseDto order) {
+        if (null == order || null == order.getData()) {
+            throw new IllegalArgumentException("Order has no data");
+        }
+        return new LalamoveOrder(order.getData());
+    }
+
+    /**
+     * @return this order with another status, e.g. one reported by a webhook
+     */
+    public LalamoveOrder withStatus(String status) {
+        return null == status || status.equals(this.status) ? this : new LalamoveOrder(this, status);
+    }
+
+    public boolean isTerminal() {
+        return isTerminal(status);
+    }
+
+    /**
+     * @return whether an order in this status will not change any more
+     */
+    public static boolean isTerminal(String status) {
+        return null != status && TERMINAL_STATUSES.contains(status);
+    }
+
+    public int getStopCount() {
+        return coordinates.length / 2;
+    }
+
+    public double getLat(int stop) {
+        return coordinates[2 * stop];
+    }
+
+    public double getLng(int stop) {
+        return coordinates[2 * stop + 1];
+    }
+
+    public LalamoveOrderResponseDto toDto() {
+        LalamoveOrderResponseDto.DataPayload data = new LalamoveOrderResponseDto.DataPayload();
+        data.setOrderId(orderId);
+        data.setQuotationId(quotationId);
+        data.setStatus(status);
+        data.setDriverId(driverId);
+        data.setShareLink(shareLink);
+        data.setPartner(partner);
+
+        int digits = WireFormat.fractionDigits(currency);
+        LalamoveOrderResponseDto.PriceBreakdown price = new LalamoveOrderResponseDto.PriceBreakdown();
+        price.setBase(WireFormat.amount(base, digits, baseScale));
+        price.setExtraMileage(WireFormat.amount(extraMileage, digits, extraMileageScale));
+        price.setTotalExcludePriorityFee(WireFormat.amount(totalExcludePriorityFee, digits, totalExcludePriorityFeeScale));
+        price.setTotal(WireFormat.amount(total, digits, totalScale));
+        price.setCurrency(currency);
+        data.setPriceBreakdown(price);
+
+        if (null != distanceUnit || !Double.isNaN(distance)) {
+            LalamoveOrderResponseDto.Distance distanceDto = new LalamoveOrderResponseDto.Distance();
+            distanceDto.setValue(WireFormat.decimal(distance));
+            distanceDto.setUnit(distanceUnit);
+            data.setDistance(distanceDto);
+        }
+
+        List<LalamoveOrderResponseDto.Stop> stops = new ArrayList<>(getStopCount());
+        for (int i = 0; i < getStopCount(); i++) {
+            LalamoveOrderResponseDto.Coordinates point = new LalamoveOrderResponseDto.Coordinates();
+            point.setLat(WireFormat.decimal(getLat(i)));
+            point.setLng(WireFormat.decimal(getLng(i)));
+            LalamoveOrderResponseDto.Stop stop = new LalamoveOrderResponseDto.Stop();
+            stop.setCoordinates(point);
+            stops.add(stop);
+        }
+        data.setStops(stops);
+        return new LalamoveOrderResponseDto(data);
+    }
+}
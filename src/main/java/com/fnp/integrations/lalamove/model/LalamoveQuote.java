@@ -0,0 +1,163 @@
+package com.fnp.integrations.lalamove.model;
+
+import com.fnp.integrations.lalamove.dtos.LalamoveDeliveryRequestWrapper;
+import com.fnp.integrations.lalamove.dtos.LalamoveQuotationResponseDto;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact, immutable form of a Lalamove quotation for keeping in memory. Prices are {@code long}
+ * minor units of {@link #getCurrency()}, times are epoch millis ({@link #NONE} when absent; the
+ * upstream strings are kept alongside so they are returned with their offset), coordinates are {@code double}s and the small vocabularies are interned. Stop addresses are not
+ * kept; {@link #toDto} takes them from the request being answered.
+ * <p>
+ * Converted from and to {@link LalamoveQuotationResponseDto} at the boundary. The round trip returns the
+ * JSON of the upstream response: each amount keeps the number of decimals it came with (one byte
+ * each), and a quote with an amount that cannot be written back as received has no compact form.
+ * Coordinates and the distance lose trailing zeros.
+ */
+@Getter
+public final class LalamoveQuote {
+
+    public static final long NONE = WireFormat.NONE;
+
+    private final String quotationId;
+    private final long scheduleAt;
+    private final long expiresAt;
+    @Getter(AccessLevel.NONE)
+    private final String scheduleAtWire;
+    @Getter(AccessLevel.NONE)
+    private final String expiresAtWire;
+    private final String serviceType;
+    private final String language;
+    private final boolean routeOptimized;
+    @Getter(AccessLevel.NONE)
+    private final String[] stopIds;
+    @Getter(AccessLevel.NONE)
+    private final double[] coordinates; // lat, lng of each stop in order
+    private final String currency;
+    private final long base;
+    private final long extraMileage;
+    private final long surcharge;
+    private final long totalBeforeOptimization;
+    private final long totalExcludePriorityFee;
+    private final long total;
+    @Getter(AccessLevel.NONE)
+    private final byte baseScale;
+    @Getter(AccessLevel.NONE)
+    private final byte extraMileageScale;
+    @Getter(AccessLevel.NONE)
+    private final byte surchargeScale;
+    @Getter(AccessLevel.NONE)
+    private final byte totalBeforeOptimizationScale;
+    @Getter(AccessLevel.NONE)
+    private final byte totalExcludePriorityFeeScale;
+    @Getter(AccessLevel.NONE)
+    private final byte totalScale;
+    private final double distance;
+    private final String distanceUnit;
+
+    private LalamoveQuote(LalamoveQuotationResponseDto.QuotationData data) {
+        quotationId = data.getQuotationId();
+        scheduleAt = WireFormat.epochMillis(data.getScheduleAt());
+        expiresAt = WireFormat.epochMillis(data.getExpiresAt());
+        scheduleAtWire = data.getScheduleAt();
+        expiresAtWire = data.getExpiresAt();
+        serviceType = WireFormat.intern(data.getServiceType());
+        language = WireFormat.intern(data.getLanguage());
+        routeOptimized = data.isRouteOptimized();
+
+        List<LalamoveQuotationResponseDto.Stop> stops = null != data.getStops() ? data.getStops() : List.of();
+        stopIds = new String[stops.size()];
+        coordinates = new double[stops.size() * 2];
+        for (int i = 0; i < stops.size(); i++) {
+            LalamoveQuotationResponseDto.Stop stop = stops.get(i);
+            LalamoveQuotationResponseDto.Coordinates point = stop.getCoordinates();
+            stopIds[i] = stop.getStopId();
+            coordinates[2 * i] = null != point ? WireFormat.decimal(point.getLat()) : Double.NaN;
+            coordinates[2 * i + 1] = null != point ? WireFormat.decimal(point.getLng()) : Double.NaN;
+        }
+
+        LalamoveQuotationResponseDto.PriceBreakdown price = null != data.getPriceBreakdown()
+                ? data.getPriceBreakdown() : new LalamoveQuotationResponseDto.PriceBreakdown();
+        currency = WireFormat.intern(price.getCurrency());
+        int digits = WireFormat.fractionDigits(currency);
+        base = WireFormat.minorUnits(price.getBase(), digits);
+        extraMileage = WireFormat.minorUnits(price.getExtraMileage(), digits);
+        surcharge = WireFormat.minorUnits(price.getSurcharge(), digits);
+        totalBeforeOptimization = WireFormat.minorUnits(price.getTotalBeforeOptimization(), digits);
+        totalExcludePriorityFee = WireFormat.minorUnits(price.getTotalExcludePriorityFee(), digits);
+        total = WireFormat.minorUnits(price.getTotal(), digits);
+        baseScale = WireFormat.scale(price.getBase());
+        extraMileageScale = WireFormat.scale(price.getExtraMileage());
+        surchargeScale = WireFormat.scale(price.getSurcharge());
+        totalBeforeOptimizationScale = WireFormat.scale(price.getTotalBeforeOptimization());
+        totalExcludePriorityFeeScale = WireFormat.scale(price.getTotalExcludePriorityFee());
+        totalScale = WireFormat.scale(price.getTotal());
+
+        distance = null != data.getDistance() ? WireFormat.decimal(data.getDistance().getValue()) : Double.NaN;
+        distanceUnit = null != data.getDistance() ? WireFormat.intern(data.getDistance().getUnit()) : null;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the quotation has no data or a number cannot be parsed
+     * @throws ArithmeticException      if an amount is finer than the currency's minor unit or cannot be written back as received
+     * @throws DateTimeException        if a time cannot be parsed
+     */
+    public static LalamoveQuote from(LalamoveQuotationResponseDto quotation) {
+        if (null == quotation || null == quotation.getData()) {
+            throw new IllegalArgumentException("Quotation has no data");
+        }
+        return new LalamoveQuote(quotation.getData());
+    }
+
+    public int getStopCount() {
+        return stopIds.length;
+    }
+
+    public String getStopId(int stop) {
+        return stopIds[stop];
+    }
+
+    public double getLat(int stop) {
+        return coordinates[2 * stop];
+    }
+
+    public double getLng(int stop) {
+        return coordinates[2 * stop + 1];
+    }
+
+    /**
+     * The wire form of this quote, with stop addresses taken from {@code request} (when it has the
+     * same number of stops).
+     */
+    public LalamoveQuotationResponseDto toDto(LalamoveDeliveryRequestWrapper request) {
+        List<LalamoveDeliveryRequestWrapper.Stop> requested = null != request && null != request.getData()
+                && null != request.getData().getStops() && request.getData().getStops().size() == stopIds.length
+                ? request.getData().getStops() : null;
+        List<LalamoveQuotationResponseDto.Stop> stops = new ArrayList<>(stopIds.length);
+        for (int i = 0; i < stopIds.length; i++) {
+            stops.add(new LalamoveQuotationResponseDto.Stop(stopIds[i],
+                    new LalamoveQuotationResponseDto.Coordinates(WireFormat.decimal(getLat(i)), WireFormat.decimal(getLng(i))),
+                    null != requested ? requested.get(i).getAddress() : null));
+        }
+
+        int digits = WireFormat.fractionDigits(currency);
+        LalamoveQuotationResponseDto.PriceBreakdown price = new LalamoveQuotationResponseDto.PriceBreakdown(
+                WireFormat.amount(base, digits, baseScale), WireFormat.amount(extraMileage, digits, extraMileageScale),
+                WireFormat.amount(surcharge, digits, surchargeScale),
+                WireFormat.amount(totalBeforeOptimization, digits, totalBeforeOptimizationScale),
+                WireFormat.amount(totalExcludePriorityFee, digits, totalExcludePriorityFeeScale),
+                WireFormat.amount(total, digits, totalScale), currency);
+        LalamoveQuotationResponseDto.Distance distanceDto = null == distanceUnit && Double.isNaN(distance) ? null
+                : new LalamoveQuotationResponseDto.Distance(WireFormat.decimal(distance), distanceUnit);
+
+        return new LalamoveQuotationResponseDto(new LalamoveQuotationResponseDto.QuotationData(quotationId,
+                scheduleAtWire, expiresAtWire, serviceType, language, stops,
+                routeOptimized, price, distanceDto));
+    }
+}
@@ -0,0 +1,89 @@
+package com.fnp.integrations.lalamove.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Currency;
+
+/**
+ * Conversions between the strings of the Lalamove wire format and the primitives of the internal
+ * model. Absent values map to {@link #NONE} or {@code NaN} and back to {@code null}.
+ */
+final class WireFormat {
+
+    static final long NONE = Long.MIN_VALUE;
+
+    private WireFormat() {
+    }
+
+    /**
+     * Minor-unit exponent of the currency, 2 when the currency is unknown or absent.
+     */
+    static int fractionDigits(String currency) {
+        if (null == currency) {
+            return 2;
+        }
+        try {
+            return Math.max(0, Currency.getInstance(currency).getDefaultFractionDigits());
+        } catch (IllegalArgumentException e) {
+            return 2;
+        }
+    }
+
+    /**
+     * @throws ArithmeticException if the amount has more decimals than the currency's minor unit
+     */
+    static long minorUnits(String amount, int fractionDigits) {
+        return null == amount ? NONE : new BigDecimal(amount.trim()).movePointRight(fractionDigits).longValueExact();
+    }
+
+    /**
+     * The number of decimals the amount is written with ({@code "9.5"} 1, {@code "90"} 0), which
+     * {@link #amount} needs to write it back the same way.
+     *
+     * @throws ArithmeticException if the amount would not be written back the same way (an exponent,
+     *                             leading zeros, surrounding spaces)
+     */
+    static byte scale(String amount) {
+        if (null == amount) {
+            return 0;
+        }
+        BigDecimal value = new BigDecimal(amount.trim());
+        if (value.scale() < 0 || value.scale() > Byte.MAX_VALUE || !value.toPlainString().equals(amount)) {
+            throw new ArithmeticException("Amount " + amount + " cannot be written back as received");
+        }
+        return (byte) value.scale();
+    }
+
+    static String amount(long minorUnits, int fractionDigits, byte scale) {
+        return NONE == minorUnits ? null : BigDecimal.valueOf(minorUnits, fractionDigits).setScale(scale).toPlainString();
+    }
+
+    static double decimal(String value) {
+        return null == value ? Double.NaN : Double.parseDouble(value.trim());
+    }
+
+    static String decimal(double value) {
+        return Double.isNaN(value) ? null : BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    static long epochMillis(String timestamp) {
+        if (null == timestamp) {
+            return NONE;
+        }
+        try {
+            return Instant.parse(timestamp).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return OffsetDateTime.parse(timestamp).toInstant().toEpochMilli();
+        }
+    }
+
+    /**
+     * For the small upstream vocabularies (service types, languages, currencies, statuses), so every
+     * cached entry shares one instance per value.
+     */
+    static String intern(String value) {
+        return null == value ? null : value.intern();
+    }
+}
@@ -0,0 +1,59 @@
+package com.fnp.integrations.lalamove.repositories;
+
+import com.fnp.integrations.lalamove.entities.LalamoveOrderOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface LalamoveOrderOutboxRepository extends JpaRepository<LalamoveOrderOutbox, String> {
+
+    /**
+     * Orders ready for an attempt: pending and due.
+     */
+    @Query("select o.trackingId from LalamoveOrderOutbox o"
+            + " where o.status = com.fnp.integrations.lalamove.entities.LalamoveOrderOutbox.Status.PENDING and o.nextAttemptAt <= :now"
+            + " order by o.nextAttemptAt")
+    List<String> findDue(@Param("now") Instant now, Pageable pageable);
+
+    /**
+     * Atomically takes the lease on a due order; returns 0 when another worker or instance got there first.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update LalamoveOrderOutbox o set o.status = com.fnp.integrations.lalamove.entities.LalamoveOrderOutbox.Status.IN_PROGRESS,"
+            + " o.leaseExpiresAt = :leaseExpiresAt, o.updatedAt = :now, o.version = o.version + 1"
+            + " where o.trackingId = :trackingId"
+            + " and o.status = com.fnp.integrations.lalamove.entities.LalamoveOrderOutbox.Status.PENDING and o.nextAttemptAt <= :now")
+    int claim(@Param("trackingId") String trackingId, @Param("now") Instant now, @Param("leaseExpiresAt") Instant leaseExpiresAt);
+
+    /**
+     * Hands back a claimed order whose attempt never started, so it is due again at once.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update LalamoveOrderOutbox o set o.status = com.fnp.integrations.lalamove.entities.LalamoveOrderOutbox.Status.PENDING,"
+            + " o.leaseExpiresAt = null, o.updatedAt = :now, o.version = o.version + 1"
+            + " where o.trackingId = :trackingId"
+            + " and o.status = com.fnp.integrations.lalamove.entities.LalamoveOrderOutbox.Status.IN_PROGRESS")
+    int unclaim(@Param("trackingId") String trackingId, @Param("now") Instant now);
+
+    /**
+     * Orders whose worker held the lease past its expiry (it died, or its call hung) may have been
+     * placed: they become UNKNOWN instead of being placed again.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update LalamoveOrderOutbox o set o.status = com.fnp.integrations.lalamove.entities.LalamoveOrderOutbox.Status.UNKNOWN,"
+            + " o.leaseExpiresAt = null, o.lastError = 'Lease expired during placement; the order may have been placed',"
+            + " o.updatedAt = :now, o.version = o.version + 1"
+            + " where o.status = com.fnp.integrations.lalamove.entities.LalamoveOrderOutbox.Status.IN_PROGRESS and o.leaseExpiresAt < :now")
+    int expireLeases(@Param("now") Instant now);
+}
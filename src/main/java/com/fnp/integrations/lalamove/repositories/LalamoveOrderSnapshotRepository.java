@@ -0,0 +1,9 @@
+package com.fnp.integrations.lalamove.repositories;
+
+import com.fnp.integrations.lalamove.entities.LalamoveOrderSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LalamoveOrderSnapshotRepository extends JpaRepository<LalamoveOrderSnapshot, String> {
+}
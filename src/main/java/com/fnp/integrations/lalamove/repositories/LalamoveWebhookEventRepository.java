@@ -0,0 +1,16 @@
+package com.fnp.integrations.lalamove.repositories;
+
+import com.fnp.integrations.lalamove.entities.LalamoveWebhookEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LalamoveWebhookEventRepository extends JpaRepository<LalamoveWebhookEvent, String> {
+
+    List<LalamoveWebhookEvent> findByOrderIdOrderByReceivedAtAsc(String orderId);
+
+    Optional<LalamoveWebhookEvent> findFirstByOrderIdAndOrderStatusNotNullOrderByEventTimestampDescReceivedAtDesc(String orderId);
+}
@@ -0,0 +1,65 @@
+package com.fnp.integrations.lalamove.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fnp.integrations.lalamove.dtos.LalamoveDeliveryRequestWrapper;
+import com.fnp.integrations.lalamove.dtos.LalamoveOrderRequestWrapper;
+import com.fnp.integrations.lalamove.dtos.LalamoveOrderResponseDto;
+import com.fnp.integrations.lalamove.dtos.LalamoveQuotationResponseDto;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Readers and writers for the Lalamove DTOs, resolved once from the application
+ * {@link ObjectMapper}. {@code ObjectMapper.readValue}/{@code writeValueAsBytes} look up the root
+ * (de)serializer and build a fresh reader/writer on every call; these are immutable, thread-safe
+ * and already bound to their type.
+ */
+@Getter
+@Component
+public class LalamoveJson {
+
+    private final Codec<LalamoveDeliveryRequestWrapper> quotationRequest;
+    private final Codec<LalamoveQuotationResponseDto> quotationResponse;
+    private final Codec<LalamoveOrderRequestWrapper> orderRequest;
+    private final Codec<LalamoveOrderResponseDto> orderResponse;
+
+    public LalamoveJson(ObjectMapper objectMapper) {
+        quotationRequest = new Codec<>(objectMapper, LalamoveDeliveryRequestWrapper.class);
+        quotationResponse = new Codec<>(objectMapper, LalamoveQuotationResponseDto.class);
+        orderRequest = new Codec<>(objectMapper, LalamoveOrderRequestWrapper.class);
+        orderResponse = new Codec<>(objectMapper, LalamoveOrderResponseDto.class);
+    }
+
+    /**
+     * Pre-bound reader and writer of one DTO type.
+     */
+    public static final class Codec<T> {
+        private final ObjectReader reader;
+        private final ObjectWriter writer;
+
+        Codec(ObjectMapper objectMapper, Class<T> type) {
+            this.reader = objectMapper.readerFor(type);
+            this.writer = objectMapper.writerFor(type);
+        }
+
+        public T read(byte[] json) throws IOException {
+            return reader.readValue(json);
+        }
+
+        public T read(String json) throws IOException {
+            return reader.readValue(json);
+        }
+
+        public byte[] write(T value) throws IOException {
+            return writer.writeValueAsBytes(value);
+        }
+
+        public String writeAsString(T value) throws IOException {
+            return writer.writeValueAsString(value);
+        }
+    }
+}
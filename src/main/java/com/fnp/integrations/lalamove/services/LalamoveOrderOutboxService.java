@@ -0,0 +1,352 @@
+package com.fnp.integrations.lalamove.services;
+
+import com.fnp.integrations.constants.DynamicConstants;
+import com.fnp.integrations.enums.ResponseStatus;
+import com.fnp.integrations.exception.RequestNotSentException;
+import com.fnp.integrations.exception.ResponseException;
+import com.fnp.integrations.lalamove.dtos.LalamoveOrderRequestWrapper;
+import com.fnp.integrations.lalamove.dtos.LalamoveOrderResponseDto;
+import com.fnp.integrations.lalamove.dtos.LalamoveOrderTrackingDto;
+import com.fnp.integrations.lalamove.entities.LalamoveOrderOutbox;
+import com.fnp.integrations.lalamove.repositories.LalamoveOrderOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Asynchronous order placement through a transactional outbox.
+ * {@link #submit} only writes the order to the {@code lalamove_order_outbox} table and hands it to
+ * an idle worker if there is one, so intake never waits on Lalamove. A bounded pool of workers
+ * places due orders, each holding a lease on the row while calling upstream.
+ * <p>
+ * Placing an order is not idempotent (Lalamove takes no idempotency key), so only failures that
+ * certainly did not create it are retried, with exponential backoff and jitter up to
+ * {@code lalamove.order-outbox.max-attempts}: a 429, an open circuit, no rate-limit permit, or no
+ * connection. A timeout, reset or upstream 5xx, and a lease that outlives its worker (crash,
+ * restart, hung call), leave the order {@code UNKNOWN} until {@link #reconcile} settles it.
+ */
+@Slf4j
+@Service
+public class LalamoveOrderOutboxService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final LalamoveOrderOutboxRepository repository;
+    private final LalamoveService lalamoveService;
+    private final LalamoveJson lalamoveJson;
+    private final DynamicConstants constants;
+    private final Executor executor;
+    private final Semaphore workers;
+
+    public LalamoveOrderOutboxService(LalamoveOrderOutboxRepository repository, LalamoveService lalamoveService,
+                                      LalamoveJson lalamoveJson, DynamicConstants constants,
+                                      @Qualifier("lalamoveOutboxExecutor") Executor executor) {
+        this.repository = repository;
+        this.lalamoveService = lalamoveService;
+        this.lalamoveJson = lalamoveJson;
+        this.constants = constants;
+        this.executor = executor;
+        this.workers = new Semaphore(constants.getLalamoveOrderOutboxWorkers());
+    }
+
+    public LalamoveOrderTrackingDto submit(LalamoveOrderRequestWrapper request) {
+        if (request == null || request.getData() == null) {
+            throw new ResponseException("Order request data is missing", HttpStatus.BAD_REQUEST);
+        }
+        String payload;
+        try {
+            payload = lalamoveJson.getOrderRequest().writeAsString(request);
+        } catch (Exception e) {
+            throw new RuntimeException("Error converting request to JSON", e);
+        }
+
+        Instant now = now();
+        LalamoveOrderOutbox order = new LalamoveOrderOutbox();
+        order.setTrackingId(UUID.randomUUID().toString());
+        order.setStatus(LalamoveOrderOutbox.Status.PENDING);
+        order.setRequestPayload(payload);
+        order.setNextAttemptAt(now);
+        order.setCreatedAt(now);
+        order.setUpdatedAt(now);
+        LalamoveOrderTrackingDto accepted = toDto(repository.save(order));
+        log.info("Order accepted for async placement, tracking id {}", accepted.getTrackingId());
+
+        dispatch(accepted.getTrackingId(), now);
+        return accepted;
+    }
+
+    public LalamoveOrderTrackingDto getStatus(String trackingId) {
+        return repository.findById(trackingId)
+                .map(this::toDto)
+                .orElseThrow(() -> new ResponseException("No order found for tracking id " + trackingId, HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Settles an {@code UNKNOWN} order after looking it up on Lalamove: with the {@code orderId} it was
+     * placed as, the order is read and recorded as placed; without one (it was not placed), the order
+     * is queued for placement again.
+     */
+    public LalamoveOrderTrackingDto reconcile(String trackingId, String orderId) {
+        LalamoveOrderOutbox order = repository.findById(trackingId)
+                .orElseThrow(() -> new ResponseException("No order found for tracking id " + trackingId, HttpStatus.NOT_FOUND));
+        if (order.getStatus() != LalamoveOrderOutbox.Status.UNKNOWN) {
+            throw new ResponseException("Order " + trackingId + " is " + order.getStatus() + ", not UNKNOWN", HttpStatus.CONFLICT);
+        }
+        if (null != orderId) {
+            LalamoveOrderResponseDto placed = lalamoveService.getOrder(orderId);
+            String quotationId;
+            try {
+                quotationId = lalamoveJson.getOrderRequest().read(order.getRequestPayload()).getData().getQuotationId();
+                order.setResponsePayload(lalamoveJson.getOrderResponse().writeAsString(placed));
+            } catch (Exception e) {
+                throw new RuntimeException("Error converting order " + trackingId + " to JSON", e);
+            }
+            if (null == placed || null == placed.getData() || !Objects.equals(quotationId, placed.getData().getQuotationId())) {
+                throw new ResponseException("Lalamove order " + orderId + " was not placed from the quotation of order " + trackingId,
+                        HttpStatus.CONFLICT);
+            }
+            order.setStatus(LalamoveOrderOutbox.Status.SUCCEEDED);
+            order.setOrderId(orderId);
+            order.setLastErrorCode(null);
+            order.setLastError(null);
+            log.info("Outbox order {} reconciled as Lalamove order {}", trackingId, orderId);
+        } else {
+            order.setStatus(LalamoveOrderOutbox.Status.PENDING);
+            order.setNextAttemptAt(now());
+            log.info("Outbox order {} reconciled as not placed, placing it again", trackingId);
+        }
+        order.setUpdatedAt(now());
+        return toDto(repository.save(order));
+    }
+
+    @Scheduled(fixedDelayString = "${lalamove.order-outbox.poll-interval:500}")
+    public void drain() {
+        if (!constants.isLalamoveOrderOutboxEnabled()) {
+            return;
+        }
+        Instant now = now();
+        try {
+            int expired = repository.expireLeases(now);
+            if (expired > 0) {
+                log.error("{} outbox order(s) outlived their lease during placement and are now UNKNOWN", expired);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not expire outbox leases: {}", e.getMessage());
+        }
+        int idle = workers.availablePermits();
+        if (idle == 0) {
+            return;
+        }
+        try {
+            for (String trackingId : repository.findDue(now, PageRequest.of(0, idle))) {
+                if (!dispatch(trackingId, now)) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not poll the order outbox: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Claims the order and starts placing it on an idle worker.
+     *
+     * @return false when no worker is free, so the caller can stop looking for more work
+     */
+    private boolean dispatch(String trackingId, Instant now) {
+        if (!constants.isLalamoveOrderOutboxEnabled() || !workers.tryAcquire()) {
+            return false;
+        }
+        boolean claimed = false;
+        boolean started = false;
+        try {
+            claimed = repository.claim(trackingId, now, now.plusMillis(constants.getLalamoveOrderOutboxLease())) == 1;
+            if (claimed) {
+                executor.execute(() -> {
+                    try {
+                        place(trackingId);
+                    } finally {
+                        workers.release();
+                    }
+                });
+                started = true;
+            }
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Could not dispatch outbox order {}: {}", trackingId, e.getMessage());
+            return false;
+        } finally {
+            if (!started) {
+                workers.release();
+            }
+            if (claimed && !started) {
+                unclaim(trackingId);
+            }
+        }
+    }
+
+    void place(String trackingId) {
+        LalamoveOrderOutbox order = repository.findById(trackingId).orElse(null);
+        if (order == null || order.getStatus() != LalamoveOrderOutbox.Status.IN_PROGRESS) {
+            return;
+        }
+        order.setAttempts(order.getAttempts() + 1);
+
+        LalamoveOrderRequestWrapper request = null;
+        try {
+            request = lalamoveJson.getOrderRequest().read(order.getRequestPayload());
+        } catch (Exception e) {
+            fail(order, ResponseStatus.INVALID_RESPONSE_FORMAT.getErrorCode(), "Stored order request is unreadable: " + e.getMessage(), false);
+        }
+        if (request != null) {
+            try {
+                LalamoveOrderResponseDto response = lalamoveService.placeOrders(request);
+                order.setStatus(LalamoveOrderOutbox.Status.SUCCEEDED);
+                order.setResponsePayload(lalamoveJson.getOrderResponse().writeAsString(response));
+                order.setOrderId(null != response && null != response.getData() ? response.getData().getOrderId() : null);
+                order.setLastErrorCode(null);
+                order.setLastError(null);
+                log.info("Outbox order {} placed as Lalamove order {} after {} attempt(s)", trackingId, order.getOrderId(), order.getAttempts());
+            } catch (RequestNotSentException e) {
+                fail(order, e.getErrorCode(), e.getErrorMessage(), true);
+            } catch (ResponseException e) {
+                if (isRejection(e.getErrorCode())) {
+                    fail(order, e.getErrorCode(), e.getErrorMessage(), e.getErrorCode() == ResponseStatus.RATE_LIMIT_EXCEEDED.getErrorCode());
+                } else {
+                    unknown(order, e.getErrorCode(), e.getErrorMessage());
+                }
+            } catch (Exception e) {
+                unknown(order, ResponseStatus.MICROSERVICE_INTERNAL_ERROR.getErrorCode(), e.getMessage());
+            }
+        }
+
+        order.setLeaseExpiresAt(null);
+        order.setUpdatedAt(now());
+        try {
+            repository.save(order);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // the lease expired during the call and the row was marked UNKNOWN (or reconciled since):
+            // this attempt's outcome is better knowledge, unless the order has already been settled
+            LalamoveOrderOutbox current = repository.findById(trackingId).orElse(null);
+            if (null == current || current.getStatus() == LalamoveOrderOutbox.Status.SUCCEEDED
+                    || current.getStatus() == LalamoveOrderOutbox.Status.FAILED) {
+                log.warn("Outbox order {} was settled while its attempt ran; keeping {}", trackingId, null != current ? current.getStatus() : null);
+                return;
+            }
+            current.setStatus(order.getStatus());
+            current.setAttempts(order.getAttempts());
+            current.setNextAttemptAt(order.getNextAttemptAt());
+            current.setResponsePayload(order.getResponsePayload());
+            current.setOrderId(order.getOrderId());
+            current.setLastErrorCode(order.getLastErrorCode());
+            current.setLastError(order.getLastError());
+            current.setLeaseExpiresAt(null);
+            current.setUpdatedAt(order.getUpdatedAt());
+            repository.save(current);
+            log.warn("Outbox order {} outlived its lease; recorded its attempt as {}", trackingId, current.getStatus());
+        }
+    }
+
+    private void unclaim(String trackingId) {
+        try {
+            repository.unclaim(trackingId, now());
+        } catch (RuntimeException e) {
+            // left IN_PROGRESS, it turns UNKNOWN when the lease expires
+            log.warn("Could not hand back outbox order {}: {}", trackingId, e.getMessage());
+        }
+    }
+
+    /**
+     * The call may have reached Lalamove and created the order: never placed again automatically.
+     */
+    private void unknown(LalamoveOrderOutbox order, Integer errorCode, String errorMessage) {
+        order.setStatus(LalamoveOrderOutbox.Status.UNKNOWN);
+        order.setLastErrorCode(errorCode);
+        order.setLastError(truncate(errorMessage));
+        log.error("Outbox order {} attempt {} has an unknown outcome ({}): reconcile it before placing it again",
+                order.getTrackingId(), order.getAttempts(), errorCode);
+    }
+
+    private void fail(LalamoveOrderOutbox order, Integer errorCode, String errorMessage, boolean retryable) {
+        order.setLastErrorCode(errorCode);
+        order.setLastError(truncate(errorMessage));
+        if (retryable && order.getAttempts() < constants.getLalamoveOrderOutboxMaxAttempts()) {
+            order.setStatus(LalamoveOrderOutbox.Status.PENDING);
+            order.setNextAttemptAt(now().plusMillis(backoffMillis(order.getAttempts())));
+            log.warn("Outbox order {} attempt {} failed ({}), retrying at {}", order.getTrackingId(), order.getAttempts(), errorCode, order.getNextAttemptAt());
+        } else {
+            order.setStatus(LalamoveOrderOutbox.Status.FAILED);
+            log.error("Outbox order {} failed permanently after {} attempt(s): {} {}", order.getTrackingId(), order.getAttempts(), errorCode, errorMessage);
+        }
+    }
+
+    /**
+     * Exponential backoff capped at the configured maximum, with "equal jitter" (half fixed, half
+     * random) so orders that failed together do not retry in lockstep.
+     */
+    private long backoffMillis(int attempts) {
+        long initial = constants.getLalamoveOrderOutboxBackoffInitial();
+        long max = constants.getLalamoveOrderOutboxBackoffMax();
+        long backoff = Math.min(max, initial << Math.min(attempts - 1, 30));
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    private static String truncate(String errorMessage) {
+        return null != errorMessage && errorMessage.length() > MAX_ERROR_LENGTH ? errorMessage.substring(0, MAX_ERROR_LENGTH) : errorMessage;
+    }
+
+    /**
+     * RestClient maps an upstream 4xx to 400/401/404/429/502: Lalamove answered and refused the order.
+     * Upstream 5xx, timeouts and resets (500) and unusable responses (422) may follow a placed order.
+     */
+    private static boolean isRejection(Integer errorCode) {
+        return null != errorCode && (errorCode == ResponseStatus.BAD_REQUEST.getErrorCode()
+                || errorCode == ResponseStatus.MICROSERVICE_AUTHORIZATION_ERROR.getErrorCode()
+                || errorCode == ResponseStatus.MICROSERVICE_RESOURCE_NOT_FOUND.getErrorCode()
+                || errorCode == ResponseStatus.RATE_LIMIT_EXCEEDED.getErrorCode()
+                || errorCode == ResponseStatus.MICROSERVICE_EXCHANGE_ERROR.getErrorCode());
+    }
+
+    /**
+     * Millisecond precision so an instant compares the same before and after a round trip through
+     * a TIMESTAMP column (which rounds sub-microsecond digits, possibly upwards).
+     */
+    private static Instant now() {
+        return Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    private LalamoveOrderTrackingDto toDto(LalamoveOrderOutbox order) {
+        LalamoveOrderResponseDto response = null;
+        if (null != order.getResponsePayload()) {
+            try {
+                response = lalamoveJson.getOrderResponse().read(order.getResponsePayload());
+            } catch (Exception e) {
+                log.warn("Stored response of outbox order {} is unreadable: {}", order.getTrackingId(), e.getMessage());
+            }
+        }
+        return LalamoveOrderTrackingDto.builder()
+                .trackingId(order.getTrackingId())
+                .status(order.getStatus().name())
+                .attempts(order.getAttempts())
+                .nextAttemptAt(order.getStatus() == LalamoveOrderOutbox.Status.PENDING ? order.getNextAttemptAt() : null)
+                .orderId(order.getOrderId())
+                .lastErrorCode(order.getLastErrorCode())
+                .lastError(order.getLastError())
+                .createdAt(order.getCreatedAt())
+                .updatedAt(order.getUpdatedAt())
+                .order(response)
+                .build();
+    }
+}
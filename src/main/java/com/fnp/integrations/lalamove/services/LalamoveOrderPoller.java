@@ -0,0 +1,311 @@
+package com.fnp.integrations.lalamove.services;
+
+import com.fnp.integrations.constants.DynamicConstants;
+import com.fnp.integrations.exception.ResponseException;
+import com.fnp.integrations.http.RateLimiterRegistry;
+import com.fnp.integrations.lalamove.dtos.LalamoveOrderResponseDto;
+import com.fnp.integrations.lalamove.model.LalamoveOrder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Polls the status of orders placed through {@link LalamoveService#placeOrders} until they reach a
+ * terminal status, for as long as webhooks cannot be relied on alone.
+ * <ul>
+ *   <li>Each order is polled every {@code lalamove.order-polling.pickup-interval} ms while a driver is
+ *       being assigned or heading to the pickup, and every {@code en-route-interval} ms once picked up.
+ *       The interval doubles after each poll that finds the status unchanged (up to 4x) and is spread
+ *       by &plusmn;{@code jitter}, so orders placed together do not stay in step.</li>
+ *   <li>Orders wait in a hashed timer wheel of {@value #WHEEL_SIZE} slots of {@code tick} ms: one
+ *       small node per order, and a tick only looks at one slot, however many orders are tracked.</li>
+ *   <li>Due polls are started at no more than {@code max-qps}, or {@code rate-share} of the current rate
+ *       of the Lalamove host's {@link com.fnp.integrations.http.AdaptiveRateLimiter} if lower, so polling
+ *       backs off with it after a 429. Each poll also takes a permit from that limiter without waiting;
+ *       a poll that gets none is tried again an interval later.</li>
+ *   <li>A poll is skipped when the order was read into {@link LalamoveOrderReadModel} since the
+ *       last one, or a webhook gave it a terminal status there, and every poll result is stored there.</li>
+ * </ul>
+ * Tracking is in memory: orders placed before a restart are not polled again.
+ */
+@Slf4j
+@Service
+public class LalamoveOrderPoller {
+
+    static final int WHEEL_SIZE = 512;
+    private static final int MAX_BACKOFF_DOUBLINGS = 2;
+
+    private final Function<String, LalamoveOrderResponseDto> fetch;
+    private final LalamoveOrderReadModel orderReadModel;
+    private final RateLimiterRegistry rateLimiterRegistry;
+    private final DynamicConstants constants;
+    private final Executor executor;
+    private final LongSupplier clock;
+    private final Semaphore workers;
+    private final String host;
+    private final long tickMillis;
+
+    // guarded by this
+    private final Tracked[] wheel = new Tracked[WHEEL_SIZE];
+    private final ArrayDeque<Tracked> due = new ArrayDeque<>();
+    private long nextTick;
+    private double permits;
+    private long refilledAt;
+
+    private final AtomicInteger tracked = new AtomicInteger();
+    private final LongAdder polls = new LongAdder();
+    private final LongAdder skippedPolls = new LongAdder();
+    private final LongAdder failedPolls = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder refused = new LongAdder();
+
+    @Autowired
+    public LalamoveOrderPoller(LalamoveService lalamoveService, LalamoveOrderReadModel orderReadModel,
+                               RateLimiterRegistry rateLimiterRegistry, DynamicConstants constants,
+                               @Qualifier("lalamovePollingExecutor") Executor executor) {
+        this(orderId -> lalamoveService.fetchOrder(orderId, 0L), orderReadModel, rateLimiterRegistry, constants, executor,
+                System::currentTimeMillis);
+        lalamoveService.addOrderPlacedListener(this::track);
+    }
+
+    LalamoveOrderPoller(Function<String, LalamoveOrderResponseDto> fetch, LalamoveOrderReadModel orderReadModel,
+                        RateLimiterRegistry rateLimiterRegistry, DynamicConstants constants, Executor executor, LongSupplier clock) {
+        this.fetch = fetch;
+        this.orderReadModel = orderReadModel;
+        this.rateLimiterRegistry = rateLimiterRegistry;
+        this.constants = constants;
+        this.executor = executor;
+        this.clock = clock;
+        this.workers = new Semaphore(constants.getLalamoveOrderPollingWorkers());
+        this.host = URI.create(constants.getLalamoveScheme() + "://" + constants.getLalamoveHostname()).getHost();
+        this.tickMillis = Math.max(1, constants.getLalamoveOrderPollingTick());
+        long now = clock.getAsLong();
+        this.nextTick = now / tickMillis;
+        this.refilledAt = now;
+    }
+
+    public boolean isEnabled() {
+        return constants.isLalamoveOrderPollingEnabled();
+    }
+
+    /**
+     * Starts polling an order, first after the interval of its current status.
+     */
+    public void track(LalamoveOrder order) {
+        if (!isEnabled() || order.isTerminal()) {
+            return;
+        }
+        if (tracked.incrementAndGet() > constants.getLalamoveOrderPollingMaxOrders()) {
+            tracked.decrementAndGet();
+            refused.increment();
+            log.warn("Already polling {} orders, not polling order {}", constants.getLalamoveOrderPollingMaxOrders(), order.getOrderId());
+            return;
+        }
+        long now = clock.getAsLong();
+        Tracked node = new Tracked(order.getOrderId(), order.getStatus(), now);
+        schedule(node, now + delayMillis(node));
+    }
+
+    /**
+     * Moves the wheel up to the current time and starts the polls that are due and allowed.
+     */
+    @Scheduled(fixedRateString = "${lalamove.order-polling.tick:250}")
+    public synchronized void tick() {
+        if (!isEnabled()) {
+            return;
+        }
+        long now = clock.getAsLong();
+        for (long currentTick = now / tickMillis; nextTick <= currentTick; nextTick++) {
+            int slot = (int) (nextTick & (WHEEL_SIZE - 1));
+            Tracked node = wheel[slot];
+            wheel[slot] = null;
+            while (null != node) {
+                Tracked next = node.next;
+                node.next = null;
+                if (node.rounds > 0) {
+                    node.rounds--;
+                    node.next = wheel[slot];
+                    wheel[slot] = node;
+                } else {
+                    due.addLast(node);
+                }
+                node = next;
+            }
+        }
+        dispatch(now);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", isEnabled());
+        stats.put("tracked", tracked.get());
+        stats.put("maxOrders", constants.getLalamoveOrderPollingMaxOrders());
+        synchronized (this) {
+            stats.put("due", due.size());
+        }
+        stats.put("inFlight", constants.getLalamoveOrderPollingWorkers() - workers.availablePermits());
+        stats.put("pollRate", pollRate());
+        stats.put("polls", polls.sum());
+        stats.put("skippedPolls", skippedPolls.sum());
+        stats.put("failedPolls", failedPolls.sum());
+        stats.put("completed", completed.sum());
+        stats.put("expired", expired.sum());
+        stats.put("refused", refused.sum());
+        return stats;
+    }
+
+    /**
+     * Polls per second allowed now: {@code max-qps}, or the share of the host's current rate if lower.
+     */
+    double pollRate() {
+        double rate = constants.getLalamoveOrderPollingMaxQps();
+        if (rateLimiterRegistry.isEnabled() && null != host) {
+            rate = Math.min(rate, rateLimiterRegistry.forHost(host).getRate() * constants.getLalamoveOrderPollingRateShare());
+        }
+        return rate;
+    }
+
+    // guarded by this
+    private void dispatch(long now) {
+        double rate = pollRate();
+        permits = Math.min(Math.max(1, rate), permits + rate * (now - refilledAt) / 1000.0);
+        refilledAt = now;
+        while (permits >= 1 && !due.isEmpty() && workers.tryAcquire()) {
+            Tracked node = due.pollFirst();
+            try {
+                executor.execute(() -> {
+                    try {
+                        poll(node);
+                    } finally {
+                        workers.release();
+                    }
+                });
+                permits -= 1;
+            } catch (RuntimeException e) {
+                workers.release();
+                due.addFirst(node);
+                log.warn("Could not start polling order {}: {}", node.orderId, e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void poll(Tracked node) {
+        String status;
+        try {
+            LalamoveOrder known = orderReadModel.peek(node.orderId, node.polledAt);
+            if (null != known) {
+                skippedPolls.increment();
+                status = known.getStatus();
+            } else {
+                LalamoveOrderResponseDto order = fetch.apply(node.orderId);
+                polls.increment();
+                LalamoveOrder polled = orderReadModel.put(order);
+                status = null != polled ? polled.getStatus() : order.getData().getStatus();
+            }
+        } catch (ResponseException e) {
+            if (e.getErrorCode() == 404) {
+                untrack(expired);
+                log.warn("Order {} not found upstream, no longer polling it", node.orderId);
+                return;
+            }
+            failedPolls.increment(); // including a poll refused by the rate limiter: try again an interval later
+            log.debug("Could not poll order {}: {}", node.orderId, e.getMessage());
+            reschedule(node);
+            return;
+        } catch (RuntimeException e) {
+            failedPolls.increment();
+            log.warn("Could not poll order {}: {}", node.orderId, e.getMessage());
+            reschedule(node);
+            return;
+        }
+
+        long now = clock.getAsLong();
+        node.polledAt = now;
+        if (LalamoveOrder.isTerminal(status)) {
+            untrack(completed);
+            return;
+        }
+        if (null != status && status.equals(node.status)) {
+            node.unchanged = Math.min(MAX_BACKOFF_DOUBLINGS, node.unchanged + 1);
+        } else {
+            node.status = null != status ? status.intern() : null;
+            node.unchanged = 0;
+        }
+        reschedule(node);
+    }
+
+    private void reschedule(Tracked node) {
+        long now = clock.getAsLong();
+        if (now - node.trackedAt >= constants.getLalamoveOrderPollingMaxTrackingTime()) {
+            untrack(expired);
+            log.info("Order {} still {} after the tracking time, no longer polling it", node.orderId, node.status);
+            return;
+        }
+        schedule(node, now + delayMillis(node));
+    }
+
+    private void untrack(LongAdder outcome) {
+        tracked.decrementAndGet();
+        outcome.increment();
+    }
+
+    /**
+     * Links the node into the slot of the first tick at or after {@code dueAt} that has not passed yet.
+     */
+    private synchronized void schedule(Tracked node, long dueAt) {
+        long dueTick = Math.max(nextTick, Math.ceilDiv(dueAt, tickMillis));
+        node.rounds = (int) Math.min(Integer.MAX_VALUE, (dueTick - nextTick) / WHEEL_SIZE);
+        int slot = (int) (dueTick & (WHEEL_SIZE - 1));
+        node.next = wheel[slot];
+        wheel[slot] = node;
+    }
+
+    private long delayMillis(Tracked node) {
+        long interval = isNearPickup(node.status)
+                ? constants.getLalamoveOrderPollingPickupInterval()
+                : constants.getLalamoveOrderPollingEnRouteInterval();
+        interval <<= node.unchanged;
+        double jitter = constants.getLalamoveOrderPollingJitter();
+        return jitter > 0 ? Math.round(interval * (1 + jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1))) : interval;
+    }
+
+    private static boolean isNearPickup(String status) {
+        return "ASSIGNING_DRIVER".equals(status) || "ON_GOING".equals(status);
+    }
+
+    /**
+     * One polled order: a wheel node, owned by the wheel while waiting and by one worker while polled.
+     */
+    private static final class Tracked {
+        private final String orderId;
+        private final long trackedAt;
+        private String status;
+        private long polledAt;
+        private int unchanged; // polls in a row that found the same status
+        private int rounds;    // wheel turns left before it is due
+        private Tracked next;
+
+        private Tracked(String orderId, String status, long trackedAt) {
+            this.orderId = orderId;
+            this.status = status;
+            this.trackedAt = trackedAt;
+            this.polledAt = trackedAt;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.fnp.integrations.lalamove.services;
+
+import com.fnp.integrations.concurrent.SingleFlight;
+import com.fnp.integrations.constants.DynamicConstants;
+import com.fnp.integrations.lalamove.dtos.LalamoveOrderResponseDto;
+import com.fnp.integrations.lalamove.entities.LalamoveOrderSnapshot;
+import com.fnp.integrations.lalamove.entities.LalamoveWebhookEvent;
+import com.fnp.integrations.lalamove.model.LalamoveOrder;
+import com.fnp.integrations.lalamove.repositories.LalamoveOrderSnapshotRepository;
+import com.fnp.integrations.lalamove.repositories.LalamoveWebhookEventRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Local read model of Lalamove orders, so reading an order's state does not cost an upstream call.
+ * Orders are held as {@link LalamoveOrder}s in a bounded cache, each for at most
+ * {@code lalamove.order-read-model.max-staleness} ms after it was last known to be current; the
+ * state is also written to {@code lalamove_order_snapshot}. A read is served from:
+ * <ol>
+ *   <li>memory;</li>
+ *   <li>the snapshot, with the status of the newest webhook event stored since, when that is still
+ *       within the staleness bound (after an eviction or a restart);</li>
+ *   <li>Lalamove, once per order however many callers miss at the same time.</li>
+ * </ol>
+ * Orders are added when placed and when read from Lalamove; webhook status events update the status
+ * of those in memory, but only a read from Lalamove makes an order current again.
+ */
+@Slf4j
+@Component
+public class LalamoveOrderReadModel {
+
+    private final LalamoveOrderSnapshotRepository snapshotRepository;
+    private final LalamoveWebhookEventRepository eventRepository;
+    private final LalamoveJson lalamoveJson;
+    private final DynamicConstants constants;
+    private final LongSupplier wallClock;
+    private final Cache<String, Entry> cache;
+    private final SingleFlight<String, LalamoveOrderResponseDto> fetches = new SingleFlight<>();
+
+    private final LongAdder databaseHits = new LongAdder();
+    private final LongAdder upstreamFetches = new LongAdder();
+    private final LongAdder statusUpdates = new LongAdder();
+
+    @Autowired
+    public LalamoveOrderReadModel(LalamoveOrderSnapshotRepository snapshotRepository, LalamoveWebhookEventRepository eventRepository,
+                                  LalamoveJson lalamoveJson, DynamicConstants constants) {
+        this(snapshotRepository, eventRepository, lalamoveJson, constants, Ticker.systemTicker(), System::currentTimeMillis);
+    }
+
+    LalamoveOrderReadModel(LalamoveOrderSnapshotRepository snapshotRepository, LalamoveWebhookEventRepository eventRepository,
+                           LalamoveJson lalamoveJson, DynamicConstants constants, Ticker ticker, LongSupplier wallClock) {
+        this.snapshotRepository = snapshotRepository;
+        this.eventRepository = eventRepository;
+        this.lalamoveJson = lalamoveJson;
+        this.constants = constants;
+        this.wallClock = wallClock;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(constants.getLalamoveOrderReadModelMaxSize())
+                .expireAfter(new StalenessExpiry())
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @param upstream reads the order from Lalamove, called only when neither memory nor the database has a current copy
+     * @return the order in its compact form (see {@link LalamoveOrder#toDto()})
+     */
+    public LalamoveOrderResponseDto get(String orderId, Supplier<LalamoveOrderResponseDto> upstream) {
+        Entry entry = cache.getIfPresent(orderId);
+        if (null != entry) {
+            return entry.order.toDto();
+        }
+        return fetches.execute(orderId, 0, () -> {
+            Entry filled = cache.getIfPresent(orderId); // a previous fetch may have just filled it
+            if (null != filled) {
+                return filled.order.toDto();
+            }
+            Entry stored = load(orderId);
+            if (null != stored) {
+                databaseHits.increment();
+                cache.put(orderId, stored);
+                return stored.order.toDto();
+            }
+            upstreamFetches.increment();
+            LalamoveOrderResponseDto order = upstream.get();
+            LalamoveOrder compact = put(order);
+            return null != compact ? compact.toDto() : order;
+        });
+    }
+
+    /**
+     * Records an order as current now, in memory and in the snapshot table.
+     *
+     * @return the compact form kept, or null if the order has none
+     */
+    public LalamoveOrder put(LalamoveOrderResponseDto order) {
+        LalamoveOrder compact;
+        try {
+            compact = LalamoveOrder.from(order);
+        } catch (IllegalArgumentException | ArithmeticException | DateTimeException e) {
+            log.warn("Order has no compact form, not keeping it: {}", e.getMessage());
+            return null;
+        }
+        long now = wallClock.getAsLong();
+        cache.put(compact.getOrderId(), new Entry(compact, now, TimeUnit.MILLISECONDS.toSeconds(now)));
+        try {
+            LalamoveOrderSnapshot snapshot = new LalamoveOrderSnapshot();
+            snapshot.setOrderId(compact.getOrderId());
+            snapshot.setStatus(compact.getStatus());
+            snapshot.setPayload(lalamoveJson.getOrderResponse().writeAsString(order));
+            snapshot.setRefreshedAt(Instant.ofEpochMilli(now));
+            snapshotRepository.save(snapshot);
+        } catch (DataAccessException | IOException e) {
+            log.warn("Could not store the snapshot of order {}: {}", compact.getOrderId(), e.getMessage());
+        }
+        return compact;
+    }
+
+    /**
+     * Applies a status reported by a webhook to the order, if it is in memory. Events older than the
+     * last one applied, or than the read the order came from, are ignored, and a terminal status is
+     * never left. The rest of the order is as old as before: the event does not make it current.
+     *
+     * @param eventTimestamp the event's own timestamp (epoch seconds), which orders events that arrive out of order
+     */
+    public void applyStatus(String orderId, String status, long eventTimestamp) {
+        if (null == orderId || null == status) {
+            return;
+        }
+        cache.asMap().computeIfPresent(orderId, (id, entry) -> {
+            if (eventTimestamp < entry.statusTimestamp || entry.order.isTerminal()) {
+                return entry;
+            }
+            statusUpdates.increment();
+            return new Entry(entry.order.withStatus(status), entry.refreshedAt, eventTimestamp);
+        });
+    }
+
+    /**
+     * Looks at an order in memory without counting a read.
+     *
+     * @return the order if it was read later than {@code refreshedAfter} (epoch ms) or has reached a
+     * terminal status, otherwise null
+     */
+    public LalamoveOrder peek(String orderId, long refreshedAfter) {
+        Entry entry = cache.asMap().get(orderId);
+        return null != entry && (entry.refreshedAt > refreshedAfter || entry.order.isTerminal()) ? entry.order : null;
+    }
+
+    public Map<String, Object> getStats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("maxSize", constants.getLalamoveOrderReadModelMaxSize());
+        result.put("maxStalenessMs", constants.getLalamoveOrderReadModelMaxStaleness());
+        result.put("memoryHits", stats.hitCount());
+        result.put("databaseHits", databaseHits.sum());
+        result.put("upstreamFetches", upstreamFetches.sum());
+        result.put("coalescedReads", fetches.getCoalesced());
+        result.put("statusUpdates", statusUpdates.sum());
+        result.put("evictionCount", stats.evictionCount());
+        return result;
+    }
+
+    /**
+     * @return the stored order if it is still within the staleness bound, otherwise null
+     */
+    private Entry load(String orderId) {
+        try {
+            Optional<LalamoveOrderSnapshot> snapshot = snapshotRepository.findById(orderId);
+            if (snapshot.isEmpty()) {
+                return null;
+            }
+            LalamoveOrder order = LalamoveOrder.from(lalamoveJson.getOrderResponse().read(snapshot.get().getPayload()));
+            long refreshedAt = snapshot.get().getRefreshedAt().toEpochMilli();
+            long statusTimestamp = TimeUnit.MILLISECONDS.toSeconds(refreshedAt);
+            Optional<LalamoveWebhookEvent> event = eventRepository.findFirstByOrderIdAndOrderStatusNotNullOrderByEventTimestampDescReceivedAtDesc(orderId);
+            if (event.isPresent() && event.get().getEventTimestamp() >= statusTimestamp && !order.isTerminal()) {
+                order = order.withStatus(event.get().getOrderStatus());
+                statusTimestamp = event.get().getEventTimestamp();
+            }
+            Entry entry = new Entry(order, refreshedAt, statusTimestamp);
+            return timeToLiveMillis(entry) > 0 ? entry : null;
+        } catch (DataAccessException | IOException | IllegalArgumentException | ArithmeticException | DateTimeException e) {
+            log.warn("Could not read the snapshot of order {}, reading it from Lalamove: {}", orderId, e.getMessage());
+            return null;
+        }
+    }
+
+    private long timeToLiveMillis(Entry entry) {
+        return entry.refreshedAt + constants.getLalamoveOrderReadModelMaxStaleness() - wallClock.getAsLong();
+    }
+
+    /**
+     * @param refreshedAt     when the order was last read from Lalamove or placed (epoch ms)
+     * @param statusTimestamp when its status was last known (epoch seconds): the read, or the last webhook event applied
+     */
+    private record Entry(LalamoveOrder order, long refreshedAt, long statusTimestamp) {
+    }
+
+    private class StalenessExpiry implements Expiry<String, Entry> {
+
+        @Override
+        public long expireAfterCreate(String key, Entry value, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeToLiveMillis(value)));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
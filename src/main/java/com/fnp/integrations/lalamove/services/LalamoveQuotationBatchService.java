@@ -0,0 +1,93 @@
+package com.fnp.integrations.lalamove.services;
+
+import com.fnp.integrations.constants.DynamicConstants;
+import com.fnp.integrations.enums.ResponseStatus;
+import com.fnp.integrations.exception.ResponseException;
+import com.fnp.integrations.lalamove.dtos.LalamoveDeliveryRequestWrapper;
+import com.fnp.integrations.lalamove.dtos.LalamoveQuotationBatchResponseDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Quotes several deliveries in one call. Items run upstream concurrently, at most
+ * {@code lalamove.quotation-batch.parallelism} per batch; the calling thread works alongside the
+ * pooled workers so a saturated pool slows a batch down rather than failing it. Each item gets
+ * its own result or error, in input order.
+ */
+@Slf4j
+@Service
+public class LalamoveQuotationBatchService {
+
+    private final LalamoveService lalamoveService;
+    private final DynamicConstants constants;
+    private final Executor executor;
+
+    public LalamoveQuotationBatchService(LalamoveService lalamoveService, DynamicConstants constants,
+                                         @Qualifier("lalamoveBatchExecutor") Executor executor) {
+        this.lalamoveService = lalamoveService;
+        this.constants = constants;
+        this.executor = executor;
+    }
+
+    public LalamoveQuotationBatchResponseDto getQuotations(List<LalamoveDeliveryRequestWrapper> requests) {
+        int maxItems = constants.getLalamoveQuotationBatchMaxItems();
+        if (requests == null || requests.isEmpty()) {
+            throw new ResponseException("Batch must contain at least one quotation request", HttpStatus.BAD_REQUEST);
+        }
+        if (requests.size() > maxItems) {
+            throw new ResponseException("Batch of " + requests.size() + " exceeds the limit of " + maxItems + " quotation requests",
+                    HttpStatus.BAD_REQUEST);
+        }
+
+        int size = requests.size();
+        LalamoveQuotationBatchResponseDto.Result[] results = new LalamoveQuotationBatchResponseDto.Result[size];
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            for (int i = next.getAndIncrement(); i < size; i = next.getAndIncrement()) {
+                results[i] = quote(i, requests.get(i));
+            }
+        };
+
+        int helpers = Math.min(constants.getLalamoveQuotationBatchParallelism(), size) - 1;
+        List<CompletableFuture<Void>> running = new ArrayList<>(Math.max(helpers, 0));
+        for (int i = 0; i < helpers; i++) {
+            try {
+                running.add(CompletableFuture.runAsync(worker, executor));
+            } catch (RejectedExecutionException e) {
+                log.debug("Batch executor saturated, running remaining quotations on {} threads", running.size() + 1);
+                break;
+            }
+        }
+        worker.run();
+        CompletableFuture.allOf(running.toArray(new CompletableFuture[0])).join();
+
+        int failed = (int) Arrays.stream(results).filter(result -> result.getQuotation() == null).count();
+        return new LalamoveQuotationBatchResponseDto(size - failed, failed, Arrays.asList(results));
+    }
+
+    private LalamoveQuotationBatchResponseDto.Result quote(int index, LalamoveDeliveryRequestWrapper request) {
+        if (request == null || request.getData() == null) {
+            return LalamoveQuotationBatchResponseDto.Result.error(index, ResponseStatus.BAD_REQUEST.getErrorCode(), "Quotation request data is missing");
+        }
+        try {
+            return LalamoveQuotationBatchResponseDto.Result.success(index, lalamoveService.getQuotations(request));
+        } catch (ResponseException e) {
+            log.warn("Batch quotation {} failed: {}", index, e.getErrorMessage());
+            return LalamoveQuotationBatchResponseDto.Result.error(index, e.getErrorCode(), e.getErrorMessage());
+        } catch (Exception e) {
+            log.error("Batch quotation {} failed unexpectedly: {}", index, e.getMessage(), e);
+            return LalamoveQuotationBatchResponseDto.Result.error(index, ResponseStatus.INTERNAL_SERVER_ERROR.getErrorCode(),
+                    ResponseStatus.INTERNAL_SERVER_ERROR.getErrorMessage());
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.fnp.integrations.lalamove.services;
+
+import com.fnp.integrations.constants.DynamicConstants;
+import com.fnp.integrations.lalamove.dtos.LalamoveDeliveryRequestWrapper;
+import com.fnp.integrations.lalamove.dtos.LalamoveQuotationResponseDto;
+import com.fnp.integrations.lalamove.model.LalamoveQuote;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.DateTimeException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-memory cache of Lalamove quotations keyed on a canonical form of the delivery request.
+ * Each entry lives until the quote's own {@code expiresAt} minus a safety margin, so a cached quote
+ * is never handed out after Lalamove would reject it. Switched by {@code feature.cache-enabled}.
+ * Quotes are held as {@link LalamoveQuote}s, converted on {@link #put} and back for the caller's
+ * request on {@link #get}; a quote that has no compact form is not cached.
+ */
+@Slf4j
+@Component
+public class LalamoveQuotationCache {
+
+    private final DynamicConstants constants;
+    private final LongSupplier wallClock;
+    private final Cache<QuotationKey, LalamoveQuote> cache;
+
+    @Autowired
+    public LalamoveQuotationCache(DynamicConstants constants) {
+        this(constants, Ticker.systemTicker(), System::currentTimeMillis);
+    }
+
+    LalamoveQuotationCache(DynamicConstants constants, Ticker ticker, LongSupplier wallClock) {
+        this.constants = constants;
+        this.wallClock = wallClock;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(constants.getLalamoveQuotationCacheMaxSize())
+                .expireAfter(new QuoteExpiry())
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return constants.isCacheEnabled();
+    }
+
+    /**
+     * @return the canonical key for a request, or null when the request cannot be cached (e.g. missing or non-numeric coordinates)
+     */
+    public QuotationKey keyOf(LalamoveDeliveryRequestWrapper request) {
+        if (request == null || request.getData() == null || request.getData().getStops() == null) {
+            return null;
+        }
+        LalamoveDeliveryRequestWrapper.LalamoveDeliveryRequest data = request.getData();
+        double scale = Math.pow(10, constants.getLalamoveQuotationCacheCoordinatePrecision());
+
+        List<LalamoveDeliveryRequestWrapper.Stop> stops = data.getStops();
+        long[] coordinates = new long[stops.size() * 2];
+        try {
+            for (int i = 0; i < stops.size(); i++) {
+                LalamoveDeliveryRequestWrapper.Coordinates point = stops.get(i).getCoordinates();
+                coordinates[2 * i] = Math.round(Double.parseDouble(point.getLat().trim()) * scale);
+                coordinates[2 * i + 1] = Math.round(Double.parseDouble(point.getLng().trim()) * scale);
+            }
+        } catch (NullPointerException | NumberFormatException e) {
+            log.debug("Quotation request is not cacheable: {}", e.getMessage());
+            return null;
+        }
+
+        List<String> specialRequests = data.getSpecialRequests() == null ? List.of()
+                : data.getSpecialRequests().stream().filter(Objects::nonNull).map(LalamoveQuotationCache::normalize)
+                        .distinct().sorted().toList();
+
+        return new QuotationKey(normalize(constants.getLalamoveMarket()), normalize(data.getServiceType()),
+                normalize(data.getLanguage()), data.getScheduleAt(), data.isRouteOptimized(), specialRequests, coordinates);
+    }
+
+    /**
+     * @param request the request being answered, which supplies the stop addresses
+     */
+    public LalamoveQuotationResponseDto get(QuotationKey key, LalamoveDeliveryRequestWrapper request) {
+        LalamoveQuote quote = getQuote(key);
+        return quote != null ? quote.toDto(request) : null;
+    }
+
+    public LalamoveQuote getQuote(QuotationKey key) {
+        return isEnabled() && key != null ? cache.getIfPresent(key) : null;
+    }
+
+    public void put(QuotationKey key, LalamoveQuotationResponseDto quotation) {
+        if (isEnabled() && key != null && quotation != null) {
+            put(key, compact(quotation));
+        }
+    }
+
+    public void put(QuotationKey key, LalamoveQuote quote) {
+        if (isEnabled() && key != null && quote != null && timeToLiveMillis(quote) > 0) {
+            cache.put(key, quote);
+        }
+    }
+
+    /**
+     * @return the quotation as a {@link LalamoveQuote}, or null when it has no compact form
+     */
+    public static LalamoveQuote compact(LalamoveQuotationResponseDto quotation) {
+        try {
+            return LalamoveQuote.from(quotation);
+        } catch (IllegalArgumentException | ArithmeticException | DateTimeException e) {
+            log.warn("Quotation has no compact form, not caching: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", isEnabled());
+        result.put("size", cache.estimatedSize());
+        result.put("maxSize", constants.getLalamoveQuotationCacheMaxSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        return result;
+    }
+
+    private long timeToLiveMillis(LalamoveQuote quote) {
+        if (quote.getExpiresAt() == LalamoveQuote.NONE) {
+            return 0;
+        }
+        return quote.getExpiresAt() - constants.getLalamoveQuotationCacheExpiryMargin() - wallClock.getAsLong();
+    }
+
+    private static String normalize(String value) {
+        return value == null ? null : value.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Canonical quotation request: rounded stop coordinates (lat/lng pairs in order), upper-cased
+     * service type and language, sorted special requests, schedule and market.
+     */
+    @Value
+    public static class QuotationKey {
+        String market;
+        String serviceType;
+        String language;
+        String scheduleAt;
+        boolean routeOptimized;
+        List<String> specialRequests;
+        long[] coordinates;
+    }
+
+    private class QuoteExpiry implements Expiry<QuotationKey, LalamoveQuote> {
+
+        @Override
+        public long expireAfterCreate(QuotationKey key, LalamoveQuote value, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeToLiveMillis(value)));
+        }
+
+        @Override
+        public long expireAfterUpdate(QuotationKey key, LalamoveQuote value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(QuotationKey key, LalamoveQuote value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.fnp.integrations.lalamove.services;
+
+import com.fnp.integrations.constants.DynamicConstants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * HMAC-SHA256 signer for Lalamove v3 requests.
+ * The raw signature is {@code <timestamp>\r\n<METHOD>\r\n<path>\r\n\r\n<body>}; it is fed to the MAC
+ * as bytes (timestamp digits, a pre-encoded {@link Target} and the serialized body) so no
+ * intermediate String is built. Keyed {@link Mac} instances and scratch buffers are kept in a small
+ * lock-free pool rather than a ThreadLocal so the signer behaves the same on platform and virtual
+ * threads. The only per-call allocation is the returned header String.
+ * <p>
+ * Webhooks from Lalamove are signed the same way and checked with {@link #verify}.
+ */
+@Component
+public class LalamoveRequestSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final int MAX_TIMESTAMP_DIGITS = 19;
+    private static final int DIGEST_LENGTH = 32;
+    private static final int PROBES = 4;
+
+    private final SecretKeySpec key;
+    private final byte[] headerPrefix;
+    private final AtomicReferenceArray<SigningState> pool;
+
+    @Autowired
+    public LalamoveRequestSigner(DynamicConstants constants) {
+        this(constants.getLalamoveAppKey(), constants.getLalamoveAppSecret());
+    }
+
+    public LalamoveRequestSigner(String appKey, String appSecret) {
+        this.key = new SecretKeySpec(appSecret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.headerPrefix = ("hmac " + appKey + ":").getBytes(StandardCharsets.US_ASCII);
+        this.pool = new AtomicReferenceArray<>(Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+        release(newState()); // fail at startup, not on the first request, if the key is unusable
+    }
+
+    /**
+     * Pre-encodes the {@code \r\n<METHOD>\r\n<path>\r\n\r\n} part of the raw signature for an endpoint.
+     */
+    public static Target target(String method, String path) {
+        return new Target(("\r\n" + method + "\r\n" + path + "\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the {@code Authorization} header value, {@code hmac <appKey>:<timestamp>:<signature>}
+     */
+    public String authorization(long timestamp, Target target, byte[] body) {
+        SigningState state = acquire();
+        try {
+            int position = sign(state, timestamp, target, body, 0, body.length);
+            byte[] header = state.header;
+            header[position++] = ':';
+            position = writeHex(state.digest, header, position);
+            return new String(header, 0, position, StandardCharsets.ISO_8859_1);
+        } catch (GeneralSecurityException e) {
+            state.mac.reset();
+            throw new IllegalStateException("Unable to sign Lalamove request", e);
+        } finally {
+            release(state);
+        }
+    }
+
+    /**
+     * Checks a webhook signature, the hex HMAC of {@code <timestamp>\r\n<METHOD>\r\n<path>\r\n\r\n<body>}
+     * where the body is {@code length} bytes of {@code bytes} from {@code offset}. The comparison
+     * takes the same time wherever the first difference is.
+     */
+    public boolean verify(long timestamp, Target target, byte[] bytes, int offset, int length, String signature) {
+        if (null == signature || signature.length() != DIGEST_LENGTH * 2 || timestamp < 0) {
+            return false;
+        }
+        SigningState state = acquire();
+        try {
+            sign(state, timestamp, target, bytes, offset, length);
+            int difference = 0;
+            for (int i = 0; i < DIGEST_LENGTH; i++) {
+                byte b = state.digest[i];
+                difference |= Character.toLowerCase(signature.charAt(2 * i)) ^ HEX_DIGITS[(b >> 4) & 0x0f];
+                difference |= Character.toLowerCase(signature.charAt(2 * i + 1)) ^ HEX_DIGITS[b & 0x0f];
+            }
+            return difference == 0;
+        } catch (GeneralSecurityException e) {
+            state.mac.reset();
+            throw new IllegalStateException("Unable to verify Lalamove signature", e);
+        } finally {
+            release(state);
+        }
+    }
+
+    /**
+     * Writes the timestamp digits after the header prefix, leaves the MAC in {@code state.digest}
+     * and returns the header position after the timestamp.
+     */
+    private int sign(SigningState state, long timestamp, Target target, byte[] body, int offset, int length)
+            throws GeneralSecurityException {
+        byte[] header = state.header;
+        int timestampStart = headerPrefix.length;
+        int position = writeDecimal(timestamp, header, timestampStart);
+
+        Mac mac = state.mac;
+        mac.update(header, timestampStart, position - timestampStart);
+        mac.update(target.bytes);
+        mac.update(body, offset, length);
+        mac.doFinal(state.digest, 0);
+        return position;
+    }
+
+    private SigningState acquire() {
+        int size = pool.length();
+        int index = ThreadLocalRandom.current().nextInt(size);
+        for (int i = 0; i < PROBES; i++) {
+            SigningState state = pool.getAndSet((index + i) % size, null);
+            if (state != null) {
+                return state;
+            }
+        }
+        return newState();
+    }
+
+    private void release(SigningState state) {
+        int size = pool.length();
+        int index = ThreadLocalRandom.current().nextInt(size);
+        for (int i = 0; i < PROBES; i++) {
+            if (pool.compareAndSet((index + i) % size, null, state)) {
+                return;
+            }
+        }
+        // pool is full, let this one be collected
+    }
+
+    private SigningState newState() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            byte[] header = new byte[headerPrefix.length + MAX_TIMESTAMP_DIGITS + 1 + DIGEST_LENGTH * 2];
+            System.arraycopy(headerPrefix, 0, header, 0, headerPrefix.length);
+            return new SigningState(mac, header);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialise " + ALGORITHM, e);
+        }
+    }
+
+    private static int writeDecimal(long value, byte[] out, int position) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Timestamp must not be negative");
+        }
+        int digits = 1;
+        for (long remaining = value / 10; remaining > 0; remaining /= 10) {
+            digits++;
+        }
+        int end = position + digits;
+        for (int i = end - 1; i >= position; i--) {
+            out[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return end;
+    }
+
+    private static int writeHex(byte[] digest, byte[] out, int position) {
+        for (byte b : digest) {
+            out[position++] = HEX_DIGITS[(b >> 4) & 0x0f];
+            out[position++] = HEX_DIGITS[b & 0x0f];
+        }
+        return position;
+    }
+
+    /**
+     * Pre-encoded method and path of a signed endpoint, see {@link #target(String, String)}.
+     */
+    public static final class Target {
+        private final byte[] bytes;
+
+        private Target(byte[] bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    private static final class SigningState {
+        private final Mac mac;
+        private final byte[] header;
+        private final byte[] digest = new byte[DIGEST_LENGTH];
+
+        private SigningState(Mac mac, byte[] header) {
+            this.mac = mac;
+            this.header = header;
+        }
+    }
+}
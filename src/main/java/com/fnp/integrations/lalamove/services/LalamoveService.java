@@ -1,150 +1,197 @@
 package com.fnp.integrations.lalamove.services;
 
+import com.fnp.integrations.concurrent.SingleFlight;
+import com.fnp.integrations.constants.DynamicConstants;
+import com.fnp.integrations.exception.ResponseException;
+import com.fnp.integrations.http.HedgingPolicy;
+import com.fnp.integrations.http.RateLimiterRegistry;
 import com.fnp.integrations.lalamove.dtos.LalamoveOrderRequestWrapper;
 import com.fnp.integrations.lalamove.dtos.LalamoveOrderResponseDto;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
+import com.fnp.integrations.lalamove.model.LalamoveOrder;
+import com.fnp.integrations.lalamove.model.LalamoveQuote;
+import com.fnp.integrations.service.AsyncRestClient;
+import com.fnp.integrations.service.RestClient;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fnp.integrations.lalamove.dtos.LalamoveDeliveryRequestWrapper;
 import com.fnp.integrations.lalamove.dtos.LalamoveQuotationResponseDto;
 
+/**
+ * Lalamove v3 API client.
+ * Calls go through the shared {@link RestClient} (pooled transport, consistent error mapping) and
+ * requests are written with the pre-bound writers of {@link LalamoveJson}, so nothing is built per request.
+ * With {@code lalamove.quotation-hedging.enabled} quotation calls are hedged by {@link HedgingPolicy}
+ * over {@link AsyncRestClient}: a quotation has no side effects, so a duplicate is harmless.
+ */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class LalamoveService {
 
-    @Value("${lalamove.hostname}")
-    private String hostname;
-    
-    @Value("${lalamove.appKey}")
-    private String appKey;
-    
-    @Value("${lalamove.appSecret}")
-    private String appSecret;
-    
-    @Value("${lalamove.market}")
-    private String market;
-
+    private static final String QUOTATIONS_PATH = "/v3/quotations";
+    private static final String ORDERS_PATH = "/v3/orders";
+    private static final LalamoveRequestSigner.Target QUOTATIONS = LalamoveRequestSigner.target("POST", QUOTATIONS_PATH);
+    private static final LalamoveRequestSigner.Target ORDERS = LalamoveRequestSigner.target("POST", ORDERS_PATH);
+    private static final String QUOTATIONS_OPERATION = "lalamove.quotations";
+    private static final Pattern ORDER_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+    private static final byte[] NO_BODY = new byte[0];
+
+    private final RestClient restClient;
+    private final AsyncRestClient asyncRestClient;
+    private final LalamoveJson lalamoveJson;
+    private final LalamoveRequestSigner signer;
+    private final LalamoveQuotationCache quotationCache;
+    private final LalamoveOrderReadModel orderReadModel;
+    private final HedgingPolicy hedgingPolicy;
+    private final DynamicConstants constants;
+    private final SingleFlight<LalamoveQuotationCache.QuotationKey, LalamoveQuote> quotationFlights = new SingleFlight<>();
+    private final List<Consumer<LalamoveOrder>> orderPlacedListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Serves from the quotation cache when possible; otherwise identical concurrent requests are
+     * coalesced into a single upstream call whose result (or failure) every caller receives.
+     * Requests with the same key may differ in their stop addresses, so a flight shares only the
+     * {@link LalamoveQuote}, and every caller but the one that fetched gets it back with its own
+     * addresses, as from the cache.
+     */
     public LalamoveQuotationResponseDto getQuotations(LalamoveDeliveryRequestWrapper request) {
-        
-        // Force set isRouteOptimized to true since frontend sends true
-        
-        RestTemplate restTemplate = new RestTemplate();
-
-        String method = "POST";
-        String path = "/v3/quotations";
-        long timestampMillis = System.currentTimeMillis();
-        String timestamp = String.valueOf(timestampMillis);
-        
-        // Convert class to JSON via object mapper instead of toString
-        ObjectMapper objectMapper = new ObjectMapper();
-        String requestJson;
-        try {
-            requestJson = objectMapper.writeValueAsString(request);
-        } catch (Exception e) {
-            throw new RuntimeException("Error converting request to JSON", e);
+        boolean coalescing = constants.isLalamoveQuotationCoalescingEnabled();
+        LalamoveQuotationCache.QuotationKey key = quotationCache.isEnabled() || coalescing ? quotationCache.keyOf(request) : null;
+        LalamoveQuotationResponseDto cached = quotationCache.get(key, request);
+        if (cached != null) {
+            return cached;
         }
-        String rawSignature = timestamp + "\r\n" + method + "\r\n" + path + "\r\n\r\n" + requestJson;
-
-        String signature;
-        try {
-            signature = generateHmacSHA256(rawSignature, appSecret);
-        } catch (Exception e) {
-            throw new RuntimeException("Error generating signature", e);
+        if (key == null || !coalescing) {
+            return fetchQuotation(key, request);
         }
-        
-        // Create headers
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Content-Type", "application/json");
-        headers.set("Authorization", "hmac " + appKey + ":" + timestamp + ":" + signature);
-        headers.set("market", market);
-
-        
-        HttpEntity<LalamoveDeliveryRequestWrapper> entity = new HttpEntity<>(request, headers);
-        
-        log.info("Complete Request : {}", entity);
-
-        String url = "https://" + hostname + "/v3/quotations";
-        log.info("Calling URL: {}", url);
-        
-        ResponseEntity<LalamoveQuotationResponseDto> response = restTemplate.exchange(url, HttpMethod.POST, entity, LalamoveQuotationResponseDto.class);
-        
-        log.info("Response status: {}", response.getStatusCode());
-        log.info("Response body: {}", response.getBody());
-        
-        return response.getBody();
+        LalamoveQuotationResponseDto[] fetched = new LalamoveQuotationResponseDto[1];
+        LalamoveQuote quote = quotationFlights.execute(key, constants.getLalamoveQuotationCoalescingWindow(), () -> {
+            LalamoveQuote filled = quotationCache.getQuote(key); // a previous flight may have just cached it
+            if (filled != null) {
+                return filled;
+            }
+            fetched[0] = postQuotation(request);
+            LalamoveQuote compact = LalamoveQuotationCache.compact(fetched[0]);
+            quotationCache.put(key, compact);
+            return compact;
+        });
+        if (fetched[0] != null) {
+            return fetched[0];
+        }
+        // the flight's quote has no compact form to rebuild this request's answer from
+        return quote != null ? quote.toDto(request) : fetchQuotation(key, request);
+    }
+
+    public SingleFlight<LalamoveQuotationCache.QuotationKey, LalamoveQuote> getQuotationFlights() {
+        return quotationFlights;
+    }
+
+    public Map<String, Object> getQuotationHedgingStats() {
+        return hedgingPolicy.getStats(QUOTATIONS_OPERATION);
     }
 
     public LalamoveOrderResponseDto placeOrders(LalamoveOrderRequestWrapper request) {
-        RestTemplate restTemplate = new RestTemplate();
-        log.info("hi");
-        String method = "POST";
-        String path = "/v3/orders";
-        long timestampMillis = System.currentTimeMillis();
-        String timestamp = String.valueOf(timestampMillis);
-
-        // Convert class to JSON via object mapper instead of toString
-        ObjectMapper objectMapper = new ObjectMapper();
-        String requestJson;
-        try {
-            requestJson = objectMapper.writeValueAsString(request);
-            log.info("Request JSON: {}", requestJson);
-        } catch (Exception e) {
-            throw new RuntimeException("Error converting request to JSON", e);
+        LalamoveOrderResponseDto order = post(ORDERS_PATH, ORDERS, lalamoveJson.getOrderRequest(), request, LalamoveOrderResponseDto.class, null);
+        LalamoveOrder placed = orderReadModel.put(order);
+        if (null != placed) {
+            orderPlacedListeners.forEach(listener -> listener.accept(placed));
         }
-        log.info("Complete Request order: {}", requestJson);
-        String rawSignature = timestamp + "\r\n" + method + "\r\n" + path + "\r\n\r\n" + requestJson;
-        log.info("Raw signature: {}", rawSignature);
+        return order;
+    }
 
-        String signature;
-        try {
-            signature = generateHmacSHA256(rawSignature, appSecret);
-        } catch (Exception e) {
-            throw new RuntimeException("Error generating signature", e);
-        }
+    /**
+     * Registers a callback run with every order {@link #placeOrders} placed, on the placing thread.
+     */
+    public void addOrderPlacedListener(Consumer<LalamoveOrder> listener) {
+        orderPlacedListeners.add(listener);
+    }
 
-        log.info("Generated signature: {}", signature);
-        log.info("Authorization header order: hmac {}:{}:{}", appKey, timestamp, signature);
+    /**
+     * Served from {@link LalamoveOrderReadModel}; Lalamove is asked only when it has no current copy.
+     */
+    public LalamoveOrderResponseDto getOrder(String orderId) {
+        if (null == orderId || !ORDER_ID.matcher(orderId).matches()) {
+            throw new ResponseException("Invalid order id", HttpStatus.BAD_REQUEST);
+        }
+        return orderReadModel.get(orderId, () -> fetchOrder(orderId));
+    }
 
-        // Create headers
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Content-Type", "application/json");
-        headers.set("Authorization", "hmac " + appKey + ":" + timestamp + ":" + signature);
-        headers.set("market", market);
+    public Map<String, Object> getOrderReadModelStats() {
+        return orderReadModel.getStats();
+    }
 
-        HttpEntity<LalamoveOrderRequestWrapper> entity = new HttpEntity<>(request, headers);
+    /**
+     * Reads an order from Lalamove ({@code GET /v3/orders/{orderId}}), bypassing the read model.
+     */
+    public LalamoveOrderResponseDto fetchOrder(String orderId) {
+        return fetchOrder(orderId, null);
+    }
 
-        String url = "https://" + hostname + "/v3/orders";
+    /**
+     * @param rateLimitTimeout ms to wait for a rate-limit permit, or null for {@code http.rate-limit.queue-timeout}
+     */
+    public LalamoveOrderResponseDto fetchOrder(String orderId, Long rateLimitTimeout) {
+        String path = ORDERS_PATH + "/" + orderId;
+        HttpHeaders headers = new HttpHeaders();
+        if (null != rateLimitTimeout) {
+            headers.set(RateLimiterRegistry.TIMEOUT_HEADER, String.valueOf(rateLimitTimeout));
+        }
+        headers.set("Authorization", signer.authorization(System.currentTimeMillis(), LalamoveRequestSigner.target("GET", path), NO_BODY));
+        headers.set("market", constants.getLalamoveMarket());
+        String url = constants.getLalamoveScheme() + "://" + constants.getLalamoveHostname() + path;
+        return restClient.get(url, headers, LalamoveOrderResponseDto.class, true);
+    }
 
-        ResponseEntity<LalamoveOrderResponseDto> response=restTemplate.exchange(url, HttpMethod.POST, entity, LalamoveOrderResponseDto.class);
+    private LalamoveQuotationResponseDto fetchQuotation(LalamoveQuotationCache.QuotationKey key, LalamoveDeliveryRequestWrapper request) {
+        LalamoveQuotationResponseDto quotation = postQuotation(request);
+        quotationCache.put(key, quotation);
+        return quotation;
+    }
 
-        return response.getBody();
+    private LalamoveQuotationResponseDto postQuotation(LalamoveDeliveryRequestWrapper request) {
+        return post(QUOTATIONS_PATH, QUOTATIONS, lalamoveJson.getQuotationRequest(), request, LalamoveQuotationResponseDto.class,
+                constants.isLalamoveQuotationHedgingEnabled() ? QUOTATIONS_OPERATION : null);
     }
 
-    public static String generateHmacSHA256(String rawSignature, String secret) throws Exception {
-        Mac sha256_HMAC = Mac.getInstance("HmacSHA256");
-        SecretKeySpec secret_key = new SecretKeySpec(secret.getBytes("UTF-8"), "HmacSHA256");
-        sha256_HMAC.init(secret_key);
-        byte[] hash = sha256_HMAC.doFinal(rawSignature.getBytes("UTF-8"));
-
-        // Convert to hex string (to match CryptoJS's `.toString()`)
-        StringBuilder hexString = new StringBuilder();
-        for (byte b : hash) {
-            String hex = Integer.toHexString(0xff & b);
-            if (hex.length() == 1) hexString.append('0');
-            hexString.append(hex);
+    /**
+     * Serializes the request once and signs exactly those bytes; the same array is written as the
+     * request body (ByteArrayHttpMessageConverter) so the signed and the sent payload cannot diverge.
+     * With a {@code hedgeOperation} the call is hedged; a hedge resends the same bytes with the same signature.
+     */
+    private <R, T> T post(String path, LalamoveRequestSigner.Target target, LalamoveJson.Codec<R> codec, R request,
+                          Class<T> responseType, String hedgeOperation) {
+        byte[] body;
+        try {
+            body = codec.write(request);
+        } catch (Exception e) {
+            throw new RuntimeException("Error converting request to JSON", e);
         }
 
-        return hexString.toString();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("Authorization", signer.authorization(System.currentTimeMillis(), target, body));
+        headers.set("market", constants.getLalamoveMarket());
+
+        String url = constants.getLalamoveScheme() + "://" + constants.getLalamoveHostname() + path;
+
+        if (null != hedgeOperation) {
+            return hedgingPolicy.call(hedgeOperation, URI.create(url).getHost(),
+                    () -> asyncRestClient.post(url, headers, body, responseType, true),
+                    () -> restClient.post(url, headers, body, responseType, true));
+        }
+        return restClient.post(url, headers, body, responseType, true);
     }
 }
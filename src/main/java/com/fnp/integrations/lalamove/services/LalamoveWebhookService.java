@@ -0,0 +1,341 @@
+package com.fnp.integrations.lalamove.services;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fnp.integrations.constants.DynamicConstants;
+import com.fnp.integrations.exception.ResponseException;
+import com.fnp.integrations.lalamove.entities.LalamoveWebhookEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.BatchUpdateException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Intake of Lalamove webhooks (order status, driver assignment, proof of delivery and the other
+ * event types, all stored alike). {@link #receive} does only what the acknowledgement depends on:
+ * <ol>
+ *   <li>reads the envelope with the streaming parser, without binding the payload;</li>
+ *   <li>checks the {@code apiKey} and the HMAC {@code signature} of
+ *       {@code <timestamp>\r\nPOST\r\n}{@value #PATH}{@code \r\n\r\n<data>}, over the {@code data}
+ *       bytes exactly as received;</li>
+ *   <li>refuses an event whose {@code timestamp} (epoch seconds) is more than
+ *       {@code lalamove.webhook.max-clock-skew} ms from now: the signature does not cover the
+ *       {@code eventId}, so a captured delivery could otherwise be replayed under new ids forever;</li>
+ *   <li>drops an event id it has seen among the last {@code lalamove.webhook.dedupe-size};</li>
+ *   <li>queues the event in a write-behind buffer of {@code lalamove.webhook.buffer-size} events,
+ *       and passes a status change on to {@link LalamoveOrderReadModel}.</li>
+ * </ol>
+ * The buffer is flushed every {@code lalamove.webhook.flush-interval} ms in JDBC batches of
+ * {@code lalamove.webhook.batch-size} rows, so a burst costs one round trip per batch instead of a
+ * transaction per event. A full buffer answers 503 and forgets the event id, so Lalamove's redelivery
+ * is accepted later. A batch the database cannot take right now goes back to the head of the buffer
+ * for the next flush; when it refuses the data itself, the rows are inserted one by one and those it
+ * still refuses are dropped (logged and counted), so one bad event never holds up the rest.
+ */
+@Slf4j
+@Service
+public class LalamoveWebhookService {
+
+    public static final String PATH = "/api/lalamove/webhooks";
+
+    private static final LalamoveRequestSigner.Target TARGET = LalamoveRequestSigner.target("POST", PATH);
+    private static final String INSERT = "insert into lalamove_webhook_event"
+            + " (event_id, event_type, order_id, order_status, event_timestamp, payload, received_at) values (?, ?, ?, ?, ?, ?, ?)";
+
+    public enum Outcome {
+        ACCEPTED, DUPLICATE
+    }
+
+    private final LalamoveRequestSigner signer;
+    private final LalamoveOrderReadModel orderReadModel;
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonFactory jsonFactory;
+    private final DynamicConstants constants;
+    private final LongSupplier wallClock;
+    private final Cache<String, Boolean> seen;
+    private final BlockingDeque<LalamoveWebhookEvent> buffer;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+    private final LongAdder persisted = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    @Autowired
+    public LalamoveWebhookService(LalamoveRequestSigner signer, LalamoveOrderReadModel orderReadModel, JdbcTemplate jdbcTemplate,
+                                  ObjectMapper objectMapper, DynamicConstants constants) {
+        this(signer, orderReadModel, jdbcTemplate, objectMapper, constants, System::currentTimeMillis,
+                new LinkedBlockingDeque<>(constants.getLalamoveWebhookBufferSize()));
+    }
+
+    LalamoveWebhookService(LalamoveRequestSigner signer, LalamoveOrderReadModel orderReadModel, JdbcTemplate jdbcTemplate,
+                           ObjectMapper objectMapper, DynamicConstants constants, LongSupplier wallClock,
+                           BlockingDeque<LalamoveWebhookEvent> buffer) {
+        this.signer = signer;
+        this.orderReadModel = orderReadModel;
+        this.jdbcTemplate = jdbcTemplate;
+        this.jsonFactory = objectMapper.getFactory();
+        this.constants = constants;
+        this.wallClock = wallClock;
+        this.seen = Caffeine.newBuilder().maximumSize(constants.getLalamoveWebhookDedupeSize()).build();
+        this.buffer = buffer;
+    }
+
+    /**
+     * @throws ResponseException 400 for a malformed event, 401 for a bad key or signature or a timestamp
+     *                           outside the clock skew, 503 when the buffer is full
+     */
+    public Outcome receive(byte[] body) {
+        Envelope envelope = parse(body);
+        if (!constants.getLalamoveAppKey().equals(envelope.apiKey)
+                || !signer.verify(envelope.timestamp, TARGET, body, envelope.dataStart, envelope.dataEnd - envelope.dataStart, envelope.signature)) {
+            rejected.increment();
+            throw new ResponseException("Invalid webhook signature", HttpStatus.UNAUTHORIZED);
+        }
+        long skew = wallClock.getAsLong() - TimeUnit.SECONDS.toMillis(envelope.timestamp);
+        if (Math.abs(skew) > constants.getLalamoveWebhookMaxClockSkew()) {
+            expired.increment();
+            log.warn("Webhook event {} is {} s from now, refusing it", envelope.eventId, TimeUnit.MILLISECONDS.toSeconds(skew));
+            throw new ResponseException("Webhook timestamp is outside the accepted window", HttpStatus.UNAUTHORIZED);
+        }
+        if (null != seen.asMap().putIfAbsent(envelope.eventId, Boolean.TRUE)) {
+            duplicates.increment();
+            return Outcome.DUPLICATE;
+        }
+
+        LalamoveWebhookEvent event = new LalamoveWebhookEvent();
+        event.setEventId(envelope.eventId);
+        event.setEventType(envelope.eventType);
+        event.setOrderId(envelope.orderId);
+        event.setOrderStatus(envelope.orderStatus);
+        event.setEventTimestamp(envelope.timestamp);
+        event.setPayload(new String(body, envelope.dataStart, envelope.dataEnd - envelope.dataStart, StandardCharsets.UTF_8));
+        event.setReceivedAt(Instant.now());
+        if (!buffer.offerLast(event)) {
+            seen.invalidate(envelope.eventId);
+            overflowed.increment();
+            log.warn("Webhook buffer full ({} events), refusing event {}", constants.getLalamoveWebhookBufferSize(), envelope.eventId);
+            throw new ResponseException("Webhook buffer is full, retry later", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        accepted.increment();
+        orderReadModel.applyStatus(envelope.orderId, envelope.orderStatus, envelope.timestamp);
+        return Outcome.ACCEPTED;
+    }
+
+    @Scheduled(fixedDelayString = "${lalamove.webhook.flush-interval:200}")
+    public synchronized void flush() {
+        int batchSize = Math.max(1, constants.getLalamoveWebhookBatchSize());
+        List<LalamoveWebhookEvent> batch = new ArrayList<>(Math.min(batchSize, buffer.size() + 1));
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            try {
+                persisted.add(insert(batch));
+            } catch (RuntimeException e) {
+                failedBatches.increment();
+                log.warn("Could not persist {} webhook events, keeping them for the next flush: {}", batch.size(), e.getMessage());
+                for (int i = batch.size() - 1; i >= 0; i--) {
+                    LalamoveWebhookEvent event = batch.get(i);
+                    if (!buffer.offerFirst(event)) {
+                        seen.invalidate(event.getEventId()); // lost here; Lalamove's redelivery will be taken
+                        log.error("Webhook buffer full, dropping event {}", event.getEventId());
+                    }
+                }
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("accepted", accepted.sum());
+        stats.put("duplicates", duplicates.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("expired", expired.sum());
+        stats.put("overflowed", overflowed.sum());
+        stats.put("buffered", buffer.size());
+        stats.put("persisted", persisted.sum());
+        stats.put("failedBatches", failedBatches.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("rememberedEventIds", seen.estimatedSize());
+        return stats;
+    }
+
+    /**
+     * One batch; if the database refuses a row of it (an event already stored, i.e. a redelivery
+     * older than the dedupe set or from before a restart, or a value it does not accept), the rows the
+     * driver reports as not inserted are retried one by one: stored ones are skipped and refused ones
+     * dropped. Drivers differ on whether the rest of a failed batch runs.
+     *
+     * @return the number of rows inserted
+     */
+    private int insert(List<LalamoveWebhookEvent> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), LalamoveWebhookService::bind);
+            return batch.size();
+        } catch (DataIntegrityViolationException e) {
+            int[] counts = e.getCause() instanceof BatchUpdateException failed ? failed.getUpdateCounts() : new int[0];
+            int inserted = 0;
+            for (int i = 0; i < batch.size(); i++) {
+                if (i < counts.length && counts[i] != Statement.EXECUTE_FAILED) {
+                    inserted++;
+                    continue;
+                }
+                LalamoveWebhookEvent event = batch.get(i);
+                try {
+                    inserted += jdbcTemplate.update(INSERT, statement -> bind(statement, event));
+                } catch (DuplicateKeyException stored) {
+                    duplicates.increment();
+                } catch (DataIntegrityViolationException refused) {
+                    dropped.increment();
+                    log.error("Database refused webhook event {} ({}), dropping it: {}", event.getEventId(), event.getEventType(),
+                            refused.getMostSpecificCause().getMessage());
+                }
+            }
+            return inserted;
+        }
+    }
+
+    private static void bind(PreparedStatement statement, LalamoveWebhookEvent event) throws SQLException {
+        statement.setString(1, event.getEventId());
+        statement.setString(2, event.getEventType());
+        statement.setString(3, event.getOrderId());
+        statement.setString(4, event.getOrderStatus());
+        statement.setLong(5, event.getEventTimestamp());
+        statement.setString(6, event.getPayload());
+        statement.setTimestamp(7, Timestamp.from(event.getReceivedAt()));
+    }
+
+    private Envelope parse(byte[] body) {
+        Envelope envelope = new Envelope();
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw malformed("not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "apiKey" -> envelope.apiKey = parser.getValueAsString();
+                    case "timestamp" -> envelope.timestamp = parser.getValueAsLong(-1);
+                    case "signature" -> envelope.signature = parser.getValueAsString();
+                    case "eventId" -> envelope.eventId = parser.getValueAsString();
+                    case "eventType" -> envelope.eventType = parser.getValueAsString();
+                    case "data" -> {
+                        if (value != JsonToken.START_OBJECT) {
+                            throw malformed("data is not an object");
+                        }
+                        envelope.dataStart = (int) parser.currentTokenLocation().getByteOffset();
+                        readData(parser, envelope);
+                        envelope.dataEnd = (int) parser.currentLocation().getByteOffset();
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw malformed(e.getOriginalMessage());
+        } catch (IOException e) {
+            throw malformed(e.getMessage());
+        }
+        if (null == envelope.eventId || envelope.eventId.isEmpty() || null == envelope.eventType
+                || envelope.dataEnd <= envelope.dataStart || envelope.timestamp < 0) {
+            throw malformed("eventId, eventType, timestamp and data are required");
+        }
+        if (tooLong(envelope.eventId, LalamoveWebhookEvent.MAX_ID_LENGTH) || tooLong(envelope.eventType, LalamoveWebhookEvent.MAX_ID_LENGTH)
+                || tooLong(envelope.orderId, LalamoveWebhookEvent.MAX_ID_LENGTH)
+                || tooLong(envelope.orderStatus, LalamoveWebhookEvent.MAX_STATUS_LENGTH)) {
+            throw malformed("eventId, eventType and order.orderId are limited to " + LalamoveWebhookEvent.MAX_ID_LENGTH
+                    + " characters, order.status to " + LalamoveWebhookEvent.MAX_STATUS_LENGTH);
+        }
+        return envelope;
+    }
+
+    /**
+     * Walks the {@code data} object, picking up {@code order.orderId} and {@code order.status}.
+     */
+    private static void readData(JsonParser parser, Envelope envelope) throws IOException {
+        int depth = 1;
+        String section = null;
+        while (depth > 0) {
+            JsonToken token = parser.nextToken();
+            if (null == token) {
+                throw malformed("unexpected end of data");
+            }
+            switch (token) {
+                case FIELD_NAME -> {
+                    String name = parser.currentName();
+                    if (depth == 1) {
+                        section = name;
+                    } else if (depth == 2 && "order".equals(section) && ("orderId".equals(name) || "status".equals(name))) {
+                        parser.nextToken();
+                        if ("orderId".equals(name)) {
+                            envelope.orderId = parser.getValueAsString();
+                        } else {
+                            envelope.orderStatus = parser.getValueAsString();
+                        }
+                        parser.skipChildren();
+                    }
+                }
+                case START_OBJECT, START_ARRAY -> depth++;
+                case END_OBJECT, END_ARRAY -> depth--;
+                default -> {
+                }
+            }
+        }
+    }
+
+    private static boolean tooLong(String value, int maxLength) {
+        return null != value && value.length() > maxLength;
+    }
+
+    private static ResponseException malformed(String reason) {
+        return new ResponseException("Malformed webhook event: " + reason, HttpStatus.BAD_REQUEST);
+    }
+
+    private static final class Envelope {
+        private String apiKey;
+        private long timestamp = -1;
+        private String signature;
+        private String eventId;
+        private String eventType;
+        private String orderId;
+        private String orderStatus;
+        private int dataStart;
+        private int dataEnd;
+    }
+}
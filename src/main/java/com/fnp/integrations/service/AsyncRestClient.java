@@ -0,0 +1,45 @@
+package com.fnp.integrations.service;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link RestClient}
+ * Same overloads and semantics: with failFast the future completes exceptionally with the same
+ * ResponseException RestClient would throw, otherwise it completes with null on failure.
+ * No thread is held while a call is in flight; cancelling a future aborts its exchange.
+ */
+public interface AsyncRestClient {
+
+    // GET Methods
+    <T> CompletableFuture<T> get(String url, HttpHeaders httpHeaders, Class<T> returnType, boolean failFast, Object... uriVariables);
+
+    <T> CompletableFuture<T> get(String url, HttpHeaders httpHeaders, Class<T> returnType, boolean failFast, String token, Object... uriVariables);
+
+    <T> CompletableFuture<T> get(String url, HttpHeaders httpHeaders, ParameterizedTypeReference<T> returnType, boolean failFast, Object... uriVariables);
+
+    <T> CompletableFuture<T> get(String url, HttpHeaders httpHeaders, boolean failFast, Object... uriVariables);
+
+    // POST Methods
+    <T> CompletableFuture<T> post(String url, HttpHeaders httpHeaders, Object payload, Class<T> returnType, boolean failFast, Object... uriVariables);
+
+    <T> CompletableFuture<T> post(String url, HttpHeaders httpHeaders, Object payload, ParameterizedTypeReference<T> returnType, boolean failFast, Object... uriVariables);
+
+    <T> CompletableFuture<T> post(String url, HttpHeaders httpHeaders, Object payload, boolean failFast, Object... uriVariables);
+
+    // PUT Methods
+    <T> CompletableFuture<T> put(String url, HttpHeaders httpHeaders, Object payload, Class<T> returnType, boolean failFast, Object... uriVariables);
+
+    <T> CompletableFuture<T> put(String url, HttpHeaders httpHeaders, Object payload, ParameterizedTypeReference<T> returnType, boolean failFast, Object... uriVariables);
+
+    <T> CompletableFuture<T> put(String url, HttpHeaders httpHeaders, Object payload, boolean failFast, Object... uriVariables);
+
+    // DELETE Methods
+    <T> CompletableFuture<T> delete(String url, HttpHeaders httpHeaders, Class<T> returnType, boolean failFast, Object... uriVariables);
+
+    <T> CompletableFuture<T> delete(String url, HttpHeaders httpHeaders, ParameterizedTypeReference<T> returnType, boolean failFast, Object... uriVariables);
+
+    <T> CompletableFuture<T> delete(String url, HttpHeaders httpHeaders, boolean failFast, Object... uriVariables);
+}
@@ -9,7 +9,12 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
@@ -17,6 +22,7 @@ import java.util.Map;
 public class ExternalApiService {
 
     private final RestClient restClient;
+    private final AsyncRestClient asyncRestClient;
     private final DynamicConstants constants;
 
     /**
@@ -74,6 +80,27 @@ public class ExternalApiService {
         }
     }
 
+    /**
+     * Example: GET a large JSON array response, processing each record as it is parsed instead of
+     * holding the whole body, e.g. a bulk export. Records are read as maps here; bind them to a DTO
+     * class in real integrations. Use the arrayField overload for {"data": [...]} envelopes.
+     */
+    @SuppressWarnings("unchecked")
+    public long streamExternalData(String endpoint, Consumer<Map<String, Object>> recordConsumer) {
+        try {
+            String url = constants.getApiBaseUrl() + endpoint;
+            HttpHeaders headers = createHeaders();
+
+            log.info("Streaming from external API: {}", url);
+
+            return restClient.stream(url, headers, Map.class, record -> recordConsumer.accept(record), true);
+
+        } catch (Exception e) {
+            log.error("Error streaming from external API: {}", e.getMessage());
+            throw new ResponseException("Failed to stream external data: " + e.getMessage());
+        }
+    }
+
     /**
      * Example: PUT request to external API
      */
@@ -128,6 +155,39 @@ public class ExternalApiService {
         }
     }
 
+    /**
+     * Example: non-blocking GET request; the caller composes or joins the future
+     */
+    public CompletableFuture<Map<String, Object>> getExternalDataAsync(String endpoint) {
+        String url = constants.getApiBaseUrl() + endpoint;
+        log.info("Calling external API asynchronously: {}", url);
+        return asyncRestClient.get(url, createHeaders(), new ParameterizedTypeReference<Map<String, Object>>() {}, true);
+    }
+
+    /**
+     * Example: fan out GET requests to several endpoints at once and wait for all of them,
+     * so the total latency is that of the slowest call rather than the sum.
+     * Failed endpoints map to null (failFast=false).
+     */
+    public Map<String, Object> getExternalDataParallel(List<String> endpoints) {
+        Map<String, CompletableFuture<Map<String, Object>>> calls = new LinkedHashMap<>();
+        for (String endpoint : endpoints) {
+            String url = constants.getApiBaseUrl() + endpoint;
+            calls.put(endpoint, asyncRestClient.get(url, createHeaders(), new ParameterizedTypeReference<Map<String, Object>>() {}, false));
+        }
+
+        try {
+            CompletableFuture.allOf(calls.values().toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            log.error("Error calling external APIs in parallel: {}", e.getMessage());
+            throw new ResponseException("Failed to fetch external data: " + e.getMessage());
+        }
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        calls.forEach((endpoint, call) -> results.put(endpoint, call.join()));
+        return results;
+    }
+
     private HttpHeaders createHeaders() {
         HttpHeaders headers = new HttpHeaders();
         headers.set("User-Agent", "FNP-Integrations/1.0");
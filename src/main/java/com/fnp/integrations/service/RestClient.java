@@ -3,6 +3,8 @@ package com.fnp.integrations.service;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpHeaders;
 
+import java.util.function.Consumer;
+
 /**
  * REST Client Interface
  * Provides centralized HTTP client operations with consistent error handling and logging
@@ -38,4 +40,12 @@ public interface RestClient {
     <T> T delete(String url, HttpHeaders httpHeaders, ParameterizedTypeReference<T> returnType, boolean failFast, Object... uriVariables);
     
     <T> T delete(String url, HttpHeaders httpHeaders, boolean failFast, Object... uriVariables);
-} 
\ No newline at end of file
+
+    // Streaming Methods: GET a JSON array and hand each element to the consumer as it is parsed, never
+    // holding the whole response; bodies above http.client.max-response-size fail with 422.
+    // Returns the number of elements delivered, or -1 on failure when not failing fast.
+    <T> long stream(String url, HttpHeaders httpHeaders, Class<T> elementType, Consumer<? super T> consumer, boolean failFast, Object... uriVariables);
+
+    // As above for an array under a top-level field of an object response, e.g. "data" in {"data": [...], "next": ...}
+    <T> long stream(String url, HttpHeaders httpHeaders, String arrayField, Class<T> elementType, Consumer<? super T> consumer, boolean failFast, Object... uriVariables);
+}
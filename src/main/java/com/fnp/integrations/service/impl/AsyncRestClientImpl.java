@@ -0,0 +1,311 @@
+package com.fnp.integrations.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fnp.integrations.constants.DynamicConstants;
+import com.fnp.integrations.exception.ResponseException;
+import com.fnp.integrations.http.HttpCompression;
+import com.fnp.integrations.http.OutboundLogger;
+import com.fnp.integrations.http.OutboundMetrics;
+import com.fnp.integrations.service.AsyncRestClient;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * FNP Integrations asynchronous REST Client
+ * Built on the JDK {@link HttpClient}, whose selector-driven I/O needs no thread per in-flight call.
+ * Mirrors {@link RestClientImpl}: JSON content negotiation, ResponseException
+ * mapping shared through {@link RestClientErrors}, failFast=false completing with null, and the
+ * same {@link OutboundMetrics} and {@link HttpCompression}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AsyncRestClientImpl implements AsyncRestClient {
+
+    // Managed by the JDK client itself; setting them throws IllegalArgumentException
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host", "upgrade");
+
+    private final HttpClient asyncHttpClient;
+    private final ObjectMapper objectMapper;
+    private final DynamicConstants constants;
+    private final OutboundLogger outboundLogger;
+    private final OutboundMetrics outboundMetrics;
+    private final HttpCompression httpCompression;
+    private final DefaultUriBuilderFactory uriBuilderFactory = new DefaultUriBuilderFactory();
+
+    // GET Methods Implementation
+    @Override
+    public <T> CompletableFuture<T> get(String url, HttpHeaders httpHeaders, Class<T> returnType, boolean failFast, Object... uriVariables) {
+        return this.any(url, HttpMethod.GET, httpHeaders, null, returnType, null, failFast, uriVariables);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> get(String url, HttpHeaders httpHeaders, Class<T> returnType, boolean failFast, String token, Object... uriVariables) {
+        return this.any(url, HttpMethod.GET, httpHeaders, null, returnType, null, failFast, uriVariables);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> get(String url, HttpHeaders httpHeaders, ParameterizedTypeReference<T> returnType, boolean failFast, Object... uriVariables) {
+        return this.any(url, HttpMethod.GET, httpHeaders, null, null, returnType, failFast, uriVariables);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> get(String url, HttpHeaders httpHeaders, boolean failFast, Object... uriVariables) {
+        return this.any(url, HttpMethod.GET, httpHeaders, null, null, null, failFast, uriVariables);
+    }
+
+    // POST Methods Implementation
+    @Override
+    public <T> CompletableFuture<T> post(String url, HttpHeaders httpHeaders, Object payload, Class<T> returnType, boolean failFast, Object... uriVariables) {
+        return this.any(url, HttpMethod.POST, httpHeaders, payload, returnType, null, failFast, uriVariables);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> post(String url, HttpHeaders httpHeaders, Object payload, ParameterizedTypeReference<T> returnType, boolean failFast, Object... uriVariables) {
+        return this.any(url, HttpMethod.POST, httpHeaders, payload, null, returnType, failFast, uriVariables);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> post(String url, HttpHeaders httpHeaders, Object payload, boolean failFast, Object... uriVariables) {
+        return this.any(url, HttpMethod.POST, httpHeaders, payload, null, null, failFast, uriVariables);
+    }
+
+    // PUT Methods Implementation
+    @Override
+    public <T> CompletableFuture<T> put(String url, HttpHeaders httpHeaders, Object payload, Class<T> returnType, boolean failFast, Object... uriVariables) {
+        return this.any(url, HttpMethod.PUT, httpHeaders, payload, returnType, null, failFast, uriVariables);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> put(String url, HttpHeaders httpHeaders, Object payload, ParameterizedTypeReference<T> returnType, boolean failFast, Object... uriVariables) {
+        return this.any(url, HttpMethod.PUT, httpHeaders, payload, null, returnType, failFast, uriVariables);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> put(String url, HttpHeaders httpHeaders, Object payload, boolean failFast, Object... uriVariables) {
+        return this.any(url, HttpMethod.PUT, httpHeaders, payload, null, null, failFast, uriVariables);
+    }
+
+    // DELETE Methods Implementation
+    @Override
+    public <T> CompletableFuture<T> delete(String url, HttpHeaders httpHeaders, Class<T> returnType, boolean failFast, Object... uriVariables) {
+        return this.any(url, HttpMethod.DELETE, httpHeaders, null, returnType, null, failFast, uriVariables);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> delete(String url, HttpHeaders httpHeaders, ParameterizedTypeReference<T> returnType, boolean failFast, Object... uriVariables) {
+        return this.any(url, HttpMethod.DELETE, httpHeaders, null, null, returnType, failFast, uriVariables);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> delete(String url, HttpHeaders httpHeaders, boolean failFast, Object... uriVariables) {
+        return this.any(url, HttpMethod.DELETE, httpHeaders, null, null, null, failFast, uriVariables);
+    }
+
+    // Core HTTP method implementation
+    private <T> CompletableFuture<T> any(String url, HttpMethod httpMethod, HttpHeaders httpHeaders, Object payload,
+                                         Class<T> responseTypeClass, ParameterizedTypeReference<T> responseTypeRef,
+                                         boolean failFast, Object... uriVariables) {
+        boolean sampled = outboundLogger.sample();
+        outboundLogger.request(sampled, httpMethod, url, httpHeaders, payload);
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        HttpRequest request;
+        try {
+            request = buildRequest(url, httpMethod, httpHeaders, payload, uriVariables);
+        } catch (Exception e) {
+            completeWithInternalError(result, failFast, url, e);
+            return result;
+        }
+
+        AtomicReference<CompletableFuture<?>> inFlight = new AtomicReference<>();
+        result.whenComplete((value, error) -> {
+            CompletableFuture<?> exchange = inFlight.get();
+            if (result.isCancelled() && null != exchange) {
+                exchange.cancel(true);
+            }
+        });
+        send(result, inFlight, request, url, responseTypeClass, responseTypeRef, failFast, sampled);
+        return result;
+    }
+
+    private <T> void send(CompletableFuture<T> result, AtomicReference<CompletableFuture<?>> inFlight, HttpRequest request, String url,
+                          Class<T> responseTypeClass, ParameterizedTypeReference<T> responseTypeRef, boolean failFast,
+                          boolean sampled) {
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<byte[]>> exchange = asyncHttpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        inFlight.set(exchange);
+        if (result.isCancelled()) {
+            exchange.cancel(true);
+            return;
+        }
+
+        exchange.whenComplete((response, error) -> {
+            if (result.isCancelled()) {
+                return; // the caller gave up on this call (e.g. a losing hedge): not an upstream failure
+            }
+            long elapsed = System.nanoTime() - start;
+            HttpMethod method = HttpMethod.valueOf(request.method());
+            String host = RestClientErrors.getHost(url);
+            outboundMetrics.record(host, method, url, null != error ? -1 : response.statusCode(), elapsed);
+            if (null != error) {
+                completeWithInternalError(result, failFast, url, error instanceof CompletionException && null != error.getCause() ? error.getCause() : error);
+                return;
+            }
+
+            byte[] responseBody;
+            try {
+                responseBody = decodeBody(host, response);
+            } catch (IOException e) {
+                completeWithInternalError(result, failFast, url, e);
+                return;
+            }
+
+            int status = response.statusCode();
+            if (status >= 400 && status < 500) {
+                String body = new String(responseBody, StandardCharsets.UTF_8);
+                log.error("HTTP client error. Status: {}, Message: {}", status, body);
+                ResponseException clientError = RestClientErrors.clientError(status, body, host);
+                outboundMetrics.error(clientError.getErrorCode(), OutboundMetrics.SOURCE_UPSTREAM);
+                if (failFast) {
+                    result.completeExceptionally(clientError);
+                } else {
+                    result.complete(null);
+                }
+                return;
+            }
+            if (status >= 500) {
+                completeWithInternalError(result, failFast, url, new IOException("Upstream responded " + status));
+                return;
+            }
+
+            try {
+                T body = decode(responseBody, responseTypeClass, responseTypeRef);
+                outboundLogger.response(sampled, method, url, elapsed, responseBody);
+                result.complete(body);
+            } catch (Exception e) {
+                completeWithInternalError(result, failFast, url, e);
+            }
+        });
+    }
+
+    private HttpRequest buildRequest(String url, HttpMethod httpMethod, HttpHeaders httpHeaders, Object payload,
+                                     Object... uriVariables) throws IOException {
+        URI uri = uriBuilderFactory.expand(url, uriVariables);
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMillis(constants.getHttpClientReadTimeout()));
+
+        HttpHeaders customHttpHeaders = new HttpHeaders();
+        if (!CollectionUtils.isEmpty(httpHeaders)) {
+            customHttpHeaders.putAll(httpHeaders);
+        }
+        if (null == customHttpHeaders.getContentType()) {
+            customHttpHeaders.setContentType(MediaType.APPLICATION_JSON);
+        }
+        customHttpHeaders.setAccept(List.of(MediaType.APPLICATION_JSON));
+
+        byte[] body = bodyOf(payload);
+        byte[] wire = null;
+        if (httpCompression.isEnabled()) {
+            if (!customHttpHeaders.containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+                customHttpHeaders.set(HttpHeaders.ACCEPT_ENCODING, HttpCompression.ACCEPT_ENCODING);
+            }
+            if (null != body && !customHttpHeaders.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+                wire = httpCompression.encodeRequest(uri.getHost(), body);
+            }
+            if (null != wire) {
+                customHttpHeaders.set(HttpHeaders.CONTENT_ENCODING, HttpCompression.GZIP);
+            } else if (null != body) {
+                httpCompression.recordRequest(uri.getHost(), body.length, body.length);
+            }
+        }
+        customHttpHeaders.forEach((name, values) -> {
+            if (!RESTRICTED_HEADERS.contains(name.toLowerCase())) {
+                values.forEach(value -> builder.header(name, value));
+            }
+        });
+
+        HttpRequest.BodyPublisher publisher = null == body ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofByteArray(null != wire ? wire : body);
+        return builder.method(httpMethod.name(), publisher).build();
+    }
+
+    private byte[] bodyOf(Object payload) throws IOException {
+        if (null == payload) {
+            return null;
+        }
+        if (payload instanceof byte[] bytes) {
+            return bytes; // pre-serialized JSON payload
+        }
+        if (payload instanceof String text) {
+            return text.getBytes(StandardCharsets.UTF_8);
+        }
+        return objectMapper.writeValueAsBytes(payload);
+    }
+
+    /**
+     * The response body as sent by the upstream, decoded if it came gzip or deflate compressed.
+     */
+    private byte[] decodeBody(String host, HttpResponse<byte[]> response) throws IOException {
+        if (!httpCompression.isEnabled()) {
+            return response.body();
+        }
+        String contentEncoding = response.headers().firstValue(HttpHeaders.CONTENT_ENCODING).orElse(null);
+        try (InputStream body = httpCompression.decodeResponse(host, contentEncoding, new ByteArrayInputStream(response.body()))) {
+            return body.readAllBytes();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T decode(byte[] body, Class<T> responseTypeClass, ParameterizedTypeReference<T> responseTypeRef) throws IOException {
+        if (body.length == 0) {
+            return null;
+        }
+        if (null != responseTypeRef) {
+            return objectMapper.readValue(body, objectMapper.getTypeFactory().constructType(responseTypeRef.getType()));
+        }
+        if (null == responseTypeClass || Void.class.equals(responseTypeClass)) {
+            return null;
+        }
+        if (String.class.equals(responseTypeClass)) {
+            return (T) new String(body, StandardCharsets.UTF_8);
+        }
+        if (byte[].class.equals(responseTypeClass)) {
+            return (T) body;
+        }
+        return objectMapper.readValue(body, responseTypeClass);
+    }
+
+    private <T> void completeWithInternalError(CompletableFuture<T> result, boolean failFast, String url, Throwable ex) {
+        log.error("Exception occurred while executing HTTP request. Error: {}", ex.getMessage(), ex);
+        ResponseException internalError = RestClientErrors.internalError(RestClientErrors.getHost(url), ex);
+        outboundMetrics.error(internalError.getErrorCode(), OutboundMetrics.SOURCE_UPSTREAM);
+        if (failFast) {
+            result.completeExceptionally(internalError);
+        } else {
+            result.complete(null);
+        }
+    }
+}
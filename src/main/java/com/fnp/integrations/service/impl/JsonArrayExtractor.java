@@ -0,0 +1,149 @@
+package com.fnp.integrations.service.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResponseExtractor;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Decodes a JSON array response one element at a time with Jackson's streaming parser, handing each
+ * element to the consumer before reading the next, so memory stays flat whatever the payload size.
+ * The array is either the whole body or the value of one top-level field of an object; the other
+ * fields are skipped without being bound. The body is capped at {@code maxBytes}: a larger
+ * Content-Length is refused before reading and chunked bodies are counted as they are read.
+ * <p>
+ * Failures that must not be retried (a malformed, mis-shaped or oversized body, or an I/O failure
+ * after elements were already delivered) are raised as {@code ResponseException}s. An I/O failure
+ * before the first element stays an {@link IOException}, which {@code RestTemplate} reports as a
+ * retryable {@code ResourceAccessException}.
+ */
+@Slf4j
+final class JsonArrayExtractor<T> implements ResponseExtractor<ResponseEntity<Long>> {
+
+    private final ObjectReader reader;
+    private final String arrayField;
+    private final Consumer<? super T> consumer;
+    private final long maxBytes;
+    private final String host;
+
+    JsonArrayExtractor(ObjectReader reader, String arrayField, Consumer<? super T> consumer, long maxBytes, String host) {
+        this.reader = reader;
+        this.arrayField = arrayField;
+        this.consumer = consumer;
+        this.maxBytes = maxBytes;
+        this.host = host;
+    }
+
+    @Override
+    public ResponseEntity<Long> extractData(ClientHttpResponse response) throws IOException {
+        if (response.getHeaders().getContentLength() > maxBytes) {
+            throw RestClientErrors.invalidResponse("response exceeds " + maxBytes + " bytes", host);
+        }
+        long delivered = 0;
+        try (JsonParser parser = reader.createParser(new LimitedInputStream(response.getBody(), maxBytes))) {
+            if (!moveToArray(parser)) {
+                throw RestClientErrors.invalidResponse(null != arrayField
+                        ? "no array field '" + arrayField + "'" : "not a JSON array", host);
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                T element = reader.readValue(parser);
+                consumer.accept(element);
+                delivered++;
+            }
+        } catch (LimitExceededException e) {
+            throw RestClientErrors.invalidResponse("response exceeds " + maxBytes + " bytes", host);
+        } catch (JsonProcessingException e) {
+            log.error("Malformed streamed response from {} after {} elements: {}", host, delivered, e.getOriginalMessage());
+            throw RestClientErrors.invalidResponse("malformed JSON after " + delivered + " elements", host);
+        } catch (IOException e) {
+            if (delivered > 0) {
+                log.error("Streamed response from {} broke off after {} elements: {}", host, delivered, e.getMessage());
+                throw RestClientErrors.internalError(host, e);
+            }
+            throw e;
+        }
+        return ResponseEntity.status(response.getStatusCode()).body(delivered);
+    }
+
+    /**
+     * Advances to the START_ARRAY of the body or of {@code arrayField}.
+     *
+     * @return false if there is no such array
+     */
+    private boolean moveToArray(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (null == arrayField) {
+            return token == JsonToken.START_ARRAY;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            token = parser.nextToken();
+            if (arrayField.equals(name)) {
+                return token == JsonToken.START_ARRAY;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    /**
+     * Fails the read once more than {@code limit} bytes have come through.
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private final long limit;
+        private long count;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count(skipped);
+            return skipped;
+        }
+
+        private void count(long n) throws LimitExceededException {
+            count += n;
+            if (count > limit) {
+                throw new LimitExceededException();
+            }
+        }
+    }
+
+    private static final class LimitExceededException extends IOException {
+    }
+}
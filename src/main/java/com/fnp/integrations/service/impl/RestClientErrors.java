@@ -0,0 +1,103 @@
+package com.fnp.integrations.service.impl;
+
+import com.fnp.integrations.enums.ResponseStatus;
+import com.fnp.integrations.exception.RequestNotSentException;
+import com.fnp.integrations.exception.ResponseException;
+import org.apache.hc.client5.http.ConnectTimeoutException;
+import org.apache.hc.core5.http.ConnectionRequestTimeoutException;
+
+import java.net.ConnectException;
+import java.net.URL;
+import java.net.UnknownHostException;
+import java.net.http.HttpConnectTimeoutException;
+
+/**
+ * Maps upstream failures to {@link ResponseException}s. Shared by {@link RestClientImpl} and
+ * {@link AsyncRestClientImpl} so blocking and non-blocking callers see identical errors.
+ */
+final class RestClientErrors {
+
+    private RestClientErrors() {
+    }
+
+    @SuppressWarnings("deprecation") // URL, unlike URI, accepts unexpanded {uriVariable} templates
+    static String getHost(String url) {
+        try {
+            return new URL(url).getHost();
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Upstream 4xx: the response body (or the status' default message) plus the host.
+     */
+    static ResponseException clientError(int statusCode, String responseBody, String host) {
+        ResponseStatus status = switch (statusCode) {
+            case 400 -> ResponseStatus.BAD_REQUEST;
+            case 401 -> ResponseStatus.MICROSERVICE_AUTHORIZATION_ERROR;
+            case 404 -> ResponseStatus.MICROSERVICE_RESOURCE_NOT_FOUND;
+            case 429 -> ResponseStatus.RATE_LIMIT_EXCEEDED;
+            default -> ResponseStatus.MICROSERVICE_EXCHANGE_ERROR;
+        };
+        return new ResponseException(
+                status.getErrorCode(),
+                (null != responseBody ? responseBody : status.getErrorMessage()) + (null != host ? " HOST: " + host : "")
+        );
+    }
+
+    /**
+     * Upstream 5xx, I/O failures, timeouts and anything else unexpected. A failure to connect is
+     * raised as a {@link RequestNotSentException}: the request never left, unlike after a read timeout.
+     */
+    static ResponseException internalError(String host, Throwable failure) {
+        String message = ResponseStatus.MICROSERVICE_INTERNAL_ERROR.getErrorMessage() + (null != host ? " HOST: " + host : "");
+        return isConnectFailure(failure)
+                ? new RequestNotSentException(ResponseStatus.MICROSERVICE_INTERNAL_ERROR.getErrorCode(), message)
+                : new ResponseException(ResponseStatus.MICROSERVICE_INTERNAL_ERROR.getErrorCode(), message);
+    }
+
+    /**
+     * The local rate limiter had no permit for the host within the caller's timeout.
+     */
+    static ResponseException rateLimited(String host) {
+        return new RequestNotSentException(
+                ResponseStatus.RATE_LIMIT_EXCEEDED.getErrorCode(),
+                ResponseStatus.RATE_LIMIT_EXCEEDED.getErrorMessage() + (null != host ? " HOST: " + host : "")
+        );
+    }
+
+    /**
+     * The host's circuit breaker is open; the call was refused without reaching the network.
+     */
+    static ResponseException circuitOpen(String host) {
+        return new RequestNotSentException(
+                ResponseStatus.MICROSERVICE_EXCHANGE_ERROR.getErrorCode(),
+                ResponseStatus.MICROSERVICE_EXCHANGE_ERROR.getErrorMessage() + ": circuit open" + (null != host ? " HOST: " + host : "")
+        );
+    }
+
+    /**
+     * No connection to the host: refused, unresolvable, timed out while connecting, or no pooled
+     * connection within the connection request timeout.
+     */
+    static boolean isConnectFailure(Throwable failure) {
+        for (Throwable cause = failure; null != cause; cause = cause.getCause() != cause ? cause.getCause() : null) {
+            if (cause instanceof ConnectException || cause instanceof UnknownHostException || cause instanceof HttpConnectTimeoutException
+                    || cause instanceof ConnectTimeoutException || cause instanceof ConnectionRequestTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The upstream answered, but the body could not be used: malformed, not the expected shape or too large.
+     */
+    static ResponseException invalidResponse(String reason, String host) {
+        return new ResponseException(
+                ResponseStatus.INVALID_RESPONSE_FORMAT.getErrorCode(),
+                ResponseStatus.INVALID_RESPONSE_FORMAT.getErrorMessage() + ": " + reason + (null != host ? " HOST: " + host : "")
+        );
+    }
+}
@@ -1,136 +1,161 @@
 package com.fnp.integrations.service.impl;
 
-import com.fnp.integrations.enums.ResponseStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fnp.integrations.constants.DynamicConstants;
 import com.fnp.integrations.exception.ResponseException;
+import com.fnp.integrations.http.AdaptiveRateLimiter;
+import com.fnp.integrations.http.CircuitBreaker;
+import com.fnp.integrations.http.CircuitBreakerRegistry;
+import com.fnp.integrations.http.OutboundLogger;
+import com.fnp.integrations.http.OutboundMetrics;
+import com.fnp.integrations.http.RateLimiterRegistry;
+import com.fnp.integrations.http.RetryBudget;
+import com.fnp.integrations.http.RetryPolicy;
 import com.fnp.integrations.service.RestClient;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
-import org.springframework.util.StopWatch;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
-import java.net.URL;
 import java.util.Collections;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * FNP Integrations REST Client
  * The client is built on RestTemplate and provides:
- * - Authorization handling with retry for 401 errors
- * - Comprehensive logging and profiling
+ * - Retries with jittered backoff for transient failures of idempotent requests, within a per-host budget
+ * - Sampled, redacted and truncated request/response logging at DEBUG, see {@link OutboundLogger}
  * - Internal and client-level error handling with fast fail option
+ * - Per-host adaptive rate limiting that backs off on 429 / Retry-After
+ * - Per-host circuit breaking on failure and slow-call rates
+ * - Micrometer timers per attempt and error counters, see {@link OutboundMetrics}
+ * - Streaming of large JSON array responses element by element, see {@link JsonArrayExtractor}
  * - Consistent error responses using ResponseException
  */
 @Component
 @Slf4j
+@RequiredArgsConstructor
 public class RestClientImpl implements RestClient {
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    private final boolean isLogsDisabled = false; // Enable logs for debugging
-    
-    @Autowired
-    private RestTemplate restTemplate;
-
-    private String getValueAsString(Object o) {
-        try {
-            return objectMapper.writeValueAsString(o);
-        } catch (Exception ex) {
-            return null;
-        }
-    }
-
-    private String getHost(String url) {
-        try {
-            URL aURL = new URL(url);
-            return aURL.getHost();
-        } catch (Exception ex) {
-            return null;
-        }
-    }
+    private final RestTemplate restTemplate;
+    private final RateLimiterRegistry rateLimiterRegistry;
+    private final RetryPolicy retryPolicy;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final OutboundLogger outboundLogger;
+    private final OutboundMetrics outboundMetrics;
+    private final ObjectMapper objectMapper;
+    private final DynamicConstants constants;
 
     // GET Methods Implementation
     @Override
     public <T> T get(String url, HttpHeaders httpHeaders, Class<T> returnType, boolean failFast, Object... uriVariables) {
-        return this.any(url, HttpMethod.GET, httpHeaders, null, returnType, null, failFast, true, isLogsDisabled, null, uriVariables);
+        return this.any(url, HttpMethod.GET, httpHeaders, null, returnType, null, failFast, null, uriVariables);
     }
 
     @Override
     public <T> T get(String url, HttpHeaders httpHeaders, Class<T> returnType, boolean failFast, String token, Object... uriVariables) {
-        return this.any(url, HttpMethod.GET, httpHeaders, null, returnType, null, failFast, false, isLogsDisabled, token, uriVariables);
+        return this.any(url, HttpMethod.GET, httpHeaders, null, returnType, null, failFast, token, uriVariables);
     }
 
     @Override
     public <T> T get(String url, HttpHeaders httpHeaders, ParameterizedTypeReference<T> returnType, boolean failFast, Object... uriVariables) {
-        return this.any(url, HttpMethod.GET, httpHeaders, null, null, returnType, failFast, true, isLogsDisabled, null, uriVariables);
+        return this.any(url, HttpMethod.GET, httpHeaders, null, null, returnType, failFast, null, uriVariables);
     }
 
     @Override
     public <T> T get(String url, HttpHeaders httpHeaders, boolean failFast, Object... uriVariables) {
-        return this.any(url, HttpMethod.GET, httpHeaders, null, null, null, failFast, true, isLogsDisabled, null, uriVariables);
+        return this.any(url, HttpMethod.GET, httpHeaders, null, null, null, failFast, null, uriVariables);
     }
 
     // POST Methods Implementation
     @Override
     public <T> T post(String url, HttpHeaders httpHeaders, Object payload, Class<T> returnType, boolean failFast, Object... uriVariables) {
-        return this.any(url, HttpMethod.POST, httpHeaders, payload, returnType, null, failFast, true, isLogsDisabled, null, uriVariables);
+        return this.any(url, HttpMethod.POST, httpHeaders, payload, returnType, null, failFast, null, uriVariables);
     }
 
     @Override
     public <T> T post(String url, HttpHeaders httpHeaders, Object payload, ParameterizedTypeReference<T> returnType, boolean failFast, Object... uriVariables) {
-        return this.any(url, HttpMethod.POST, httpHeaders, payload, null, returnType, failFast, true, isLogsDisabled, null, uriVariables);
+        return this.any(url, HttpMethod.POST, httpHeaders, payload, null, returnType, failFast, null, uriVariables);
     }
 
     @Override
     public <T> T post(String url, HttpHeaders httpHeaders, Object payload, boolean failFast, Object... uriVariables) {
-        return this.any(url, HttpMethod.POST, httpHeaders, payload, null, null, failFast, true, isLogsDisabled, null, uriVariables);
+        return this.any(url, HttpMethod.POST, httpHeaders, payload, null, null, failFast, null, uriVariables);
     }
 
     // PUT Methods Implementation
     @Override
     public <T> T put(String url, HttpHeaders httpHeaders, Object payload, Class<T> returnType, boolean failFast, Object... uriVariables) {
-        return this.any(url, HttpMethod.PUT, httpHeaders, payload, returnType, null, failFast, true, isLogsDisabled, null, uriVariables);
+        return this.any(url, HttpMethod.PUT, httpHeaders, payload, returnType, null, failFast, null, uriVariables);
     }
 
     @Override
     public <T> T put(String url, HttpHeaders httpHeaders, Object payload, ParameterizedTypeReference<T> returnType, boolean failFast, Object... uriVariables) {
-        return this.any(url, HttpMethod.PUT, httpHeaders, payload, null, returnType, failFast, true, isLogsDisabled, null, uriVariables);
+        return this.any(url, HttpMethod.PUT, httpHeaders, payload, null, returnType, failFast, null, uriVariables);
     }
 
     @Override
     public <T> T put(String url, HttpHeaders httpHeaders, Object payload, boolean failFast, Object... uriVariables) {
-        return this.any(url, HttpMethod.PUT, httpHeaders, payload, null, null, failFast, true, isLogsDisabled, null, uriVariables);
+        return this.any(url, HttpMethod.PUT, httpHeaders, payload, null, null, failFast, null, uriVariables);
     }
 
     // DELETE Methods Implementation
     @Override
     public <T> T delete(String url, HttpHeaders httpHeaders, Class<T> returnType, boolean failFast, Object... uriVariables) {
-        return this.any(url, HttpMethod.DELETE, httpHeaders, null, returnType, null, failFast, true, isLogsDisabled, null, uriVariables);
+        return this.any(url, HttpMethod.DELETE, httpHeaders, null, returnType, null, failFast, null, uriVariables);
     }
 
     @Override
     public <T> T delete(String url, HttpHeaders httpHeaders, ParameterizedTypeReference<T> returnType, boolean failFast, Object... uriVariables) {
-        return this.any(url, HttpMethod.DELETE, httpHeaders, null, null, returnType, failFast, true, isLogsDisabled, null, uriVariables);
+        return this.any(url, HttpMethod.DELETE, httpHeaders, null, null, returnType, failFast, null, uriVariables);
     }
 
     @Override
     public <T> T delete(String url, HttpHeaders httpHeaders, boolean failFast, Object... uriVariables) {
-        return this.any(url, HttpMethod.DELETE, httpHeaders, null, null, null, failFast, true, isLogsDisabled, null, uriVariables);
+        return this.any(url, HttpMethod.DELETE, httpHeaders, null, null, null, failFast, null, uriVariables);
+    }
+
+    // Streaming Methods Implementation
+    @Override
+    public <T> long stream(String url, HttpHeaders httpHeaders, Class<T> elementType, Consumer<? super T> consumer,
+                           boolean failFast, Object... uriVariables) {
+        return this.stream(url, httpHeaders, null, elementType, consumer, failFast, uriVariables);
+    }
+
+    @Override
+    public <T> long stream(String url, HttpHeaders httpHeaders, String arrayField, Class<T> elementType,
+                           Consumer<? super T> consumer, boolean failFast, Object... uriVariables) {
+        JsonArrayExtractor<T> extractor = new JsonArrayExtractor<>(objectMapper.readerFor(elementType), arrayField, consumer,
+                constants.getHttpClientMaxResponseSize(), RestClientErrors.getHost(url));
+        Long delivered = this.execute(url, HttpMethod.GET, httpHeaders, null,
+                entity -> restTemplate.execute(url, HttpMethod.GET, restTemplate.httpEntityCallback(entity), extractor, uriVariables),
+                failFast);
+        return null != delivered ? delivered : -1;
     }
 
     // Core HTTP method implementation
     private <T> T any(String url, HttpMethod httpMethod, HttpHeaders httpHeaders, Object payload,
                      Class<T> responseTypeClass, ParameterizedTypeReference<T> responseTypeRef,
-                     boolean failFast, boolean retry, boolean disableResponseLogs,
-                     String token, Object... uriVariables) {
+                     boolean failFast, String token, Object... uriVariables) {
+        return this.execute(url, httpMethod, httpHeaders, payload, entity -> null != responseTypeRef ?
+                        restTemplate.exchange(url, httpMethod, entity, responseTypeRef, uriVariables) :
+                        restTemplate.exchange(url, httpMethod, entity, responseTypeClass, uriVariables),
+                failFast);
+    }
 
-        log.debug("Method: {}, URL: {}, HTTP Method: {}, URI Variables: {}, Payload: {}",
-                Thread.currentThread().getStackTrace()[retry ? 4 : 3].getMethodName(), url, httpMethod, uriVariables,
-                getValueAsString(payload));
-        log.debug("Headers: {}, Fail Fast: {}", httpHeaders, failFast);
+    /**
+     * Runs one logical call through the rate limiter, circuit breaker, retries and metrics;
+     * {@code exchange} performs a single attempt.
+     */
+    private <T> T execute(String url, HttpMethod httpMethod, HttpHeaders httpHeaders, Object payload,
+                          Function<HttpEntity<?>, ResponseEntity<T>> exchange, boolean failFast) {
 
         HttpHeaders customHttpHeaders = new HttpHeaders();
         if (!CollectionUtils.isEmpty(httpHeaders)) {
@@ -142,102 +167,143 @@ public class RestClientImpl implements RestClient {
         }
         customHttpHeaders.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
 
-        try {
-            StopWatch stopWatch = new StopWatch();
-            stopWatch.start();
-            
-            ResponseEntity<T> response = null != responseTypeRef ? 
-                    restTemplate.exchange(url, httpMethod, new HttpEntity<>(payload, customHttpHeaders), responseTypeRef, uriVariables) :
-                    restTemplate.exchange(url, httpMethod, new HttpEntity<>(payload, customHttpHeaders), responseTypeClass, uriVariables);
-            
-            stopWatch.stop();
-            log.debug("Time elapsed: {}ms", stopWatch.getTotalTimeMillis());
-
-            if (disableResponseLogs) {
-                log.debug("Response received: {}", null != response ? getValueAsString(response.getBody()) : null);
-            } else {
-                log.info("Response received: {}", null != response ? getValueAsString(response.getBody()) : null);
+        long rateLimitTimeout = rateLimiterRegistry.takeTimeout(customHttpHeaders);
+        boolean sampled = outboundLogger.sample();
+        outboundLogger.request(sampled, httpMethod, url, customHttpHeaders, payload);
+        String host = RestClientErrors.getHost(url);
+        AdaptiveRateLimiter rateLimiter = rateLimiterRegistry.isEnabled() && null != host ? rateLimiterRegistry.forHost(host) : null;
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.isEnabled() && null != host ? circuitBreakerRegistry.forHost(host) : null;
+        RetryBudget retryBudget = retryPolicy.isEnabled() && null != host && RetryPolicy.isIdempotent(httpMethod, customHttpHeaders)
+                ? retryPolicy.budgetFor(host) : null;
+        if (null != retryBudget) {
+            retryBudget.onRequest();
+        }
+
+        long backoff = 0;
+        for (int attempt = 0; ; attempt++) {
+            long permit = null != circuitBreaker ? circuitBreaker.tryAcquire() : 0;
+            if (permit == CircuitBreaker.NOT_PERMITTED) {
+                return handleCircuitOpen(failFast, host);
+            }
+            try {
+                if (null != rateLimiter && !rateLimiter.tryAcquire(rateLimitTimeout)) {
+                    if (null != circuitBreaker) {
+                        circuitBreaker.onIgnored(permit);
+                    }
+                    return handleRateLimited(failFast, host);
+                }
+            } catch (InterruptedException e) {
+                if (null != circuitBreaker) {
+                    circuitBreaker.onIgnored(permit);
+                }
+                Thread.currentThread().interrupt();
+                return handleInternalError(failFast, url, e);
+            }
+
+            long started = System.nanoTime();
+            try {
+                ResponseEntity<T> response = exchange.apply(new HttpEntity<>(payload, customHttpHeaders));
+
+                long elapsed = System.nanoTime() - started;
+                if (null != rateLimiter) {
+                    rateLimiter.onSuccess();
+                }
+                if (null != circuitBreaker) {
+                    circuitBreaker.onResult(permit, elapsed, false);
+                }
+                outboundMetrics.record(host, httpMethod, url, null != response ? response.getStatusCode().value() : 200, elapsed);
+                outboundLogger.response(sampled, httpMethod, url, elapsed, null != response ? response.getBody() : null);
+
+                return null != response ? response.getBody() : null;
+
+            } catch (HttpClientErrorException ex) {
+                long elapsed = System.nanoTime() - started;
+                outboundMetrics.record(host, httpMethod, url, ex, elapsed);
+                if (null != circuitBreaker) {
+                    circuitBreaker.onResult(permit, elapsed, false);
+                }
+                long retryAfter = RateLimiterRegistry.retryAfterMillis(ex.getResponseHeaders());
+                if (null != rateLimiter && ex.getStatusCode().equals(HttpStatus.TOO_MANY_REQUESTS)) {
+                    rateLimiter.onThrottled(retryAfter);
+                }
+                backoff = nextBackoff(retryBudget, attempt, ex, backoff, retryAfter);
+                if (backoff < 0) {
+                    return handleClientError(failFast, url, ex);
+                }
+            } catch (ResponseException ex) {
+                // raised while reading a streamed body or by its consumer: final, never retried
+                long elapsed = System.nanoTime() - started;
+                outboundMetrics.record(host, httpMethod, url, ex, elapsed);
+                if (null != circuitBreaker) {
+                    circuitBreaker.onResult(permit, elapsed, ex.getErrorCode() >= 500);
+                }
+                return fail(failFast, ex);
+            } catch (Throwable e) {
+                long elapsed = System.nanoTime() - started;
+                outboundMetrics.record(host, httpMethod, url, e, elapsed);
+                if (null != circuitBreaker) {
+                    circuitBreaker.onResult(permit, elapsed, CircuitBreakerRegistry.isFailure(e));
+                }
+                long retryAfter = e instanceof HttpStatusCodeException ex ? RateLimiterRegistry.retryAfterMillis(ex.getResponseHeaders()) : -1;
+                if (null != rateLimiter && e instanceof HttpServerErrorException.ServiceUnavailable && retryAfter >= 0) {
+                    rateLimiter.onThrottled(retryAfter);
+                }
+                backoff = nextBackoff(retryBudget, attempt, e, backoff, retryAfter);
+                if (backoff < 0) {
+                    return handleInternalError(failFast, url, e);
+                }
             }
 
-            return null != response ? response.getBody() : null;
-            
-        } catch (HttpClientErrorException ex) {
-            if (retry && (null != ex.getMessage() && ex.getMessage().toLowerCase().contains(HttpStatus.UNAUTHORIZED.getReasonPhrase().toLowerCase())
-                    || ex.getStatusCode().equals(HttpStatus.UNAUTHORIZED))) {
-                return this.any(url, httpMethod, httpHeaders, payload, responseTypeClass,
-                        responseTypeRef, failFast, false, disableResponseLogs, token, uriVariables);
-            } else {
-                return handleClientError(failFast, url, ex);
+            log.warn("Retrying {} {} in {}ms (retry {} of {})", httpMethod, url, backoff, attempt + 1, retryPolicy.getMaxRetries());
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return handleInternalError(failFast, url, e);
             }
-        } catch (Throwable e) {
-            return handleInternalError(failFast, url, e);
         }
     }
 
+    /**
+     * @return the delay before retrying the failed attempt, or -1 if it must not be retried
+     */
+    private long nextBackoff(RetryBudget retryBudget, int attempt, Throwable failure, long previousBackoff, long retryAfter) {
+        if (null == retryBudget || attempt >= retryPolicy.getMaxRetries() || !RetryPolicy.isRetryable(failure)) {
+            return -1;
+        }
+        long backoff = retryPolicy.backoffMillis(previousBackoff, retryAfter);
+        return backoff >= 0 && retryBudget.tryRetry() ? backoff : -1;
+    }
+
+    private <T> T handleCircuitOpen(boolean failFast, String host) {
+        log.warn("Circuit open for host {}, call refused", host);
+
+        return fail(failFast, RestClientErrors.circuitOpen(host));
+    }
+
+    private <T> T handleRateLimited(boolean failFast, String host) {
+        log.warn("Outbound rate limit reached for host {}", host);
+
+        return fail(failFast, RestClientErrors.rateLimited(host));
+    }
+
     private <T> T handleInternalError(boolean failFast, String url, Throwable ex) {
         log.error("Exception occurred while executing HTTP request. Error: {}", ex.getMessage(), ex);
-        String host = getHost(url);
-        
-        if (failFast) {
-            throw new ResponseException(
-                    ResponseStatus.MICROSERVICE_INTERNAL_ERROR.getErrorCode(),
-                    ResponseStatus.MICROSERVICE_INTERNAL_ERROR.getErrorMessage() + (null != host ? " HOST: " + host : "")
-            );
-        }
-        return null;
+
+        return fail(failFast, RestClientErrors.internalError(RestClientErrors.getHost(url), ex));
     }
 
     private <T> T handleClientError(boolean failFast, String url, HttpClientErrorException ex) {
         log.error("HTTP client error. Status: {}, Message: {}", ex.getStatusCode(), ex.getMessage());
-        String host = getHost(url);
 
-        if (!failFast) {
-            return null;
-        }
+        return fail(failFast, RestClientErrors.clientError(ex.getStatusCode().value(), ex.getResponseBodyAsString(), RestClientErrors.getHost(url)));
+    }
 
-        if (ex.getStatusCode() != null) {
-            switch (ex.getStatusCode().value()) {
-                case 400:
-                    throw new ResponseException(
-                            ResponseStatus.BAD_REQUEST.getErrorCode(),
-                            (null != ex.getResponseBodyAsString() ? ex.getResponseBodyAsString()
-                                    : ResponseStatus.BAD_REQUEST.getErrorMessage())
-                                    + (null != host ? " HOST: " + host : "")
-                    );
-                case 401:
-                    throw new ResponseException(
-                            ResponseStatus.MICROSERVICE_AUTHORIZATION_ERROR.getErrorCode(),
-                            (null != ex.getResponseBodyAsString() ? ex.getResponseBodyAsString()
-                                    : ResponseStatus.MICROSERVICE_AUTHORIZATION_ERROR.getErrorMessage())
-                                    + (null != host ? " HOST: " + host : "")
-                    );
-                case 404:
-                    throw new ResponseException(
-                            ResponseStatus.MICROSERVICE_RESOURCE_NOT_FOUND.getErrorCode(),
-                            (null != ex.getResponseBodyAsString() ? ex.getResponseBodyAsString()
-                                    : ResponseStatus.MICROSERVICE_RESOURCE_NOT_FOUND.getErrorMessage())
-                                    + (null != host ? " HOST: " + host : "")
-                    );
-                case 429:
-                    throw new ResponseException(
-                            ResponseStatus.RATE_LIMIT_EXCEEDED.getErrorCode(),
-                            (null != ex.getResponseBodyAsString() ? ex.getResponseBodyAsString()
-                                    : ResponseStatus.RATE_LIMIT_EXCEEDED.getErrorMessage())
-                                    + (null != host ? " HOST: " + host : "")
-                    );
-                default:
-                    throw new ResponseException(
-                            ResponseStatus.MICROSERVICE_EXCHANGE_ERROR.getErrorCode(),
-                            (null != ex.getResponseBodyAsString() ? ex.getResponseBodyAsString()
-                                    : ResponseStatus.MICROSERVICE_EXCHANGE_ERROR.getErrorMessage())
-                                    + (null != host ? " HOST: " + host : "")
-                    );
-            }
-        } else {
-            throw new ResponseException(
-                    ResponseStatus.MICROSERVICE_EXCHANGE_ERROR.getErrorCode(),
-                    ResponseStatus.MICROSERVICE_EXCHANGE_ERROR.getErrorMessage() + (null != host ? " HOST: " + host : "")
-            );
+    private <T> T fail(boolean failFast, ResponseException error) {
+        outboundMetrics.error(error.getErrorCode(), OutboundMetrics.SOURCE_UPSTREAM);
+        if (failFast) {
+            throw error;
         }
+        return null;
     }
-} 
\ No newline at end of file
+}
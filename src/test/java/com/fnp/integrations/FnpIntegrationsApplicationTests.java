@@ -1,9 +1,16 @@
 package com.fnp.integrations;
 
+import com.fnp.integrations.support.TestConstants;
 import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// in-memory H2 in place of the local MySQL, which the outbox refuses
+@SpringBootTest(properties = {
+		"lalamove.order-outbox.enabled=false",
+		TestConstants.H2_DIALECT
+})
+@AutoConfigureTestDatabase
 class FnpIntegrationsApplicationTests {
 
 	@Test
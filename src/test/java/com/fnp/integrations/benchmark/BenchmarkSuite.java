@@ -0,0 +1,97 @@
+package com.fnp.integrations.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Entry point of {@code mvn -P benchmark verify}: runs the hot-path benchmarks with the GC
+ * profiler, writes the JMH JSON result, and fails the build when a score or the bytes allocated
+ * per operation got worse than the baseline by more than the tolerance. Without a baseline file
+ * the run only records results; copy a result from the main branch, on the same machine, to
+ * {@code benchmark.baseline} to turn the check on.
+ */
+public final class BenchmarkSuite {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+    // Below this, allocation differences are JIT noise rather than a regression
+    private static final double MIN_ALLOCATION_DELTA = 64;
+
+    private BenchmarkSuite() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String include = System.getProperty("benchmark.include",
+                "RestClientBenchmark|LalamoveRequestSignerBenchmark|LalamoveJsonBenchmark|ErrorEnvelopeBenchmark");
+        Path result = Path.of(System.getProperty("benchmark.result", "target/jmh-result.json"));
+        Path baseline = Path.of(System.getProperty("benchmark.baseline", "benchmark-baseline.json"));
+        double tolerance = Double.parseDouble(System.getProperty("benchmark.tolerance", "0.15"));
+
+        Files.createDirectories(result.toAbsolutePath().getParent());
+        new Runner(new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.toString())
+                .build()).run();
+
+        if (!Files.exists(baseline)) {
+            System.out.printf("No baseline at %s, regression check skipped (results in %s)%n", baseline, result);
+            return;
+        }
+        List<String> regressions = regressions(read(baseline), read(result), tolerance);
+        if (regressions.isEmpty()) {
+            System.out.printf("No regression beyond %.0f%% against %s%n", tolerance * 100, baseline);
+            return;
+        }
+        regressions.forEach(System.err::println);
+        System.exit(1);
+    }
+
+    static List<String> regressions(Map<String, JsonNode> baseline, Map<String, JsonNode> current, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        current.forEach((key, run) -> {
+            JsonNode before = baseline.get(key);
+            if (null == before) {
+                return;
+            }
+            boolean higherIsBetter = "thrpt".equals(run.path("mode").asText());
+            double was = before.path("primaryMetric").path("score").asDouble();
+            double now = run.path("primaryMetric").path("score").asDouble();
+            if (higherIsBetter ? now < was * (1 - tolerance) : now > was * (1 + tolerance)) {
+                regressions.add(String.format("%s: %.3f -> %.3f %s", key, was, now,
+                        run.path("primaryMetric").path("scoreUnit").asText()));
+            }
+            double allocatedBefore = before.path("secondaryMetrics").path(ALLOCATION).path("score").asDouble(-1);
+            double allocatedNow = run.path("secondaryMetrics").path(ALLOCATION).path("score").asDouble(-1);
+            if (allocatedBefore >= 0 && allocatedNow > allocatedBefore * (1 + tolerance)
+                    && allocatedNow - allocatedBefore > MIN_ALLOCATION_DELTA) {
+                regressions.add(String.format("%s: %.0f -> %.0f B/op allocated", key, allocatedBefore, allocatedNow));
+            }
+        });
+        return regressions;
+    }
+
+    /**
+     * JMH JSON results keyed by benchmark method plus parameters.
+     */
+    static Map<String, JsonNode> read(Path file) throws IOException {
+        Map<String, JsonNode> runs = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file.toFile())) {
+            String params = run.has("params") ? run.get("params").toString() : "";
+            runs.put(run.path("benchmark").asText() + params, run);
+        }
+        return runs;
+    }
+}
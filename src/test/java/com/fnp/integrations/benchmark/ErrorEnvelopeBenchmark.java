@@ -0,0 +1,80 @@
+package com.fnp.integrations.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fnp.integrations.dto.ResponseDto;
+import com.fnp.integrations.enums.ResponseStatus;
+import com.fnp.integrations.exception.GlobalExceptionHandler;
+import com.fnp.integrations.exception.ResponseException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building and serializing the error envelope in {@link GlobalExceptionHandler}, from throwing
+ * the exception to the JSON bytes written to the client. The handler's own ERROR log line is
+ * switched off in {@code logback-benchmark.xml} so the appender does not dominate the score.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ErrorEnvelopeBenchmark {
+
+    @Param({"response-exception", "illegal-argument", "unexpected"})
+    public String error;
+
+    private GlobalExceptionHandler handler;
+    private ObjectMapper objectMapper;
+    private WebRequest request;
+
+    @Setup
+    public void setUp() {
+        handler = new GlobalExceptionHandler(new SimpleMeterRegistry());
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        request = new ServletWebRequest(new MockHttpServletRequest("POST", "/api/lalamove/quotations"));
+    }
+
+    @Benchmark
+    public byte[] envelope() throws IOException {
+        ResponseEntity<ResponseDto<Map<String, Object>>> response = switch (error) {
+            case "response-exception" -> handler.handleResponseException(new ResponseException(
+                    ResponseStatus.MICROSERVICE_INTERNAL_ERROR.getErrorCode(),
+                    ResponseStatus.MICROSERVICE_INTERNAL_ERROR.getErrorMessage() + " HOST: rest.sandbox.lalamove.com"), request);
+            case "illegal-argument" -> handler.handleIllegalArgumentException(
+                    new IllegalArgumentException("Quotation request data is missing"), request);
+            default -> handler.handleGenericException(new IllegalStateException("Unexpected state"), request);
+        };
+        return objectMapper.writeValueAsBytes(response.getBody());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ErrorEnvelopeBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
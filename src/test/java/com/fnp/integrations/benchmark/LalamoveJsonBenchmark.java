@@ -0,0 +1,110 @@
+package com.fnp.integrations.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.fnp.integrations.lalamove.LalamoveStubServer;
+import com.fnp.integrations.lalamove.dtos.LalamoveDeliveryRequestWrapper;
+import com.fnp.integrations.lalamove.dtos.LalamoveOrderRequestWrapper;
+import com.fnp.integrations.lalamove.dtos.LalamoveOrderResponseDto;
+import com.fnp.integrations.lalamove.dtos.LalamoveQuotationResponseDto;
+import com.fnp.integrations.lalamove.services.LalamoveJson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization and deserialization of the Lalamove request and response DTOs, with the
+ * mapper configured the way Spring Boot builds the application one. Payloads are the sample
+ * documents under {@code src/test/resources/lalamove}.
+ * <p>
+ * {@code new-mapper} builds a mapper per document, as code that creates its own {@code ObjectMapper}
+ * per request does, and so starts from empty (de)serializer caches every time; {@code mapper} calls {@code ObjectMapper.readValue}/{@code writeValueAsBytes} per document;
+ * {@code codec} uses the type-bound reader and writer of {@link LalamoveJson}; {@code blackbird}
+ * is {@code codec} on a mapper with the Blackbird module ({@code jackson.blackbird.enabled}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LalamoveJsonBenchmark {
+
+    private static final Map<String, Class<?>> DOCUMENTS = Map.of(
+            "quotation-request", LalamoveDeliveryRequestWrapper.class,
+            "order-request", LalamoveOrderRequestWrapper.class,
+            "quotation-response", LalamoveQuotationResponseDto.class,
+            "order-response", LalamoveOrderResponseDto.class);
+
+    @Param({"quotation-request", "order-request", "quotation-response", "order-response"})
+    public String document;
+
+    @Param({"new-mapper", "mapper", "codec", "blackbird"})
+    public String mode;
+
+    private ObjectMapper objectMapper;
+    private ObjectReader reader;
+    private ObjectWriter writer;
+    private Class<?> type;
+    private byte[] json;
+    private Object value;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        if ("blackbird".equals(mode)) {
+            builder.modulesToInstall(new BlackbirdModule());
+        }
+        objectMapper = builder.build();
+        type = DOCUMENTS.get(document);
+        reader = objectMapper.readerFor(type);
+        writer = objectMapper.writerFor(type);
+        json = LalamoveStubServer.resource("lalamove/" + document + ".json").getBytes(StandardCharsets.UTF_8);
+        value = objectMapper.readValue(json, type);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return switch (mode) {
+            case "new-mapper" -> Jackson2ObjectMapperBuilder.json().build().writeValueAsBytes(value);
+            case "mapper" -> objectMapper.writeValueAsBytes(value);
+            default -> writer.writeValueAsBytes(value);
+        };
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException {
+        return switch (mode) {
+            case "new-mapper" -> Jackson2ObjectMapperBuilder.json().build().readValue(json, type);
+            case "mapper" -> objectMapper.readValue(json, type);
+            default -> reader.readValue(json);
+        };
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LalamoveJsonBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
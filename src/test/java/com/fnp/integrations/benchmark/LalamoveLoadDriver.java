@@ -0,0 +1,215 @@
+package com.fnp.integrations.benchmark;
+
+import com.fnp.integrations.FnpIntegrationsApplication;
+import com.fnp.integrations.constants.DynamicConstants;
+import com.fnp.integrations.lalamove.LalamoveSimulation;
+import com.fnp.integrations.lalamove.LalamoveStubServer;
+import com.fnp.integrations.lalamove.services.LalamoveService;
+import com.fnp.integrations.support.TestConstants;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load test of {@code LalamoveController}: boots the application against a
+ * {@link LalamoveStubServer} that verifies request signatures and simulates latency, errors and
+ * throttling, then sends a constant request rate to {@code POST /api/lalamove/quotations} and/or
+ * {@code POST /api/lalamove/orders} and reports the achieved throughput, outcomes and latency
+ * percentiles.
+ * <p>
+ * The load is open-loop: requests leave on a fixed schedule whether or not earlier ones have
+ * completed, and each latency is measured from the scheduled send time, so a stalled server shows
+ * up in the percentiles instead of silently lowering the rate (coordinated omission). Quotation
+ * coordinates change on every request, beyond the cache precision, so each one reaches the upstream.
+ * <pre>
+ * java -cp target/test-classes:target/classes:$(cat /tmp/cp.txt) com.fnp.integrations.benchmark.LalamoveLoadDriver \
+ *     rps=200 duration=30 warmup=10 endpoint=quotations|orders|mixed \
+ *     latency=lognormal:80,400 error-rate=0.01 throttle-rate=0.01 [--any.application=property ...]
+ * </pre>
+ */
+public class LalamoveLoadDriver {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>(Map.of(
+                "rps", "200", "duration", "30", "warmup", "10", "endpoint", "quotations",
+                "latency", "lognormal:80,400", "error-rate", "0", "throttle-rate", "0"));
+        List<String> applicationArguments = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                applicationArguments.add(arg);
+            } else {
+                String[] option = arg.split("=", 2);
+                options.put(option[0], option[1]);
+            }
+        }
+        int rps = Integer.parseInt(options.get("rps"));
+        int duration = Integer.parseInt(options.get("duration"));
+        int warmup = Integer.parseInt(options.get("warmup"));
+
+        LalamoveSimulation simulation = LalamoveSimulation.none()
+                .verifySignatures(TestConstants.LALAMOVE_APP_KEY, TestConstants.LALAMOVE_APP_SECRET)
+                .latency(LalamoveSimulation.Latency.parse(options.get("latency")))
+                .errorRate(Double.parseDouble(options.get("error-rate")))
+                .throttleRate(Double.parseDouble(options.get("throttle-rate")));
+        try (LalamoveStubServer upstream = new LalamoveStubServer(false, 0, 0, simulation).start()) {
+            ConfigurableApplicationContext context = start(upstream, applicationArguments);
+            ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor();
+            try {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                Load load = new Load(HttpClient.newBuilder().executor(clientThreads).connectTimeout(Duration.ofSeconds(10)).build(),
+                        "http://127.0.0.1:" + port + "/api/lalamove", options.get("endpoint"));
+                System.out.printf("%d req/s to %s for %ds after %ds warm-up; upstream %s%n",
+                        rps, options.get("endpoint"), duration, warmup, simulation);
+
+                load.run(rps, warmup);
+                long upstreamBefore = upstream.getRequests();
+                Result result = load.run(rps, duration);
+                result.print(upstream.getRequests() - upstreamBefore);
+                System.out.printf("upstream totals: %d requests, %d unauthorized, %d throttled, %d failed%n",
+                        upstream.getRequests(), upstream.getUnauthorized(), upstream.getThrottled(), upstream.getFailed());
+                if (context.getBean(DynamicConstants.class).isLalamoveQuotationHedgingEnabled()) {
+                    System.out.println("quotation hedging " + context.getBean(LalamoveService.class).getQuotationHedgingStats());
+                }
+            } finally {
+                clientThreads.shutdownNow();
+                context.close();
+            }
+        }
+        System.exit(0); // Tomcat and H2 threads would otherwise outlive the context
+    }
+
+    private static ConfigurableApplicationContext start(LalamoveStubServer upstream, List<String> overrides) {
+        // command-line arguments, so they take precedence over application-local.properties; the caller's come last
+        List<String> arguments = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--lalamove.scheme=http",
+                "--lalamove.hostname=" + upstream.getHostname(),
+                "--lalamove.appKey=" + TestConstants.LALAMOVE_APP_KEY,
+                "--lalamove.appSecret=" + TestConstants.LALAMOVE_APP_SECRET,
+                "--spring.datasource.url=jdbc:h2:mem:lalamove-load",
+                "--spring.jpa.show-sql=false",
+                "--lalamove.order-outbox.enabled=false",
+                "--http.logging.sample-rate=0",
+                "--logging.level.root=WARN",
+                "--logging.level.com.fnp=WARN",
+                "--logging.level.org.springframework.web=WARN",
+                "--logging.level.com.fnp.integrations.exception.GlobalExceptionHandler=OFF",
+                "--spring.main.banner-mode=off"));
+        arguments.addAll(overrides);
+        return new SpringApplicationBuilder(FnpIntegrationsApplication.class).run(arguments.toArray(new String[0]));
+    }
+
+    private static final class Load {
+
+        private final HttpClient client;
+        private final URI quotations;
+        private final URI orders;
+        private final String endpoint;
+        private final String quotationTemplate;
+        private final String orderBody;
+        private final AtomicLong sequence = new AtomicLong();
+
+        private Load(HttpClient client, String baseUrl, String endpoint) throws IOException {
+            this.client = client;
+            this.quotations = URI.create(baseUrl + "/quotations");
+            this.orders = URI.create(baseUrl + "/orders");
+            this.endpoint = endpoint;
+            this.quotationTemplate = LalamoveStubServer.resource("lalamove/quotation-request.json");
+            this.orderBody = LalamoveStubServer.resource("lalamove/order-request.json");
+        }
+
+        Result run(int rps, int seconds) {
+            int requests = rps * seconds;
+            long interval = TimeUnit.SECONDS.toNanos(1) / rps;
+            long[] latencies = new long[requests];
+            Map<String, AtomicLong> outcomes = new ConcurrentHashMap<>();
+            CompletableFuture<?>[] calls = new CompletableFuture<?>[requests];
+
+            long start = System.nanoTime();
+            for (int i = 0; i < requests; i++) {
+                long scheduled = start + i * interval;
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                int index = i;
+                calls[i] = client.sendAsync(next(index), HttpResponse.BodyHandlers.discarding())
+                        .handle((response, error) -> {
+                            latencies[index] = System.nanoTime() - scheduled;
+                            String outcome = null != error ? error.getClass().getSimpleName() : String.valueOf(response.statusCode());
+                            outcomes.computeIfAbsent(outcome, key -> new AtomicLong()).incrementAndGet();
+                            return null;
+                        });
+            }
+            CompletableFuture.allOf(calls).join();
+            return new Result(latencies, outcomes, System.nanoTime() - start);
+        }
+
+        private HttpRequest next(int index) {
+            boolean quotation = switch (endpoint) {
+                case "quotations" -> true;
+                case "orders" -> false;
+                default -> index % 2 == 0;
+            };
+            String body = quotation ? quotationBody() : orderBody;
+            return HttpRequest.newBuilder(quotation ? quotations : orders)
+                    .timeout(Duration.ofMinutes(1))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+
+        /**
+         * The sample request with the pick-up moved by 1e-5 degrees (the cache precision) per request.
+         */
+        private String quotationBody() {
+            double lat = 1.3140256 + (sequence.incrementAndGet() % 1_000_000) * 1e-5;
+            return quotationTemplate.replace("\"1.3140256\"", "\"" + String.format(Locale.ROOT, "%.7f", lat) + "\"");
+        }
+    }
+
+    private record Result(long[] latencies, Map<String, AtomicLong> outcomes, long elapsedNanos) {
+
+        void print(long upstreamCalls) {
+            long ok = outcomes.getOrDefault("200", new AtomicLong()).get();
+            double seconds = elapsedNanos / 1e9;
+            System.out.printf("sent %d in %.1fs, %.0f req/s completed, %.0f req/s successful, %d upstream calls%n",
+                    latencies.length, seconds, latencies.length / seconds, ok / seconds, upstreamCalls);
+            System.out.println("outcomes " + new TreeMap<>(outcomes));
+
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            StringBuilder line = new StringBuilder("latency ms:");
+            for (double percentile : PERCENTILES) {
+                int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile / 100 * sorted.length) - 1);
+                line.append(String.format(Locale.ROOT, " p%s=%.1f", percentile == (long) percentile
+                        ? String.valueOf((long) percentile) : String.valueOf(percentile), sorted[Math.max(0, index)] / 1e6));
+            }
+            line.append(String.format(Locale.ROOT, " max=%.1f", sorted[sorted.length - 1] / 1e6));
+            System.out.println(line);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.fnp.integrations.benchmark;
+
+import com.fnp.integrations.lalamove.LalamoveStubServer;
+import com.fnp.integrations.lalamove.services.LalamoveRequestSigner;
+import com.fnp.integrations.support.TestConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ns/op and bytes allocated per signature ({@code gc.alloc.rate.norm}) for the static HMAC helper
+ * {@code LalamoveService} used to sign with, kept here as the baseline, versus {@link LalamoveRequestSigner}.
+ * The legacy benchmark includes the raw-signature and header string concatenation the old
+ * service performed around the static method; {@code generateHmacSHA256} is the static method alone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LalamoveRequestSignerBenchmark {
+
+    private static final LalamoveRequestSigner.Target QUOTATIONS = LalamoveRequestSigner.target("POST", "/v3/quotations");
+
+    private final LalamoveRequestSigner signer =
+            new LalamoveRequestSigner(TestConstants.LALAMOVE_APP_KEY, TestConstants.LALAMOVE_APP_SECRET);
+
+    private String bodyJson;
+    private String rawSignature;
+    private byte[] body;
+    private long timestamp;
+
+    @Setup
+    public void setUp() throws IOException {
+        bodyJson = LalamoveStubServer.resource("lalamove/quotation-request.json");
+        body = bodyJson.getBytes(StandardCharsets.UTF_8);
+        timestamp = System.currentTimeMillis();
+        rawSignature = timestamp + "\r\n" + "POST" + "\r\n" + "/v3/quotations" + "\r\n\r\n" + bodyJson;
+    }
+
+    @Benchmark
+    public String generateHmacSHA256() throws Exception {
+        return generateHmacSHA256(rawSignature, TestConstants.LALAMOVE_APP_SECRET);
+    }
+
+    @Benchmark
+    public String legacyStaticMethod() throws Exception {
+        String ts = String.valueOf(timestamp);
+        String rawSignature = ts + "\r\n" + "POST" + "\r\n" + "/v3/quotations" + "\r\n\r\n" + bodyJson;
+        String signature = generateHmacSHA256(rawSignature, TestConstants.LALAMOVE_APP_SECRET);
+        return "hmac " + TestConstants.LALAMOVE_APP_KEY + ":" + ts + ":" + signature;
+    }
+
+    @Benchmark
+    public String requestSigner() {
+        return signer.authorization(timestamp, QUOTATIONS, body);
+    }
+
+    /**
+     * The signing helper as it was in {@code LalamoveService}, also used by the legacy path of
+     * {@link LalamoveServiceBenchmark}.
+     */
+    static String generateHmacSHA256(String rawSignature, String secret) throws Exception {
+        Mac sha256_HMAC = Mac.getInstance("HmacSHA256");
+        SecretKeySpec secret_key = new SecretKeySpec(secret.getBytes("UTF-8"), "HmacSHA256");
+        sha256_HMAC.init(secret_key);
+        byte[] hash = sha256_HMAC.doFinal(rawSignature.getBytes("UTF-8"));
+
+        // Convert to hex string (to match CryptoJS's `.toString()`)
+        StringBuilder hexString = new StringBuilder();
+        for (byte b : hash) {
+            String hex = Integer.toHexString(0xff & b);
+            if (hex.length() == 1) hexString.append('0');
+            hexString.append(hex);
+        }
+
+        return hexString.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LalamoveRequestSignerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,161 @@
+package com.fnp.integrations.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fnp.integrations.config.RestTemplateConfig;
+import com.fnp.integrations.constants.DynamicConstants;
+import com.fnp.integrations.http.CircuitBreakerRegistry;
+import com.fnp.integrations.http.HedgingPolicy;
+import com.fnp.integrations.http.OutboundLogger;
+import com.fnp.integrations.http.OutboundMetrics;
+import com.fnp.integrations.http.RateLimiterRegistry;
+import com.fnp.integrations.http.RetryPolicy;
+import com.fnp.integrations.lalamove.LalamoveStubServer;
+import com.fnp.integrations.lalamove.dtos.LalamoveDeliveryRequestWrapper;
+import com.fnp.integrations.lalamove.dtos.LalamoveOrderRequestWrapper;
+import com.fnp.integrations.lalamove.dtos.LalamoveOrderResponseDto;
+import com.fnp.integrations.lalamove.dtos.LalamoveQuotationResponseDto;
+import com.fnp.integrations.lalamove.repositories.LalamoveOrderSnapshotRepository;
+import com.fnp.integrations.lalamove.repositories.LalamoveWebhookEventRepository;
+import com.fnp.integrations.lalamove.services.LalamoveJson;
+import com.fnp.integrations.lalamove.services.LalamoveOrderReadModel;
+import com.fnp.integrations.lalamove.services.LalamoveQuotationCache;
+import com.fnp.integrations.lalamove.services.LalamoveRequestSigner;
+import com.fnp.integrations.lalamove.services.LalamoveService;
+import com.fnp.integrations.service.AsyncRestClient;
+import com.fnp.integrations.service.impl.RestClientImpl;
+import com.fnp.integrations.support.StubHttpServer;
+import com.fnp.integrations.support.TestConstants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Throughput of the Lalamove quotation and order calls against {@link LalamoveStubServer} over TLS.
+ * {@code legacy} reproduces the previous implementation (new {@code RestTemplate} and
+ * {@code ObjectMapper} per call), {@code shared} runs {@link LalamoveService} on the pooled
+ * {@link RestClientImpl} and a single mapper.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Threads(8)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class LalamoveServiceBenchmark {
+
+    @Param({"legacy", "shared"})
+    public String mode;
+
+    private LalamoveStubServer server;
+    private CloseableHttpClient httpClient;
+    private LalamoveService lalamoveService;
+    private DynamicConstants constants;
+    private LalamoveDeliveryRequestWrapper quotationRequest;
+    private LalamoveOrderRequestWrapper orderRequest;
+
+    @Setup
+    public void setUp() throws IOException {
+        StubHttpServer.trustStubCertificate();
+        server = new LalamoveStubServer(true, 16).start();
+
+        constants = TestConstants.dynamicConstants();
+        constants.setLalamoveHostname(server.getHostname());
+
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        quotationRequest = objectMapper.readValue(LalamoveStubServer.resource("lalamove/quotation-request.json"),
+                LalamoveDeliveryRequestWrapper.class);
+        orderRequest = objectMapper.readValue(LalamoveStubServer.resource("lalamove/order-request.json"),
+                LalamoveOrderRequestWrapper.class);
+
+        RestTemplateConfig config = new RestTemplateConfig(constants);
+        httpClient = config.httpClient(config.httpClientConnectionManager());
+        constants.setHttpRateLimitEnabled(false); // measure client overhead, not the limiter's pacing
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+
+        RateLimiterRegistry rateLimiterRegistry = new RateLimiterRegistry(constants);
+        RetryPolicy retryPolicy = new RetryPolicy(constants);
+        CircuitBreakerRegistry circuitBreakerRegistry = new CircuitBreakerRegistry(constants);
+        RestClientImpl restClient = new RestClientImpl(restTemplate, rateLimiterRegistry, retryPolicy, circuitBreakerRegistry,
+                new OutboundLogger(objectMapper, constants),
+                new OutboundMetrics(new SimpleMeterRegistry(), rateLimiterRegistry, circuitBreakerRegistry, retryPolicy), objectMapper, constants);
+        // no snapshot is found or kept; with quotation hedging off the async client is never called
+        LalamoveOrderReadModel orderReadModel = new LalamoveOrderReadModel(mock(LalamoveOrderSnapshotRepository.class),
+                mock(LalamoveWebhookEventRepository.class), new LalamoveJson(objectMapper), constants);
+        lalamoveService = new LalamoveService(restClient, mock(AsyncRestClient.class), new LalamoveJson(objectMapper),
+                new LalamoveRequestSigner(constants), new LalamoveQuotationCache(constants), orderReadModel,
+                new HedgingPolicy(constants, rateLimiterRegistry, circuitBreakerRegistry), constants);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        httpClient.close();
+        server.close();
+    }
+
+    @Benchmark
+    public LalamoveQuotationResponseDto quotation() throws Exception {
+        return "legacy".equals(mode)
+                ? legacyPost("/v3/quotations", quotationRequest, LalamoveQuotationResponseDto.class)
+                : lalamoveService.getQuotations(quotationRequest);
+    }
+
+    @Benchmark
+    public LalamoveOrderResponseDto order() throws Exception {
+        return "legacy".equals(mode)
+                ? legacyPost("/v3/orders", orderRequest, LalamoveOrderResponseDto.class)
+                : lalamoveService.placeOrders(orderRequest);
+    }
+
+    /**
+     * The pre-refactoring request path, kept only as the baseline.
+     */
+    private <T> T legacyPost(String path, Object request, Class<T> responseType) throws Exception {
+        RestTemplate restTemplate = new RestTemplate();
+        String timestamp = String.valueOf(System.currentTimeMillis());
+        ObjectMapper objectMapper = new ObjectMapper();
+        String requestJson = objectMapper.writeValueAsString(request);
+        String rawSignature = timestamp + "\r\n" + "POST" + "\r\n" + path + "\r\n\r\n" + requestJson;
+        String signature = LalamoveRequestSignerBenchmark.generateHmacSHA256(rawSignature, constants.getLalamoveAppSecret());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Content-Type", "application/json");
+        headers.set("Authorization", "hmac " + constants.getLalamoveAppKey() + ":" + timestamp + ":" + signature);
+        headers.set("market", constants.getLalamoveMarket());
+
+        String url = "https://" + constants.getLalamoveHostname() + path;
+        return restTemplate.exchange(url, HttpMethod.POST, new HttpEntity<>(request, headers), responseType).getBody();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LalamoveServiceBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
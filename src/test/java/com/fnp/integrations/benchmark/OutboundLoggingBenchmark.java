@@ -0,0 +1,126 @@
+package com.fnp.integrations.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fnp.integrations.constants.DynamicConstants;
+import com.fnp.integrations.http.CircuitBreakerRegistry;
+import com.fnp.integrations.http.OutboundLogger;
+import com.fnp.integrations.http.OutboundMetrics;
+import com.fnp.integrations.http.RateLimiterRegistry;
+import com.fnp.integrations.http.RetryPolicy;
+import com.fnp.integrations.lalamove.LalamoveStubServer;
+import com.fnp.integrations.lalamove.dtos.LalamoveDeliveryRequestWrapper;
+import com.fnp.integrations.lalamove.dtos.LalamoveQuotationResponseDto;
+import com.fnp.integrations.service.impl.RestClientImpl;
+import com.fnp.integrations.support.TestConstants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of the outbound logging in {@link RestClientImpl} with the production log level
+ * (WARN), against an in-memory transport so that only client-side work is measured.
+ * {@code legacy} adds back what the previous implementation did on every call regardless of the
+ * level: a stack walk to find the caller and an eager JSON serialization of payload and response.
+ * Run through {@link #main} for the allocation figures of the GC profiler.
+ */
+@Slf4j
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class OutboundLoggingBenchmark {
+
+    private static final String URL = "https://rest.sandbox.lalamove.com/v3/quotations";
+
+    @Param({"legacy", "lazy"})
+    public String mode;
+
+    private RestClientImpl restClient;
+    private ObjectMapper legacyMapper;
+    private LalamoveDeliveryRequestWrapper quotationRequest;
+
+    @Setup
+    public void setUp() throws IOException {
+        RestTemplate restTemplate = cannedRestTemplate(
+                LalamoveStubServer.resource("lalamove/quotation-response.json").getBytes(StandardCharsets.UTF_8), HttpStatus.CREATED);
+
+        DynamicConstants constants = TestConstants.dynamicConstants();
+        constants.setHttpRateLimitEnabled(false);
+        restClient = restClient(restTemplate, constants);
+        legacyMapper = new ObjectMapper();
+        quotationRequest = Jackson2ObjectMapperBuilder.json().build().readValue(
+                LalamoveStubServer.resource("lalamove/quotation-request.json"), LalamoveDeliveryRequestWrapper.class);
+    }
+
+    @Benchmark
+    public LalamoveQuotationResponseDto quotation() throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("market", "SG");
+        if (!"legacy".equals(mode)) {
+            return restClient.post(URL, headers, quotationRequest, LalamoveQuotationResponseDto.class, true);
+        }
+        log.debug("Method: {}, URL: {}, Payload: {}", Thread.currentThread().getStackTrace()[2].getMethodName(), URL,
+                legacyMapper.writeValueAsString(quotationRequest));
+        LalamoveQuotationResponseDto response = restClient.post(URL, headers, quotationRequest, LalamoveQuotationResponseDto.class, true);
+        log.info("Response received: {}", legacyMapper.writeValueAsString(response));
+        return response;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OutboundLoggingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    /**
+     * A RestTemplate whose every exchange answers with {@code body} in-process, without sockets,
+     * so the benchmark sees only the client-side work.
+     */
+    private static RestTemplate cannedRestTemplate(byte[] body, HttpStatus status) {
+        return new RestTemplate((uri, method) -> {
+            MockClientHttpRequest request = new MockClientHttpRequest(method, uri);
+            MockClientHttpResponse response = new MockClientHttpResponse(body, status);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            request.setResponse(response);
+            return request;
+        });
+    }
+
+    private static RestClientImpl restClient(RestTemplate restTemplate, DynamicConstants constants) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        RateLimiterRegistry rateLimiterRegistry = new RateLimiterRegistry(constants);
+        RetryPolicy retryPolicy = new RetryPolicy(constants);
+        CircuitBreakerRegistry circuitBreakerRegistry = new CircuitBreakerRegistry(constants);
+        return new RestClientImpl(restTemplate, rateLimiterRegistry, retryPolicy, circuitBreakerRegistry,
+                new OutboundLogger(objectMapper, constants),
+                new OutboundMetrics(new SimpleMeterRegistry(), rateLimiterRegistry, circuitBreakerRegistry, retryPolicy), objectMapper, constants);
+    }
+}
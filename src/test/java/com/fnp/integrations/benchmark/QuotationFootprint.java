@@ -0,0 +1,64 @@
+package com.fnp.integrations.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fnp.integrations.lalamove.LalamoveStubServer;
+import com.fnp.integrations.lalamove.dtos.LalamoveQuotationResponseDto;
+import com.fnp.integrations.lalamove.model.LalamoveQuote;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Retained heap of N cached quotations held as the wire DTO (as {@code LalamoveQuotationCache} did)
+ * versus as {@link LalamoveQuote}. Every quotation is decoded by Jackson from its own response, with
+ * distinct ids, coordinates and prices, so the strings are not shared the way literals would be.
+ * Only the values are measured: keys and cache bookkeeping are the same in both cases.
+ * <pre>
+ * java -Djdk.attach.allowAttachSelf -cp target/test-classes:target/classes:$(cat /tmp/cp.txt) \
+ *     com.fnp.integrations.benchmark.QuotationFootprint [count=100000]
+ * </pre>
+ */
+public class QuotationFootprint {
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0].replace("count=", "")) : 100_000;
+        ObjectReader reader = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .readerFor(LalamoveQuotationResponseDto.class);
+        String template = LalamoveStubServer.resource("lalamove/quotation-response.json");
+
+        List<LalamoveQuotationResponseDto> dtos = new ArrayList<>(count);
+        List<LalamoveQuote> quotes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String json = template
+                    .replace("{{quotationId}}", String.valueOf(1514140994227007571L + i))
+                    .replace("{{expiresAt}}", "2025-01-01T10:05:00Z")
+                    .replace("1514140995971838069", String.valueOf(1514140995971838069L + 2L * i))
+                    .replace("1514140995971838070", String.valueOf(1514140995971838070L + 2L * i))
+                    .replace("\"1.3140256\"", String.format(Locale.ROOT, "\"%.7f\"", 1.3140256 + i * 1e-7))
+                    .replace("\"15.5\"", String.format(Locale.ROOT, "\"%d.%d\"", 15 + i % 40, i % 10));
+            LalamoveQuotationResponseDto dto = reader.readValue(json);
+            dtos.add(dto);
+            quotes.add(LalamoveQuote.from(dto));
+        }
+
+        long dtoBytes = GraphLayout.parseInstance(dtos).totalSize();
+        long quoteBytes = GraphLayout.parseInstance(quotes).totalSize();
+        System.out.printf("%d quotations%n", count);
+        print("LalamoveQuotationResponseDto", dtoBytes, count);
+        print("LalamoveQuote", quoteBytes, count);
+        System.out.printf("ratio %.1fx%n", (double) dtoBytes / quoteBytes);
+        System.out.println();
+        System.out.println("one LalamoveQuotationResponseDto:");
+        System.out.println(GraphLayout.parseInstance(dtos.get(0)).toFootprint());
+        System.out.println("one LalamoveQuote:");
+        System.out.println(GraphLayout.parseInstance(quotes.get(0)).toFootprint());
+    }
+
+    private static void print(String label, long bytes, int count) {
+        System.out.printf(Locale.ROOT, "%-30s %8.1f MB  %5d bytes/quote%n", label, bytes / 1048576.0, bytes / count);
+    }
+}
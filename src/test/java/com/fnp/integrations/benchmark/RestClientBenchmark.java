@@ -0,0 +1,127 @@
+package com.fnp.integrations.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fnp.integrations.constants.DynamicConstants;
+import com.fnp.integrations.http.CircuitBreakerRegistry;
+import com.fnp.integrations.http.OutboundLogger;
+import com.fnp.integrations.http.OutboundMetrics;
+import com.fnp.integrations.http.RateLimiterRegistry;
+import com.fnp.integrations.http.RetryPolicy;
+import com.fnp.integrations.lalamove.LalamoveStubServer;
+import com.fnp.integrations.lalamove.dtos.LalamoveDeliveryRequestWrapper;
+import com.fnp.integrations.lalamove.dtos.LalamoveQuotationResponseDto;
+import com.fnp.integrations.service.impl.RestClientImpl;
+import com.fnp.integrations.support.TestConstants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of {@link RestClientImpl#post} (header copy, rate limiter, circuit breaker, retry
+ * budget, logging, metrics) over a bare {@code RestTemplate.exchange}, both on an in-process
+ * transport that answers with the sample quotation response. The limiter is left on with a rate
+ * high enough never to make a caller wait.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RestClientBenchmark {
+
+    private static final String URL = "https://rest.sandbox.lalamove.com/v3/quotations";
+
+    private RestTemplate restTemplate;
+    private RestClientImpl restClient;
+    private LalamoveDeliveryRequestWrapper quotationRequest;
+
+    @Setup
+    public void setUp() throws IOException {
+        restTemplate = cannedRestTemplate(
+                LalamoveStubServer.resource("lalamove/quotation-response.json").getBytes(StandardCharsets.UTF_8), HttpStatus.CREATED);
+
+        DynamicConstants constants = TestConstants.dynamicConstants();
+        constants.setHttpRateLimitMaxRate(1e9);
+        constants.setHttpRateLimitBurst(1e9);
+        restClient = restClient(restTemplate, constants);
+
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        quotationRequest = objectMapper.readValue(LalamoveStubServer.resource("lalamove/quotation-request.json"),
+                LalamoveDeliveryRequestWrapper.class);
+    }
+
+    @Benchmark
+    public LalamoveQuotationResponseDto restTemplateExchange() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("market", "SG");
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        return restTemplate.exchange(URL, HttpMethod.POST, new HttpEntity<>(quotationRequest, headers),
+                LalamoveQuotationResponseDto.class).getBody();
+    }
+
+    @Benchmark
+    public LalamoveQuotationResponseDto restClientPost() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("market", "SG");
+        return restClient.post(URL, headers, quotationRequest, LalamoveQuotationResponseDto.class, true);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RestClientBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    /**
+     * A RestTemplate whose every exchange answers with {@code body} in-process, without sockets,
+     * so the benchmark sees only the client-side work.
+     */
+    private static RestTemplate cannedRestTemplate(byte[] body, HttpStatus status) {
+        return new RestTemplate((uri, method) -> {
+            MockClientHttpRequest request = new MockClientHttpRequest(method, uri);
+            MockClientHttpResponse response = new MockClientHttpResponse(body, status);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            request.setResponse(response);
+            return request;
+        });
+    }
+
+    private static RestClientImpl restClient(RestTemplate restTemplate, DynamicConstants constants) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        RateLimiterRegistry rateLimiterRegistry = new RateLimiterRegistry(constants);
+        RetryPolicy retryPolicy = new RetryPolicy(constants);
+        CircuitBreakerRegistry circuitBreakerRegistry = new CircuitBreakerRegistry(constants);
+        return new RestClientImpl(restTemplate, rateLimiterRegistry, retryPolicy, circuitBreakerRegistry,
+                new OutboundLogger(objectMapper, constants),
+                new OutboundMetrics(new SimpleMeterRegistry(), rateLimiterRegistry, circuitBreakerRegistry, retryPolicy), objectMapper, constants);
+    }
+}
@@ -0,0 +1,203 @@
+package com.fnp.integrations.benchmark;
+
+import com.fnp.integrations.FnpIntegrationsApplication;
+import com.fnp.integrations.support.StubHttpServer;
+import com.sun.net.httpserver.HttpHandler;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test for the threading modes: each mode runs in its own forked JVM with the same heap
+ * settings as the driver. The fork boots the application, points {@code api.base-url} at an
+ * in-process stub upstream that answers after a fixed delay, and fires a burst of concurrent
+ * {@code GET /api/config/test-rest-client} requests. It reports how long the burst takes to drain,
+ * latency percentiles, and peak platform threads and heap. A fork that runs out of heap exits
+ * immediately (-XX:+ExitOnOutOfMemoryError) and is reported as such.
+ * <p>
+ * Modes: {@code platform} (Tomcat defaults, 200 workers), {@code platform-wide} (one Tomcat worker
+ * per concurrent request) and {@code virtual} ({@code spring.threads.virtual.enabled=true}).
+ * The outbound connection pool is sized to the burst in every mode so only threading differs.
+ * <pre>
+ * java -Xmx256m -cp target/test-classes:target/classes:$(cat /tmp/cp.txt) \
+ *     com.fnp.integrations.benchmark.VirtualThreadLoadDriver [concurrency=2000] [upstreamDelayMs=1000] [modes=platform,platform-wide,virtual]
+ * </pre>
+ */
+public class VirtualThreadLoadDriver {
+
+    private static final int WARMUP_ROUNDS = 30;
+    private static final String FORK = "--fork";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && FORK.equals(args[0])) {
+            runFork(args[1], Integer.parseInt(args[2]), Long.parseLong(args[3]));
+            return;
+        }
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        long upstreamDelay = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+        List<String> modes = Arrays.asList((args.length > 2 ? args[2] : "platform,platform-wide,virtual").split(","));
+
+        System.out.printf("max heap %d MB, %d concurrent requests, upstream delay %d ms%n",
+                Runtime.getRuntime().maxMemory() >> 20, concurrency, upstreamDelay);
+        System.out.printf("%-14s %9s %7s %10s %9s %9s %9s %13s %12s%n",
+                "mode", "completed", "failed", "elapsed ms", "req/s", "p50 ms", "p99 ms", "peak threads", "peak heap MB");
+        for (String mode : modes) {
+            fork(mode, concurrency, upstreamDelay);
+        }
+    }
+
+    private static void fork(String mode, int concurrency, long upstreamDelay) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-XX:+ExitOnOutOfMemoryError");
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), VirtualThreadLoadDriver.class.getName(),
+                FORK, mode, String.valueOf(concurrency), String.valueOf(upstreamDelay)));
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.DISCARD).start();
+
+        String row = null;
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            for (String line = output.readLine(); line != null; line = output.readLine()) {
+                if (line.startsWith(mode + " ")) {
+                    row = line;
+                }
+            }
+        }
+        if (!process.waitFor(5, TimeUnit.MINUTES)) {
+            process.destroyForcibly();
+        }
+        if (row != null) {
+            System.out.println(row);
+        } else {
+            System.out.printf("%-14s did not complete: %s%n", mode,
+                    process.isAlive() ? "timed out" : process.exitValue() == 3 ? "out of heap" : "exit code " + process.exitValue());
+        }
+    }
+
+    private static void runFork(String mode, int concurrency, long upstreamDelay) throws Exception {
+        byte[] body = "{\"status\":\"ok\"}".getBytes(StandardCharsets.UTF_8);
+        HttpHandler fast = exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        };
+        HttpHandler slow = exchange -> {
+            try {
+                Thread.sleep(upstreamDelay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            fast.handle(exchange);
+        };
+        try (StubHttpServer upstream = new StubHttpServer(false, 0).handle("/fast", fast).handle("/slow", slow).start()) {
+            run(mode, concurrency, upstream.getBaseUrl());
+        }
+        System.exit(0); // Tomcat and H2 threads would otherwise outlive the context in a few modes
+    }
+
+    private static void run(String mode, int concurrency, String upstreamUrl) throws Exception {
+        // command-line arguments, so they take precedence over application-local.properties
+        List<String> arguments = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--api.base-url=" + upstreamUrl,
+                "--http.client.max-connections-total=" + concurrency,
+                "--http.client.max-connections-per-route=" + concurrency,
+                "--http.client.connection-request-timeout=60000",
+                "--spring.datasource.url=jdbc:h2:mem:load-" + mode,
+                "--spring.jpa.show-sql=false",
+                "--lalamove.order-outbox.enabled=false",
+                "--http.rate-limit.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.fnp=WARN",
+                "--logging.level.org.springframework.web=WARN",
+                "--spring.main.banner-mode=off",
+                "--spring.threads.virtual.enabled=" + "virtual".equals(mode)));
+        if ("platform-wide".equals(mode)) {
+            arguments.add("--server.tomcat.threads.max=" + concurrency);
+        }
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(FnpIntegrationsApplication.class)
+                .run(arguments.toArray(new String[0]));
+        ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String endpoint = "http://127.0.0.1:" + port + "/api/config/test-rest-client?endpoint=";
+            HttpClient client = HttpClient.newBuilder().executor(clientThreads).connectTimeout(Duration.ofSeconds(30)).build();
+
+            // warm up the JIT and both connection pools on the no-delay path so the burst measures threading, not class loading
+            for (int round = 0; round < WARMUP_ROUNDS; round++) {
+                burst(client, URI.create(endpoint + "/fast"), Math.min(concurrency, 100), new long[Math.min(concurrency, 100)], new AtomicInteger());
+            }
+
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            AtomicInteger peakThreads = new AtomicInteger();
+            AtomicLong peakHeap = new AtomicLong();
+            threads.resetPeakThreadCount();
+            sampler.scheduleAtFixedRate(() -> {
+                peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+                peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+            }, 0, 20, TimeUnit.MILLISECONDS);
+
+            long[] latencies = new long[concurrency];
+            AtomicInteger failed = new AtomicInteger();
+            long start = System.nanoTime();
+            burst(client, URI.create(endpoint + "/slow"), concurrency, latencies, failed);
+            long elapsed = System.nanoTime() - start;
+
+            Arrays.sort(latencies);
+            System.out.printf("%-14s %9d %7d %10d %9.0f %9d %9d %13d %12d%n",
+                    mode, concurrency - failed.get(), failed.get(), TimeUnit.NANOSECONDS.toMillis(elapsed),
+                    (concurrency - failed.get()) / (elapsed / 1e9),
+                    TimeUnit.NANOSECONDS.toMillis(latencies[concurrency / 2]),
+                    TimeUnit.NANOSECONDS.toMillis(latencies[(int) (concurrency * 0.99) - 1]),
+                    Math.max(peakThreads.get(), threads.getPeakThreadCount()), peakHeap.get() >> 20);
+        } finally {
+            sampler.shutdownNow();
+            clientThreads.shutdownNow();
+            context.close();
+        }
+    }
+
+    private static void burst(HttpClient client, URI uri, int requests, long[] latencies, AtomicInteger failed) {
+        CompletableFuture<?>[] calls = new CompletableFuture<?>[requests];
+        for (int i = 0; i < requests; i++) {
+            int index = i;
+            long sent = System.nanoTime();
+            calls[i] = client.sendAsync(HttpRequest.newBuilder(uri).timeout(Duration.ofMinutes(2)).build(), HttpResponse.BodyHandlers.ofString())
+                    .handle((response, error) -> {
+                        latencies[index] = System.nanoTime() - sent;
+                        if (error != null || response.statusCode() != 200 || !response.body().contains("\"status\":\"ok\"")) {
+                            failed.incrementAndGet();
+                        }
+                        return null;
+                    });
+        }
+        CompletableFuture.allOf(calls).join();
+    }
+}
@@ -0,0 +1,102 @@
+package com.fnp.integrations.concurrent;
+
+import com.fnp.integrations.enums.ResponseStatus;
+import com.fnp.integrations.exception.ResponseException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private final SingleFlight<String, String> flights = new SingleFlight<>();
+    private final AtomicInteger invocations = new AtomicInteger();
+
+    @Test
+    void concurrentCallersShareOneExecution() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = runConcurrently(() -> {
+            invocations.incrementAndGet();
+            await(release);
+            return "quote";
+        });
+
+        awaitCoalesced(CALLERS - 1);
+        release.countDown();
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("quote");
+        }
+        assertThat(invocations).hasValue(1);
+        assertThat(flights.getInFlight()).isZero();
+    }
+
+    @Test
+    void failureIsPropagatedToAllWaitersAndNotRetained() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ResponseException failure = new ResponseException(
+                ResponseStatus.MICROSERVICE_EXCHANGE_ERROR.getErrorCode(), ResponseStatus.MICROSERVICE_EXCHANGE_ERROR.getErrorMessage());
+        List<Future<String>> results = runConcurrently(() -> {
+            invocations.incrementAndGet();
+            await(release);
+            throw failure;
+        });
+
+        awaitCoalesced(CALLERS - 1);
+        release.countDown();
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).hasCause(failure);
+        }
+        assertThat(flights.execute("key", 0, () -> "recovered")).isEqualTo("recovered");
+        assertThat(invocations).hasValue(1);
+    }
+
+    @Test
+    void resultIsSharedWithinWindow() throws Exception {
+        assertThat(flights.execute("key", 200, () -> "first")).isEqualTo("first");
+        assertThat(flights.execute("key", 200, () -> "second")).isEqualTo("first");
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (flights.getInFlight() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(flights.execute("key", 0, () -> "third")).isEqualTo("third");
+    }
+
+    private List<Future<String>> runConcurrently(Supplier<String> supplier) {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> flights.execute("key", 0, supplier)));
+        }
+        executor.shutdown();
+        return results;
+    }
+
+    private void awaitCoalesced(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (flights.getCoalesced() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(flights.getCoalesced()).isEqualTo(expected);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
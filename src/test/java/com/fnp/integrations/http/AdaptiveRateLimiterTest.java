@@ -0,0 +1,77 @@
+package com.fnp.integrations.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveRateLimiterTest {
+
+    @Test
+    void burstIsServedImmediatelyThenFailFastRejects() throws Exception {
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(1, 1, 2, 0.5, 1, 1000);
+
+        assertThat(limiter.tryAcquire(0)).isTrue();
+        assertThat(limiter.tryAcquire(0)).isTrue();
+        assertThat(limiter.tryAcquire(0)).isFalse();
+        assertThat(limiter.getGranted()).isEqualTo(2);
+        assertThat(limiter.getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    void queuedCallerWaitsForTheNextPermit() throws Exception {
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(5, 1, 1, 0.5, 1, 1000);
+        assertThat(limiter.tryAcquire(0)).isTrue();
+
+        long start = System.nanoTime();
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> acquire(limiter, 1000));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (limiter.getQueueDepth() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(limiter.getQueueDepth()).isEqualTo(1);
+
+        assertThat(queued.get(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(150);
+        assertThat(limiter.getQueueDepth()).isZero();
+    }
+
+    @Test
+    void throttlingHalvesTheRateOncePerIntervalAndHonoursRetryAfter() throws Exception {
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(10, 1, 10, 0.5, 1, 60_000);
+
+        limiter.onThrottled(500);
+        limiter.onThrottled(-1); // same burst of 429s, same interval
+        assertThat(limiter.getRate()).isEqualTo(5);
+        assertThat(limiter.getWaitMillis()).isGreaterThan(400);
+        assertThat(limiter.tryAcquire(100)).isFalse();
+        assertThat(limiter.tryAcquire(1000)).isTrue();
+        assertThat(limiter.getThrottled()).isEqualTo(2);
+    }
+
+    @Test
+    void rateGrowsBackOneStepPerQuietInterval() throws Exception {
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(10, 1, 10, 0.5, 2, 200);
+        limiter.onThrottled(-1);
+        assertThat(limiter.getRate()).isEqualTo(5);
+
+        Thread.sleep(450);
+        limiter.onSuccess();
+        assertThat(limiter.getRate()).isEqualTo(9);
+
+        Thread.sleep(250);
+        limiter.onSuccess();
+        assertThat(limiter.getRate()).isEqualTo(10);
+    }
+
+    private static boolean acquire(AdaptiveRateLimiter limiter, long timeoutMillis) {
+        try {
+            return limiter.tryAcquire(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
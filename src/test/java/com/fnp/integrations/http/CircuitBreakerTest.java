@@ -0,0 +1,128 @@
+package com.fnp.integrations.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(6);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker(10, 4, 50, 80, 5000, 30_000, 2, clock::get);
+
+    @Test
+    void opensOnFailureRateOnceMinimumCallsAreRecorded() {
+        call(FAST, true);
+        call(FAST, true);
+        call(FAST, true);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED); // below minimum calls
+
+        call(FAST, false);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isEqualTo(CircuitBreaker.NOT_PERMITTED);
+        assertThat(breaker.getNotPermitted()).isEqualTo(1);
+    }
+
+    @Test
+    void opensOnSlowCallRateEvenWhenCallsSucceed() {
+        call(FAST, false);
+        for (int i = 0; i < 3; i++) {
+            call(SLOW, false);
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED); // 75% slow
+
+        call(SLOW, false);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void slidingWindowForgetsOldFailures() {
+        for (int i = 0; i < 5; i++) {
+            call(FAST, false);
+        }
+        for (int i = 0; i < 3; i++) {
+            call(FAST, true);
+        }
+        assertThat(breaker.getFailureRate()).isEqualTo(37.5);
+        for (int i = 0; i < 10; i++) {
+            call(FAST, false);
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.getFailureRate()).isZero();
+    }
+
+    @Test
+    void halfOpenAdmitsLimitedProbesAndClosesWhenTheyPass() {
+        trip();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        long first = breaker.tryAcquire();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        long second = breaker.tryAcquire();
+        assertThat(second).isNotEqualTo(CircuitBreaker.NOT_PERMITTED);
+        assertThat(breaker.tryAcquire()).isEqualTo(CircuitBreaker.NOT_PERMITTED);
+
+        breaker.onResult(first, FAST, false);
+        breaker.onResult(second, FAST, false);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.getBufferedCalls()).isZero();
+    }
+
+    @Test
+    void failedProbesReopenAndIgnoredProbesAreReturned() {
+        trip();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        breaker.onIgnored(breaker.tryAcquire());
+        long first = breaker.tryAcquire();
+        long second = breaker.tryAcquire();
+        breaker.onResult(first, FAST, true);
+        breaker.onResult(second, FAST, false);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.getOpened()).isEqualTo(2);
+    }
+
+    @Test
+    void callsAdmittedBeforeTheBreakerOpenedDoNotCountAsProbes() {
+        long lateSuccess = breaker.tryAcquire();
+        long otherLateSuccess = breaker.tryAcquire();
+        long lateIgnored = breaker.tryAcquire();
+        trip();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        long probe = breaker.tryAcquire();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        breaker.onResult(lateSuccess, FAST, false);
+        breaker.onResult(otherLateSuccess, FAST, false);
+        breaker.onIgnored(lateIgnored);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+        // only the second probe is left: the late calls neither finished probes nor returned one
+        long secondProbe = breaker.tryAcquire();
+        assertThat(secondProbe).isNotEqualTo(CircuitBreaker.NOT_PERMITTED);
+        assertThat(breaker.tryAcquire()).isEqualTo(CircuitBreaker.NOT_PERMITTED);
+        breaker.onResult(probe, FAST, true);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        breaker.onResult(secondProbe, FAST, false);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    private void trip() {
+        for (int i = 0; i < 4; i++) {
+            call(FAST, true);
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    private void call(long durationNanos, boolean failed) {
+        long permit = breaker.tryAcquire();
+        assertThat(permit).isNotEqualTo(CircuitBreaker.NOT_PERMITTED);
+        breaker.onResult(permit, durationNanos, failed);
+    }
+}
@@ -0,0 +1,107 @@
+package com.fnp.integrations.http;
+
+import com.fnp.integrations.constants.DynamicConstants;
+import com.fnp.integrations.exception.ResponseException;
+import com.fnp.integrations.support.TestConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HedgingPolicyTest {
+
+    private static final String OPERATION = "lalamove.quotations";
+    private static final String HOST = "upstream.example.com";
+
+    private DynamicConstants constants;
+    private HedgingPolicy hedgingPolicy;
+
+    @BeforeEach
+    void setUp() {
+        constants = TestConstants.dynamicConstants();
+        constants.setHttpHedgingMinSamples(5);
+        constants.setHttpHedgingMinDelay(10);
+        hedgingPolicy = new HedgingPolicy(constants, new RateLimiterRegistry(constants), new CircuitBreakerRegistry(constants));
+    }
+
+    @Test
+    void aSlowFirstAttemptIsHedgedAndTheLoserCancelled() {
+        assertThat(hedgingPolicy.getStats(OPERATION)).containsEntry("hedgeDelayMs", null);
+        warmUp();
+        assertThat(hedgingPolicy.getStats(OPERATION)).containsEntry("hedgeDelayMs", 10L);
+
+        List<CompletableFuture<String>> attempts = new ArrayList<>();
+        String result = hedgingPolicy.call(OPERATION, HOST, record(attempts, new CompletableFuture<>(), CompletableFuture.completedFuture("hedge")),
+                () -> "fallback");
+
+        assertThat(result).isEqualTo("hedge");
+        assertThat(attempts).hasSize(2);
+        assertThat(attempts.get(0)).isCancelled();
+        assertThat(hedgingPolicy.getStats(OPERATION)).containsEntry("hedges", 1L).containsEntry("hedgeWins", 1L);
+    }
+
+    @Test
+    void aFailedAttemptWaitsForTheOtherOne() {
+        warmUp();
+        List<CompletableFuture<String>> attempts = new ArrayList<>();
+        CompletableFuture<String> primary = new CompletableFuture<>();
+        CompletableFuture<String> hedge = new CompletableFuture<>();
+        CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS).execute(() -> primary.completeExceptionally(new ResponseException(500, "down")));
+        CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS).execute(() -> hedge.complete("hedge"));
+
+        assertThat(hedgingPolicy.call(OPERATION, HOST, record(attempts, primary, hedge), () -> "fallback")).isEqualTo("hedge");
+
+        CompletableFuture<String> failedPrimary = CompletableFuture.failedFuture(new ResponseException(404, "not found"));
+        assertThatThrownBy(() -> hedgingPolicy.call(OPERATION, HOST, () -> failedPrimary, () -> "fallback"))
+                .isInstanceOf(ResponseException.class)
+                .hasMessage("not found");
+    }
+
+    @Test
+    void theBudgetStopsHedgingAndAnOpenCircuitFallsBack() {
+        constants.setHttpHedgingBudgetPercent(0);
+        constants.setHttpHedgingBudgetMinPerSecond(0);
+        CircuitBreakerRegistry circuitBreakerRegistry = new CircuitBreakerRegistry(constants);
+        hedgingPolicy = new HedgingPolicy(constants, new RateLimiterRegistry(constants), circuitBreakerRegistry);
+        warmUp();
+
+        List<CompletableFuture<String>> attempts = new ArrayList<>();
+        CompletableFuture<String> slow = new CompletableFuture<>();
+        CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS).execute(() -> slow.complete("primary"));
+        assertThat(hedgingPolicy.call(OPERATION, HOST, record(attempts, slow), () -> "fallback")).isEqualTo("primary");
+        assertThat(attempts).hasSize(1);
+        assertThat(hedgingPolicy.getStats(OPERATION)).containsEntry("hedges", 0L).containsEntry("budgetExhausted", 1L);
+
+        CircuitBreaker breaker = circuitBreakerRegistry.forHost(HOST);
+        for (int i = 0; i < constants.getHttpCircuitBreakerWindowSize() && breaker.getState() == CircuitBreaker.State.CLOSED; i++) {
+            breaker.onResult(breaker.tryAcquire(), 0, true);
+        }
+        assertThat(hedgingPolicy.call(OPERATION, HOST, record(attempts, slow), () -> "fallback")).isEqualTo("fallback");
+        assertThat(attempts).hasSize(1);
+    }
+
+    private void warmUp() {
+        for (int i = 0; i < constants.getHttpHedgingMinSamples(); i++) {
+            hedgingPolicy.call(OPERATION, HOST, () -> CompletableFuture.completedFuture("fast"), () -> "fallback");
+        }
+    }
+
+    /**
+     * Hands out the given futures in order and keeps the ones handed out.
+     */
+    @SafeVarargs
+    private static Supplier<CompletableFuture<String>> record(List<CompletableFuture<String>> attempts, CompletableFuture<String>... futures) {
+        return () -> {
+            CompletableFuture<String> next = futures[attempts.size()];
+            attempts.add(next);
+            return next;
+        };
+    }
+}
@@ -0,0 +1,173 @@
+package com.fnp.integrations.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fnp.integrations.config.RestTemplateConfig;
+import com.fnp.integrations.constants.DynamicConstants;
+import com.fnp.integrations.service.impl.AsyncRestClientImpl;
+import com.fnp.integrations.support.StubHttpServer;
+import com.fnp.integrations.support.TestConstants;
+import com.sun.net.httpserver.HttpExchange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HttpCompressionTest {
+
+    // large and repetitive enough to compress well and to pass the request threshold
+    private static final String NOTE = "leave at the reception desk, ".repeat(200);
+
+    private StubHttpServer server;
+    private DynamicConstants constants;
+    private HttpCompression httpCompression;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new StubHttpServer(false, 0)
+                .handle("/echo", HttpCompressionTest::echo)
+                .start();
+        constants = TestConstants.dynamicConstants();
+        constants.setHttpCompressionRequestHosts(new String[]{"127.0.0.1=1024"});
+        httpCompression = new HttpCompression(constants);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void bothClientsSendGzipAboveTheHostThresholdAndDecodeGzipResponses() throws Exception {
+        RestTemplateConfig config = new RestTemplateConfig(constants);
+        CloseableHttpClient pooledClient = config.httpClient(config.httpClientConnectionManager());
+        RestTemplate restTemplate = config.restTemplate(new HttpComponentsClientHttpRequestFactory(pooledClient), new ObjectMapper(), httpCompression);
+        HttpClient httpClient = config.asyncHttpClient();
+        AsyncRestClientImpl asyncRestClient = new AsyncRestClientImpl(httpClient, new ObjectMapper(), constants,
+                new OutboundLogger(new ObjectMapper(), constants), new OutboundMetrics(new SimpleMeterRegistry(),
+                new RateLimiterRegistry(constants), new CircuitBreakerRegistry(constants), new RetryPolicy(constants)), httpCompression);
+
+        Map<String, Object> blocking = restTemplate.postForObject(server.getBaseUrl() + "/echo", Map.of("note", NOTE), Map.class);
+        Map<String, Object> async = asyncRestClient.post(server.getBaseUrl() + "/echo", null, Map.of("note", NOTE), Map.class, true)
+                .get(5, TimeUnit.SECONDS);
+        Map<String, Object> small = restTemplate.postForObject(server.getBaseUrl() + "/echo", Map.of("note", "ring twice"), Map.class);
+
+        assertThat(blocking).containsEntry("note", NOTE).containsEntry("requestEncoding", "gzip").containsEntry("acceptEncoding", "gzip, deflate");
+        assertThat(async).containsEntry("note", NOTE).containsEntry("requestEncoding", "gzip").containsEntry("acceptEncoding", "gzip, deflate");
+        assertThat(small).containsEntry("note", "ring twice").containsEntry("requestEncoding", "identity");
+
+        Map<String, Object> host = (Map<String, Object>) ((Map<String, Object>) httpCompression.getStats().get("hosts")).get("127.0.0.1");
+        assertThat(host).containsEntry("compressedRequests", 2L).containsEntry("compressedResponses", 3L);
+        assertThat((Long) host.get("requestWireBytes")).isLessThan((Long) host.get("requestBytes") / 10);
+        assertThat((Long) host.get("responseWireBytes")).isLessThan((Long) host.get("responseBytes") / 10);
+        assertThat((Long) host.get("savedBytes")).isGreaterThan(2L * NOTE.length());
+    }
+
+    @Test
+    void deflateIsDecodedWithOrWithoutTheZlibWrapperAndEmptyBodiesStayEmpty() throws IOException {
+        byte[] json = ("{\"note\":\"" + NOTE + "\"}").getBytes(StandardCharsets.UTF_8);
+
+        assertThat(decode("deflate", deflate(json, false))).isEqualTo(json);
+        assertThat(decode("deflate", deflate(json, true))).isEqualTo(json);
+        assertThat(decode("x-gzip", gzip(json))).isEqualTo(json);
+        assertThat(decode("gzip", new byte[0])).isEmpty();
+        assertThat(decode("br", json)).isEqualTo(json); // not ours to decode: passed through
+    }
+
+    @Test
+    void closingAPartlyReadResponseClosesTheDecodingStreamBeforeTheResponse() throws IOException {
+        List<String> closed = new ArrayList<>();
+        InputStream wire = new ByteArrayInputStream(gzip(NOTE.getBytes(StandardCharsets.UTF_8))) {
+            @Override
+            public void close() {
+                closed.add("body");
+            }
+        };
+        MockClientHttpResponse upstream = new MockClientHttpResponse(wire, HttpStatus.OK) {
+            @Override
+            public void close() {
+                closed.add("response");
+            }
+        };
+        upstream.getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+
+        ClientHttpResponse response = httpCompression.intercept(
+                new MockClientHttpRequest(HttpMethod.GET, "https://upstream.example.com/v3/orders/1"), new byte[0],
+                (request, body) -> upstream);
+        assertThat(response.getBody().read(new byte[16])).isEqualTo(16);
+        response.close();
+
+        assertThat(closed).containsExactly("body", "response");
+    }
+
+    private byte[] decode(String contentEncoding, byte[] wire) throws IOException {
+        try (InputStream body = httpCompression.decodeResponse("upstream.example.com", contentEncoding, new ByteArrayInputStream(wire))) {
+            return body.readAllBytes();
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(bytes);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] bytes, boolean raw) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (OutputStream out = new DeflaterOutputStream(buffer, new Deflater(Deflater.DEFAULT_COMPRESSION, raw))) {
+            out.write(bytes);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Answers with the request's JSON object plus the codings it arrived with, gzipped when the
+     * client accepts gzip.
+     */
+    private static void echo(HttpExchange exchange) throws IOException {
+        String requestEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+        InputStream in = "gzip".equals(requestEncoding) ? new GZIPInputStream(exchange.getRequestBody()) : exchange.getRequestBody();
+        String json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        byte[] body = (json.substring(0, json.length() - 1) + ",\"requestEncoding\":\"" + (null != requestEncoding ? requestEncoding : "identity")
+                + "\",\"acceptEncoding\":\"" + acceptEncoding + "\"}").getBytes(StandardCharsets.UTF_8);
+        boolean gzip = null != acceptEncoding && acceptEncoding.contains("gzip");
+        byte[] wire = gzip ? gzip(body) : body;
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        if (gzip) {
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(200, wire.length);
+        exchange.getResponseBody().write(wire);
+        exchange.close();
+    }
+}
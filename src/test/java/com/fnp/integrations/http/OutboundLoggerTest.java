@@ -0,0 +1,58 @@
+package com.fnp.integrations.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fnp.integrations.constants.DynamicConstants;
+import com.fnp.integrations.support.TestConstants;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OutboundLoggerTest {
+
+    private final DynamicConstants constants = TestConstants.dynamicConstants();
+
+    @Test
+    void secretHeadersAreMasked() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "hmac pk_test:1700000000000:3f2a9c");
+        headers.set("market", "SG");
+
+        String rendered = new OutboundLogger(new ObjectMapper(), constants).redact(headers);
+
+        assertThat(rendered).isEqualTo("[Authorization:***, market:[SG]]");
+    }
+
+    @Test
+    void secretFieldsAreMaskedInObjectsAndPreSerializedBodies() {
+        OutboundLogger logger = new OutboundLogger(new ObjectMapper(), constants);
+
+        assertThat(logger.render(Map.of("user", "ops", "password", "hunter2")))
+                .contains("\"user\":\"ops\"").contains("\"password\":\"***\"").doesNotContain("hunter2");
+        assertThat(logger.render("{\"data\":{\"accessToken\" : \"abc\\\"def\",\"pin\":1234,\"apiKey\":98765}}"
+                .getBytes(StandardCharsets.UTF_8)))
+                .isEqualTo("{\"data\":{\"accessToken\":\"***\",\"pin\":1234,\"apiKey\":\"***\"}}");
+    }
+
+    @Test
+    void longBodiesAreTruncated() {
+        constants.setHttpLoggingMaxBodyLength(10);
+
+        String rendered = new OutboundLogger(new ObjectMapper(), constants).render("x".repeat(50));
+
+        assertThat(rendered).isEqualTo("xxxxxxxxxx... (50 chars)");
+    }
+
+    @Test
+    void zeroSampleRateLogsNothing() {
+        constants.setHttpLoggingSampleRate(0);
+        OutboundLogger logger = new OutboundLogger(new ObjectMapper(), constants);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(logger.sample()).isFalse();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.fnp.integrations.http;
+
+import com.fnp.integrations.constants.DynamicConstants;
+import com.fnp.integrations.support.TestConstants;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.SocketException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryPolicyTest {
+
+    @Test
+    void budgetAllowsRetriesInProportionToTraffic() {
+        RetryBudget budget = new RetryBudget(10, 0);
+        for (int i = 0; i < 20; i++) {
+            budget.onRequest();
+        }
+
+        assertThat(budget.tryRetry()).isTrue();
+        assertThat(budget.tryRetry()).isTrue();
+        assertThat(budget.tryRetry()).isFalse();
+        assertThat(budget.getRetries()).isEqualTo(2);
+        assertThat(budget.getExhausted()).isEqualTo(1);
+    }
+
+    @Test
+    void budgetReserveCoversLowTraffic() {
+        RetryBudget budget = new RetryBudget(10, 2);
+        budget.onRequest();
+
+        assertThat(budget.tryRetry()).isTrue();
+        assertThat(budget.tryRetry()).isTrue();
+    }
+
+    @Test
+    void backoffStaysWithinBoundsAndHonoursRetryAfter() {
+        DynamicConstants constants = TestConstants.dynamicConstants();
+        RetryPolicy policy = new RetryPolicy(constants);
+
+        long previous = 0;
+        for (int i = 0; i < 50; i++) {
+            previous = policy.backoffMillis(previous, -1);
+            assertThat(previous).isBetween(constants.getHttpRetryBackoffBase(), constants.getHttpRetryBackoffMax());
+        }
+        assertThat(policy.backoffMillis(0, 1500)).isGreaterThanOrEqualTo(1500);
+        assertThat(policy.backoffMillis(0, 60_000)).isEqualTo(-1);
+    }
+
+    @Test
+    void onlyTransientFailuresOfIdempotentRequestsQualify() {
+        assertThat(RetryPolicy.isRetryable(new ResourceAccessException("reset", new SocketException("Connection reset")))).isTrue();
+        assertThat(RetryPolicy.isRetryable(HttpServerErrorException.create(HttpStatus.GATEWAY_TIMEOUT, "", null, null, null))).isTrue();
+        assertThat(RetryPolicy.isRetryable(HttpServerErrorException.create(HttpStatus.NOT_IMPLEMENTED, "", null, null, null))).isFalse();
+        assertThat(RetryPolicy.isRetryable(HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "", null, null, null))).isTrue();
+        assertThat(RetryPolicy.isRetryable(HttpClientErrorException.create(HttpStatus.CONFLICT, "", null, null, null))).isFalse();
+
+        HttpHeaders keyed = new HttpHeaders();
+        keyed.set(RetryPolicy.IDEMPOTENCY_KEY_HEADER, "abc");
+        assertThat(RetryPolicy.isIdempotent(HttpMethod.PUT, new HttpHeaders())).isTrue();
+        assertThat(RetryPolicy.isIdempotent(HttpMethod.POST, new HttpHeaders())).isFalse();
+        assertThat(RetryPolicy.isIdempotent(HttpMethod.POST, keyed)).isTrue();
+    }
+}
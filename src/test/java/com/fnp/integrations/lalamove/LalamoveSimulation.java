@@ -0,0 +1,166 @@
+package com.fnp.integrations.lalamove;
+
+import java.util.Random;
+
+/**
+ * How {@link LalamoveStubServer} behaves beyond answering with the canned payloads: request
+ * signature checks, response latency, and injected 5xx and 429 answers. {@link #none()} is the
+ * plain stub; the other settings are chained onto it, or read from system properties by
+ * {@link #fromSystemProperties()} when the stub runs on its own.
+ */
+public final class LalamoveSimulation {
+
+    private String appKey;
+    private String appSecret;
+    private Latency latency = Latency.fixed(0);
+    private double errorRate;
+    private double throttleRate;
+    private int retryAfterSeconds = 1;
+
+    private LalamoveSimulation() {
+    }
+
+    public static LalamoveSimulation none() {
+        return new LalamoveSimulation();
+    }
+
+    /**
+     * Reads {@code simulator.app-key}, {@code simulator.app-secret}, {@code simulator.latency}
+     * (see {@link Latency#parse(String)}), {@code simulator.error-rate},
+     * {@code simulator.throttle-rate} and {@code simulator.retry-after}.
+     */
+    public static LalamoveSimulation fromSystemProperties() {
+        LalamoveSimulation simulation = none()
+                .latency(Latency.parse(System.getProperty("simulator.latency", "fixed:0")))
+                .errorRate(Double.parseDouble(System.getProperty("simulator.error-rate", "0")))
+                .throttleRate(Double.parseDouble(System.getProperty("simulator.throttle-rate", "0")))
+                .retryAfterSeconds(Integer.parseInt(System.getProperty("simulator.retry-after", "1")));
+        String appKey = System.getProperty("simulator.app-key");
+        String appSecret = System.getProperty("simulator.app-secret");
+        return null != appKey && null != appSecret ? simulation.verifySignatures(appKey, appSecret) : simulation;
+    }
+
+    /**
+     * Answers 401 unless the {@code Authorization} header is {@code hmac <appKey>:<timestamp>:<signature>}
+     * over the exact body received, the timestamp is within five minutes and {@code market} is set.
+     */
+    public LalamoveSimulation verifySignatures(String appKey, String appSecret) {
+        this.appKey = appKey;
+        this.appSecret = appSecret;
+        return this;
+    }
+
+    public LalamoveSimulation latency(Latency latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    /**
+     * Share of requests answered 500 after the latency.
+     */
+    public LalamoveSimulation errorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    /**
+     * Share of requests answered 429 with {@code Retry-After}, drawn before {@link #errorRate(double)}.
+     */
+    public LalamoveSimulation throttleRate(double throttleRate) {
+        this.throttleRate = throttleRate;
+        return this;
+    }
+
+    public LalamoveSimulation retryAfterSeconds(int retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+        return this;
+    }
+
+    boolean isVerifyingSignatures() {
+        return null != appKey;
+    }
+
+    String getAppKey() {
+        return appKey;
+    }
+
+    String getAppSecret() {
+        return appSecret;
+    }
+
+    Latency getLatency() {
+        return latency;
+    }
+
+    double getErrorRate() {
+        return errorRate;
+    }
+
+    double getThrottleRate() {
+        return throttleRate;
+    }
+
+    int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("latency %s, error rate %.3f, throttle rate %.3f, signatures %s",
+                latency, errorRate, throttleRate, isVerifyingSignatures() ? "verified" : "not checked");
+    }
+
+    /**
+     * Distribution of the time the stub waits before answering.
+     */
+    public interface Latency {
+
+        long sampleMillis(Random random);
+
+        static Latency fixed(long millis) {
+            return named("fixed:" + millis, random -> millis);
+        }
+
+        static Latency uniform(long minMillis, long maxMillis) {
+            return named("uniform:" + minMillis + "-" + maxMillis, random -> minMillis + random.nextLong(maxMillis - minMillis + 1));
+        }
+
+        /**
+         * Log-normal with the given median and 99th percentile, the usual shape of a remote API's
+         * response times: most calls near the median and a long right tail.
+         */
+        static Latency logNormal(long medianMillis, long p99Millis) {
+            double sigma = Math.log((double) p99Millis / medianMillis) / 2.326;
+            return named("lognormal:" + medianMillis + "," + p99Millis,
+                    random -> Math.round(medianMillis * Math.exp(sigma * random.nextGaussian())));
+        }
+
+        /**
+         * {@code fixed:<ms>}, {@code uniform:<min>-<max>} or {@code lognormal:<median>,<p99>}.
+         */
+        static Latency parse(String spec) {
+            String[] parts = spec.split(":", 2);
+            String[] values = parts.length > 1 ? parts[1].split("[-,]") : new String[]{"0"};
+            return switch (parts[0]) {
+                case "fixed" -> fixed(Long.parseLong(values[0]));
+                case "uniform" -> uniform(Long.parseLong(values[0]), Long.parseLong(values[1]));
+                case "lognormal" -> logNormal(Long.parseLong(values[0]), Long.parseLong(values[1]));
+                default -> throw new IllegalArgumentException("Unknown latency distribution " + spec);
+            };
+        }
+
+        private static Latency named(String name, Latency latency) {
+            return new Latency() {
+                @Override
+                public long sampleMillis(Random random) {
+                    return latency.sampleMillis(random);
+                }
+
+                @Override
+                public String toString() {
+                    return name;
+                }
+            };
+        }
+    }
+}
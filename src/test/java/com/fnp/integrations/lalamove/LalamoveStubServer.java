@@ -0,0 +1,213 @@
+package com.fnp.integrations.lalamove;
+
+import com.fnp.integrations.lalamove.services.LalamoveRequestSigner;
+import com.fnp.integrations.support.StubHttpServer;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Local stand-in for the Lalamove {@code /v3} API serving the canned payloads under
+ * {@code src/test/resources/lalamove}: quotations, order placement and order reads.
+ * {@code {{quotationId}}}, {@code {{orderId}}} and
+ * {@code {{expiresAt}}} placeholders are filled per response. A {@link LalamoveSimulation} adds
+ * signature checks, latency and injected failures; every request is counted by outcome.
+ * <p>
+ * Run on its own and point the application at it with {@code --lalamove.scheme=http
+ * --lalamove.hostname=127.0.0.1:<port>}:
+ * <pre>
+ * java -Dsimulator.port=8089 -Dsimulator.latency=lognormal:80,400 -Dsimulator.throttle-rate=0.02 \
+ *     -Dsimulator.app-key=... -Dsimulator.app-secret=... \
+ *     -cp target/test-classes:target/classes:$(cat /tmp/cp.txt) com.fnp.integrations.lalamove.LalamoveStubServer
+ * </pre>
+ */
+public class LalamoveStubServer implements AutoCloseable {
+
+    private static final long MAX_CLOCK_SKEW_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final String UNAUTHORIZED = "{\"errors\":[{\"id\":\"ERR_UNAUTHORIZED\",\"message\":\"Invalid signature\"}]}";
+    private static final String TOO_MANY_REQUESTS = "{\"errors\":[{\"id\":\"ERR_TOO_MANY_REQUESTS\",\"message\":\"Rate limit exceeded\"}]}";
+    private static final String INTERNAL_ERROR = "{\"errors\":[{\"id\":\"ERR_INTERNAL\",\"message\":\"Simulated failure\"}]}";
+
+    private final StubHttpServer server;
+    private final LalamoveSimulation simulation;
+    private final LalamoveRequestSigner signer;
+    private final String quotationTemplate;
+    private final String orderTemplate;
+    private final AtomicLong sequence = new AtomicLong(1514140994227000000L);
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong unauthorized = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public LalamoveStubServer(boolean tls, int threads) throws IOException {
+        this(tls, threads, 0, LalamoveSimulation.none());
+    }
+
+    /**
+     * @param threads handler pool size, or 0 for a virtual thread per exchange, which any simulated
+     *                latency needs so that sleeping handlers do not cap the concurrency
+     */
+    public LalamoveStubServer(boolean tls, int threads, int port, LalamoveSimulation simulation) throws IOException {
+        this.simulation = simulation;
+        this.signer = simulation.isVerifyingSignatures()
+                ? new LalamoveRequestSigner(simulation.getAppKey(), simulation.getAppSecret())
+                : null;
+        quotationTemplate = resource("lalamove/quotation-response.json");
+        orderTemplate = resource("lalamove/order-response.json");
+        server = new StubHttpServer(tls, threads, port)
+                .handle("/v3/quotations", exchange -> simulate(exchange, "/v3/quotations", 201, this::quotation))
+                .handle("/v3/orders", this::orders);
+    }
+
+    public static void main(String[] args) throws IOException {
+        LalamoveSimulation simulation = LalamoveSimulation.fromSystemProperties();
+        LalamoveStubServer server = new LalamoveStubServer(false, 0,
+                Integer.getInteger("simulator.port", 8089), simulation).start();
+        System.out.printf("Lalamove simulator on http://%s (%s)%n", server.getHostname(), simulation);
+    }
+
+    public LalamoveStubServer start() {
+        server.start();
+        return this;
+    }
+
+    /**
+     * Value for {@code lalamove.hostname}.
+     */
+    public String getHostname() {
+        return server.getHostAndPort();
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getUnauthorized() {
+        return unauthorized.get();
+    }
+
+    public long getThrottled() {
+        return throttled.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    @Override
+    public void close() {
+        server.close();
+    }
+
+    public static String resource(String name) throws IOException {
+        try (InputStream in = LalamoveStubServer.class.getClassLoader().getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IOException("Missing test resource " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * {@code POST /v3/orders} places an order; {@code GET /v3/orders/{orderId}} reads one back.
+     */
+    private void orders(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if ("GET".equals(exchange.getRequestMethod())) {
+            String orderId = path.substring(path.lastIndexOf('/') + 1);
+            simulate(exchange, path, 200, () -> orderTemplate.replace("{{orderId}}", orderId));
+        } else {
+            simulate(exchange, "/v3/orders", 201, this::order);
+        }
+    }
+
+    private void simulate(HttpExchange exchange, String path, int status, Supplier<String> success) throws IOException {
+        requests.incrementAndGet();
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        if (null != signer && !isSigned(exchange, path, body)) {
+            unauthorized.incrementAndGet();
+            respond(exchange, 401, UNAUTHORIZED);
+            return;
+        }
+
+        Random random = ThreadLocalRandom.current();
+        long delay = simulation.getLatency().sampleMillis(random);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        double roll = random.nextDouble();
+        if (roll < simulation.getThrottleRate()) {
+            throttled.incrementAndGet();
+            exchange.getResponseHeaders().set("Retry-After", String.valueOf(simulation.getRetryAfterSeconds()));
+            respond(exchange, 429, TOO_MANY_REQUESTS);
+        } else if (roll < simulation.getThrottleRate() + simulation.getErrorRate()) {
+            failed.incrementAndGet();
+            respond(exchange, 500, INTERNAL_ERROR);
+        } else {
+            respond(exchange, status, success.get());
+        }
+    }
+
+    /**
+     * Recomputes the signature the way Lalamove does: over the timestamp, method, path and the
+     * body bytes as received.
+     */
+    private boolean isSigned(HttpExchange exchange, String path, byte[] body) {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (null == authorization || !authorization.startsWith("hmac ")
+                || null == exchange.getRequestHeaders().getFirst("market")) {
+            return false;
+        }
+        String[] parts = authorization.substring("hmac ".length()).split(":");
+        if (parts.length != 3 || !simulation.getAppKey().equals(parts[0])) {
+            return false;
+        }
+        long timestamp;
+        try {
+            timestamp = Long.parseLong(parts[1]);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (Math.abs(System.currentTimeMillis() - timestamp) > MAX_CLOCK_SKEW_MILLIS) {
+            return false;
+        }
+        String expected = signer.authorization(timestamp,
+                LalamoveRequestSigner.target(exchange.getRequestMethod(), path), body);
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.US_ASCII),
+                authorization.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private String quotation() {
+        return quotationTemplate
+                .replace("{{quotationId}}", String.valueOf(sequence.incrementAndGet()))
+                .replace("{{expiresAt}}", Instant.now().plus(5, ChronoUnit.MINUTES).truncatedTo(ChronoUnit.SECONDS).toString());
+    }
+
+    private String order() {
+        return orderTemplate.replace("{{orderId}}", String.valueOf(sequence.incrementAndGet()));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
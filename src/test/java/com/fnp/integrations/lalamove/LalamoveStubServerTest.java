@@ -0,0 +1,110 @@
+package com.fnp.integrations.lalamove;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fnp.integrations.config.RestTemplateConfig;
+import com.fnp.integrations.constants.DynamicConstants;
+import com.fnp.integrations.exception.ResponseException;
+import com.fnp.integrations.http.CircuitBreakerRegistry;
+import com.fnp.integrations.http.HedgingPolicy;
+import com.fnp.integrations.http.HttpCompression;
+import com.fnp.integrations.http.OutboundLogger;
+import com.fnp.integrations.http.OutboundMetrics;
+import com.fnp.integrations.http.RateLimiterRegistry;
+import com.fnp.integrations.http.RetryPolicy;
+import com.fnp.integrations.lalamove.dtos.LalamoveDeliveryRequestWrapper;
+import com.fnp.integrations.lalamove.repositories.LalamoveOrderSnapshotRepository;
+import com.fnp.integrations.lalamove.repositories.LalamoveWebhookEventRepository;
+import com.fnp.integrations.lalamove.services.LalamoveJson;
+import com.fnp.integrations.lalamove.services.LalamoveOrderReadModel;
+import com.fnp.integrations.lalamove.services.LalamoveQuotationCache;
+import com.fnp.integrations.lalamove.services.LalamoveRequestSigner;
+import com.fnp.integrations.lalamove.services.LalamoveService;
+import com.fnp.integrations.service.AsyncRestClient;
+import com.fnp.integrations.service.impl.RestClientImpl;
+import com.fnp.integrations.support.TestConstants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class LalamoveStubServerTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private LalamoveStubServer server;
+    private final List<CloseableHttpClient> httpClients = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (CloseableHttpClient httpClient : httpClients) {
+            httpClient.close();
+        }
+        server.close();
+    }
+
+    @Test
+    void acceptsRequestsSignedWithTheAppSecretOnly() throws Exception {
+        server = new LalamoveStubServer(false, 0, 0, LalamoveSimulation.none()
+                .verifySignatures(TestConstants.LALAMOVE_APP_KEY, TestConstants.LALAMOVE_APP_SECRET)).start();
+
+        assertThat(lalamoveService(TestConstants.LALAMOVE_APP_SECRET).getQuotations(quotationRequest())
+                .getData().getQuotationId()).isNotBlank();
+        assertThatThrownBy(() -> lalamoveService("sk_test_wrong").getQuotations(quotationRequest()))
+                .isInstanceOf(ResponseException.class);
+        assertThat(server.getUnauthorized()).isEqualTo(1);
+        assertThat(server.getRequests()).isEqualTo(2);
+    }
+
+    @Test
+    void injectsThrottlingAfterTheConfiguredLatency() throws Exception {
+        server = new LalamoveStubServer(false, 0, 0, LalamoveSimulation.none()
+                .latency(LalamoveSimulation.Latency.fixed(50))
+                .throttleRate(1.0)).start();
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> lalamoveService(TestConstants.LALAMOVE_APP_SECRET).getQuotations(quotationRequest()))
+                .isInstanceOf(ResponseException.class);
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(50_000_000L);
+        assertThat(server.getThrottled()).isEqualTo(1);
+    }
+
+    private LalamoveService lalamoveService(String appSecret) {
+        DynamicConstants constants = TestConstants.dynamicConstants();
+        constants.setLalamoveScheme("http");
+        constants.setLalamoveHostname(server.getHostname());
+        constants.setLalamoveAppSecret(appSecret);
+        constants.setHttpRetryEnabled(false);
+        RestTemplateConfig config = new RestTemplateConfig(constants);
+        CloseableHttpClient httpClient = config.httpClient(config.httpClientConnectionManager());
+        httpClients.add(httpClient);
+        RestTemplate restTemplate = config.restTemplate(new HttpComponentsClientHttpRequestFactory(httpClient), objectMapper,
+                new HttpCompression(constants));
+
+        RateLimiterRegistry rateLimiterRegistry = new RateLimiterRegistry(constants);
+        RetryPolicy retryPolicy = new RetryPolicy(constants);
+        CircuitBreakerRegistry circuitBreakerRegistry = new CircuitBreakerRegistry(constants);
+        RestClientImpl restClient = new RestClientImpl(restTemplate, rateLimiterRegistry, retryPolicy, circuitBreakerRegistry,
+                new OutboundLogger(objectMapper, constants),
+                new OutboundMetrics(new SimpleMeterRegistry(), rateLimiterRegistry, circuitBreakerRegistry, retryPolicy), objectMapper, constants);
+        // no snapshot is found or kept; with quotation hedging off the async client is never called
+        LalamoveOrderReadModel orderReadModel = new LalamoveOrderReadModel(mock(LalamoveOrderSnapshotRepository.class),
+                mock(LalamoveWebhookEventRepository.class), new LalamoveJson(objectMapper), constants);
+        return new LalamoveService(restClient, mock(AsyncRestClient.class), new LalamoveJson(objectMapper),
+                new LalamoveRequestSigner(constants), new LalamoveQuotationCache(constants), orderReadModel,
+                new HedgingPolicy(constants, rateLimiterRegistry, circuitBreakerRegistry), constants);
+    }
+
+    private LalamoveDeliveryRequestWrapper quotationRequest() throws Exception {
+        return objectMapper.readValue(LalamoveStubServer.resource("lalamove/quotation-request.json"),
+                LalamoveDeliveryRequestWrapper.class);
+    }
+}
@@ -0,0 +1,29 @@
+package com.fnp.integrations.lalamove.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fnp.integrations.lalamove.LalamoveStubServer;
+import com.fnp.integrations.lalamove.dtos.LalamoveOrderResponseDto;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LalamoveOrderTest {
+
+    @Test
+    void keepsWhatTracksTheOrderAndDropsStopContacts() throws Exception {
+        LalamoveOrderResponseDto wire = new ObjectMapper().readValue(LalamoveStubServer.resource("lalamove/order-response.json")
+                .replace("{{orderId}}", "3351234611470438"), LalamoveOrderResponseDto.class);
+
+        LalamoveOrderResponseDto.DataPayload data = LalamoveOrder.from(wire).toDto().getData();
+
+        assertThat(data.getOrderId()).isEqualTo("3351234611470438");
+        assertThat(data.getStatus()).isEqualTo("ASSIGNING_DRIVER");
+        assertThat(data.getShareLink()).isEqualTo(wire.getData().getShareLink());
+        assertThat(data.getPriceBreakdown()).isEqualTo(wire.getData().getPriceBreakdown());
+        assertThat(data.getDistance()).isEqualTo(wire.getData().getDistance());
+        assertThat(data.getStops()).extracting(LalamoveOrderResponseDto.Stop::getCoordinates)
+                .isEqualTo(wire.getData().getStops().stream().map(LalamoveOrderResponseDto.Stop::getCoordinates).toList());
+        assertThat(data.getStops()).allSatisfy(stop -> assertThat(stop.getPhone()).isNull());
+        assertThat(data.getMetadata()).isNull();
+    }
+}
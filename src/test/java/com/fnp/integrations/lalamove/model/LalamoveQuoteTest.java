@@ -0,0 +1,79 @@
+package com.fnp.integrations.lalamove.model;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fnp.integrations.lalamove.LalamoveStubServer;
+import com.fnp.integrations.lalamove.dtos.LalamoveDeliveryRequestWrapper;
+import com.fnp.integrations.lalamove.dtos.LalamoveQuotationResponseDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LalamoveQuoteTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    @Test
+    void roundTripKeepsEveryFieldTheApiReturns() throws Exception {
+        LalamoveQuotationResponseDto wire = quotation();
+        LalamoveDeliveryRequestWrapper request = objectMapper.readValue(
+                LalamoveStubServer.resource("lalamove/quotation-request.json"), LalamoveDeliveryRequestWrapper.class);
+
+        LalamoveQuote quote = LalamoveQuote.from(wire);
+
+        assertThat(quote.getTotal()).isEqualTo(1550);
+        assertThat(quote.getExtraMileage()).isEqualTo(600);
+        assertThat(quote.getCurrency()).isEqualTo("SGD");
+        assertThat(quote.getExpiresAt()).isEqualTo(Instant.parse("2025-01-01T10:05:00Z").toEpochMilli());
+        assertThat(quote.getLat(1)).isEqualTo(1.2966147);
+        assertThat(quote.getServiceType()).isSameAs(LalamoveQuote.from(quotation()).getServiceType());
+
+        LalamoveQuotationResponseDto.QuotationData expected = wire.getData();
+        for (int i = 0; i < expected.getStops().size(); i++) {
+            expected.getStops().get(i).setAddress(request.getData().getStops().get(i).getAddress());
+        }
+        assertThat(quote.toDto(request).getData()).isEqualTo(expected);
+    }
+
+    @Test
+    void cacheHitReturnsTheBytesOfTheMiss() throws Exception {
+        LalamoveQuotationResponseDto wire = quotation(); // amounts as sent: "9.5", "6", "0", "15.5"
+        LalamoveDeliveryRequestWrapper request = objectMapper.readValue(
+                LalamoveStubServer.resource("lalamove/quotation-request.json"), LalamoveDeliveryRequestWrapper.class);
+        byte[] miss = objectMapper.writeValueAsBytes(wire);
+
+        assertThat(objectMapper.writeValueAsBytes(LalamoveQuote.from(wire).toDto(request))).isEqualTo(miss);
+
+        wire.getData().getPriceBreakdown().setTotal("100.00");
+        wire.getData().setExpiresAt("2025-01-01T18:05:00.00+08:00");
+        LalamoveQuotationResponseDto.QuotationData data = LalamoveQuote.from(wire).toDto(request).getData();
+        assertThat(data.getPriceBreakdown().getTotal()).isEqualTo("100.00");
+        assertThat(data.getPriceBreakdown().getBase()).isEqualTo("9.5");
+        assertThat(data.getExpiresAt()).isEqualTo("2025-01-01T18:05:00.00+08:00");
+    }
+
+    @Test
+    void amountsThatCannotBeWrittenBackHaveNoCompactForm() throws Exception {
+        LalamoveQuotationResponseDto wire = quotation();
+        wire.getData().getPriceBreakdown().setTotal("1.55E1");
+
+        assertThatThrownBy(() -> LalamoveQuote.from(wire)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void amountsFinerThanTheMinorUnitHaveNoCompactForm() throws Exception {
+        LalamoveQuotationResponseDto wire = quotation();
+        wire.getData().getPriceBreakdown().setTotal("15.505");
+
+        assertThatThrownBy(() -> LalamoveQuote.from(wire)).isInstanceOf(ArithmeticException.class);
+    }
+
+    private LalamoveQuotationResponseDto quotation() throws Exception {
+        return objectMapper.readValue(LalamoveStubServer.resource("lalamove/quotation-response.json")
+                .replace("{{quotationId}}", "1514140994227007571")
+                .replace("{{expiresAt}}", "2025-01-01T10:05:00Z"), LalamoveQuotationResponseDto.class);
+    }
+}
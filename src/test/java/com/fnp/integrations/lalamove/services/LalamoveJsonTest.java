@@ -0,0 +1,34 @@
+package com.fnp.integrations.lalamove.services;
+
+import com.fnp.integrations.lalamove.LalamoveStubServer;
+import com.fnp.integrations.lalamove.dtos.LalamoveOrderRequestWrapper;
+import com.fnp.integrations.lalamove.dtos.LalamoveQuotationResponseDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LalamoveJsonTest {
+
+    private final LalamoveJson lalamoveJson = new LalamoveJson(Jackson2ObjectMapperBuilder.json().build());
+
+    @Test
+    void fieldsAddedUpstreamAreIgnored() throws Exception {
+        String response = LalamoveStubServer.resource("lalamove/quotation-response.json")
+                .replaceFirst("\\{", "{\"newTopLevelField\":{\"nested\":[1,2]},");
+
+        LalamoveQuotationResponseDto quotation = lalamoveJson.getQuotationResponse().read(response);
+
+        assertThat(quotation.getData().getQuotationId()).isEqualTo("{{quotationId}}");
+    }
+
+    @Test
+    void orderRequestRoundTripsThroughTheOutboxPayload() throws Exception {
+        LalamoveOrderRequestWrapper request = lalamoveJson.getOrderRequest()
+                .read(LalamoveStubServer.resource("lalamove/order-request.json"));
+
+        String payload = lalamoveJson.getOrderRequest().writeAsString(request);
+
+        assertThat(lalamoveJson.getOrderRequest().read(payload)).isEqualTo(request);
+    }
+}
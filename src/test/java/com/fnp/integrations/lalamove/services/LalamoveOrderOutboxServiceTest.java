@@ -0,0 +1,151 @@
+package com.fnp.integrations.lalamove.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fnp.integrations.constants.DynamicConstants;
+import com.fnp.integrations.enums.ResponseStatus;
+import com.fnp.integrations.exception.RequestNotSentException;
+import com.fnp.integrations.exception.ResponseException;
+import com.fnp.integrations.lalamove.LalamoveStubServer;
+import com.fnp.integrations.lalamove.dtos.LalamoveOrderRequestWrapper;
+import com.fnp.integrations.lalamove.dtos.LalamoveOrderResponseDto;
+import com.fnp.integrations.lalamove.dtos.LalamoveOrderTrackingDto;
+import com.fnp.integrations.lalamove.entities.LalamoveOrderOutbox;
+import com.fnp.integrations.lalamove.repositories.LalamoveOrderOutboxRepository;
+import com.fnp.integrations.support.TestConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = TestConstants.H2_DIALECT)
+class LalamoveOrderOutboxServiceTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final LalamoveService lalamoveService = mock(LalamoveService.class);
+
+    @Autowired
+    private LalamoveOrderOutboxRepository repository;
+
+    private LalamoveOrderOutboxService outboxService;
+    private LalamoveOrderRequestWrapper request;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        DynamicConstants constants = TestConstants.dynamicConstants();
+        constants.setLalamoveOrderOutboxMaxAttempts(2);
+        outboxService = new LalamoveOrderOutboxService(repository, lalamoveService, new LalamoveJson(objectMapper), constants, Runnable::run);
+        request = objectMapper.readValue(LalamoveStubServer.resource("lalamove/order-request.json"), LalamoveOrderRequestWrapper.class);
+    }
+
+    @Test
+    void acceptedOrderIsPlacedAndReported() throws Exception {
+        when(lalamoveService.placeOrders(any())).thenReturn(placed(request.getData().getQuotationId()));
+
+        LalamoveOrderTrackingDto accepted = outboxService.submit(request);
+        assertThat(accepted.getStatus()).isEqualTo("PENDING");
+
+        LalamoveOrderTrackingDto status = outboxService.getStatus(accepted.getTrackingId());
+        assertThat(status.getStatus()).isEqualTo("SUCCEEDED");
+        assertThat(status.getAttempts()).isEqualTo(1);
+        assertThat(status.getOrderId()).isEqualTo("107900701184");
+        assertThat(status.getOrder().getData().getStatus()).isEqualTo("ASSIGNING_DRIVER");
+    }
+
+    @Test
+    void failureBeforeReachingLalamoveBacksOffUntilAttemptsRunOut() {
+        when(lalamoveService.placeOrders(any())).thenThrow(new RequestNotSentException(
+                ResponseStatus.MICROSERVICE_INTERNAL_ERROR.getErrorCode(), ResponseStatus.MICROSERVICE_INTERNAL_ERROR.getErrorMessage()));
+
+        String trackingId = outboxService.submit(request).getTrackingId();
+        LalamoveOrderTrackingDto status = outboxService.getStatus(trackingId);
+        assertThat(status.getStatus()).isEqualTo("PENDING");
+        assertThat(status.getNextAttemptAt()).isAfter(Instant.now());
+        assertThat(status.getLastErrorCode()).isEqualTo(500);
+
+        makeDue(trackingId);
+        outboxService.drain();
+        status = outboxService.getStatus(trackingId);
+        assertThat(status.getStatus()).isEqualTo("FAILED");
+        assertThat(status.getAttempts()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectedOrderFailsWithoutRetry() {
+        when(lalamoveService.placeOrders(any())).thenThrow(new ResponseException(
+                ResponseStatus.MICROSERVICE_EXCHANGE_ERROR.getErrorCode(), "Quotation expired"));
+
+        LalamoveOrderTrackingDto status = outboxService.getStatus(outboxService.submit(request).getTrackingId());
+
+        assertThat(status.getStatus()).isEqualTo("FAILED");
+        assertThat(status.getAttempts()).isEqualTo(1);
+        assertThat(status.getLastError()).isEqualTo("Quotation expired");
+    }
+
+    @Test
+    void readTimeoutLeavesTheOrderUnknownAndIsNeverPostedAgain() throws Exception {
+        // what RestClient raises for a read timeout, a reset or an upstream 5xx on a POST
+        when(lalamoveService.placeOrders(any())).thenThrow(new ResponseException(
+                ResponseStatus.MICROSERVICE_INTERNAL_ERROR.getErrorCode(), ResponseStatus.MICROSERVICE_INTERNAL_ERROR.getErrorMessage()));
+
+        String trackingId = outboxService.submit(request).getTrackingId();
+        LalamoveOrderTrackingDto status = outboxService.getStatus(trackingId);
+        assertThat(status.getStatus()).isEqualTo("UNKNOWN");
+        assertThat(status.getNextAttemptAt()).isNull();
+
+        makeDue(trackingId);
+        outboxService.drain();
+        verify(lalamoveService, times(1)).placeOrders(any());
+
+        // reconciled against the order Lalamove did create
+        when(lalamoveService.getOrder("107900701184")).thenReturn(placed(request.getData().getQuotationId()));
+        when(lalamoveService.getOrder("999")).thenReturn(placed("another-quotation"));
+        assertThatThrownBy(() -> outboxService.reconcile(trackingId, "999"))
+                .isInstanceOfSatisfying(ResponseException.class, e -> assertThat(e.getHttpStatus()).isEqualTo(HttpStatus.CONFLICT));
+        status = outboxService.reconcile(trackingId, "107900701184");
+        assertThat(status.getStatus()).isEqualTo("SUCCEEDED");
+        assertThat(status.getOrderId()).isEqualTo("107900701184");
+        outboxService.drain();
+        verify(lalamoveService, times(1)).placeOrders(any());
+    }
+
+    @Test
+    void resultArrivingAfterTheLeaseExpiredIsStillRecorded() throws Exception {
+        LalamoveOrderResponseDto placed = placed(request.getData().getQuotationId());
+        when(lalamoveService.placeOrders(any())).thenAnswer(invocation -> {
+            // the call outlives the lease: the row is marked UNKNOWN while it runs
+            repository.expireLeases(Instant.now().plusSeconds(3600));
+            return placed;
+        });
+
+        LalamoveOrderTrackingDto status = outboxService.getStatus(outboxService.submit(request).getTrackingId());
+
+        assertThat(status.getStatus()).isEqualTo("SUCCEEDED");
+        assertThat(status.getOrderId()).isEqualTo("107900701184");
+        verify(lalamoveService, times(1)).placeOrders(any());
+    }
+
+    private LalamoveOrderResponseDto placed(String quotationId) throws Exception {
+        LalamoveOrderResponseDto placed = objectMapper.readValue(LalamoveStubServer.resource("lalamove/order-response.json")
+                .replace("{{orderId}}", "107900701184"), LalamoveOrderResponseDto.class);
+        placed.getData().setQuotationId(quotationId);
+        return placed;
+    }
+
+    private void makeDue(String trackingId) {
+        LalamoveOrderOutbox order = repository.findById(trackingId).orElseThrow();
+        order.setNextAttemptAt(Instant.now().minusSeconds(1));
+        repository.saveAndFlush(order);
+    }
+}
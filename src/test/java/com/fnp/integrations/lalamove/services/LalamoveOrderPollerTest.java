@@ -0,0 +1,116 @@
+package com.fnp.integrations.lalamove.services;
+
+import com.fnp.integrations.constants.DynamicConstants;
+import com.fnp.integrations.http.AdaptiveRateLimiter;
+import com.fnp.integrations.http.RateLimiterRegistry;
+import com.fnp.integrations.lalamove.LalamoveStubServer;
+import com.fnp.integrations.lalamove.dtos.LalamoveOrderResponseDto;
+import com.fnp.integrations.lalamove.repositories.LalamoveOrderSnapshotRepository;
+import com.fnp.integrations.lalamove.repositories.LalamoveWebhookEventRepository;
+import com.fnp.integrations.support.TestConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class LalamoveOrderPollerTest {
+
+    private static final long NOW = Instant.parse("2025-01-01T10:00:00Z").toEpochMilli();
+
+    private final LalamoveJson lalamoveJson = new LalamoveJson(Jackson2ObjectMapperBuilder.json().build());
+    private final AtomicLong ticker = new AtomicLong();
+    private final AtomicLong wallClock = new AtomicLong(NOW);
+    private final Deque<String> upstreamStatuses = new ArrayDeque<>();
+    private final List<String> fetches = new ArrayList<>();
+
+    private DynamicConstants constants;
+    private RateLimiterRegistry rateLimiterRegistry;
+    private LalamoveOrderReadModel readModel;
+    private LalamoveOrderPoller poller;
+
+    @BeforeEach
+    void setUp() {
+        constants = TestConstants.dynamicConstants();
+        constants.setLalamoveHostname("rest.sandbox.lalamove.com");
+        constants.setLalamoveOrderPollingJitter(0);
+        constants.setLalamoveOrderReadModelMaxStaleness(300_000);
+        rateLimiterRegistry = new RateLimiterRegistry(constants);
+        readModel = new LalamoveOrderReadModel(mock(LalamoveOrderSnapshotRepository.class), mock(LalamoveWebhookEventRepository.class),
+                lalamoveJson, constants, ticker::get, wallClock::get);
+        poller = new LalamoveOrderPoller(orderId -> {
+            fetches.add(orderId + "@" + (wallClock.get() - NOW));
+            return order(orderId, null == upstreamStatuses.peek() ? "ON_GOING" : upstreamStatuses.poll());
+        }, readModel, rateLimiterRegistry, constants, Runnable::run, wallClock::get);
+    }
+
+    @Test
+    void ordersArePolledByStatusUntilTheyEnd() {
+        upstreamStatuses.addAll(List.of("ASSIGNING_DRIVER", "ON_GOING", "PICKED_UP", "PICKED_UP", "COMPLETED"));
+        poller.track(readModel.put(order("A", "ASSIGNING_DRIVER")));
+        advance(5_000);
+        poller.track(readModel.put(order("B", "ASSIGNING_DRIVER")));
+        advance(1_000);
+        readModel.applyStatus("B", "CANCELED", TimeUnit.MILLISECONDS.toSeconds(wallClock.get())); // delivered by a webhook: B is never polled
+
+        advance(360_000);
+
+        // 15 s near pickup, doubled while unchanged; 60 s en route, doubled while unchanged
+        assertThat(fetches).containsExactly("A@15000", "A@45000", "A@60000", "A@120000", "A@240000");
+        assertThat(poller.getStats()).containsEntry("tracked", 0).containsEntry("polls", 5L)
+                .containsEntry("skippedPolls", 1L).containsEntry("completed", 2L);
+        assertThat(readModel.peek("A", 0).getStatus()).isEqualTo("COMPLETED");
+    }
+
+    @Test
+    void pollsStayUnderTheirShareOfTheHostRateLimit() {
+        constants.setHttpRateLimitMaxRate(4);
+        AdaptiveRateLimiter limiter = rateLimiterRegistry.forHost(constants.getLalamoveHostname());
+        assertThat(poller.pollRate()).isEqualTo(2.0); // half of 4/s, below max-qps 5/s
+
+        for (int i = 0; i < 100; i++) {
+            poller.track(readModel.put(order("O" + i, "ASSIGNING_DRIVER")));
+        }
+        advance(14_750);
+        assertThat(fetches).isEmpty();
+        advance(10_250);
+        assertThat(fetches).hasSize(2 + 20); // a one second burst, then 2/s
+        assertThat(poller.getStats()).containsEntry("due", 78);
+
+        limiter.onThrottled(-1);
+        assertThat(poller.pollRate()).isEqualTo(1.0);
+        advance(10_000);
+        assertThat(fetches).hasSize(22 + 10);
+    }
+
+    private LalamoveOrderResponseDto order(String orderId, String status) {
+        try {
+            LalamoveOrderResponseDto order = lalamoveJson.getOrderResponse().read(
+                    LalamoveStubServer.resource("lalamove/order-response.json").replace("{{orderId}}", orderId));
+            order.getData().setStatus(status);
+            return order;
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Moves both clocks forward one tick at a time, as the scheduler would.
+     */
+    private void advance(long millis) {
+        for (long elapsed = 0; elapsed < millis; elapsed += constants.getLalamoveOrderPollingTick()) {
+            ticker.addAndGet(TimeUnit.MILLISECONDS.toNanos(constants.getLalamoveOrderPollingTick()));
+            wallClock.addAndGet(constants.getLalamoveOrderPollingTick());
+            poller.tick();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.fnp.integrations.lalamove.services;
+
+import com.fnp.integrations.constants.DynamicConstants;
+import com.fnp.integrations.lalamove.LalamoveStubServer;
+import com.fnp.integrations.lalamove.dtos.LalamoveOrderResponseDto;
+import com.fnp.integrations.lalamove.entities.LalamoveWebhookEvent;
+import com.fnp.integrations.lalamove.repositories.LalamoveOrderSnapshotRepository;
+import com.fnp.integrations.lalamove.repositories.LalamoveWebhookEventRepository;
+import com.fnp.integrations.support.TestConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = TestConstants.H2_DIALECT)
+class LalamoveOrderReadModelTest {
+
+    private static final long NOW = Instant.parse("2025-01-01T10:00:00Z").toEpochMilli();
+    private static final String ORDER_ID = "107900701184";
+    private static final long NOW_SECONDS = TimeUnit.MILLISECONDS.toSeconds(NOW);
+
+    private final LalamoveJson lalamoveJson = new LalamoveJson(Jackson2ObjectMapperBuilder.json().build());
+    private final AtomicLong ticker = new AtomicLong();
+    private final AtomicLong wallClock = new AtomicLong(NOW);
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    @Autowired
+    private LalamoveOrderSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private LalamoveWebhookEventRepository eventRepository;
+
+    private DynamicConstants constants;
+    private LalamoveOrderReadModel readModel;
+    private LalamoveOrderResponseDto placed;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        constants = TestConstants.dynamicConstants();
+        constants.setLalamoveOrderReadModelMaxStaleness(30_000);
+        readModel = newReadModel();
+        placed = lalamoveJson.getOrderResponse().read(LalamoveStubServer.resource("lalamove/order-response.json").replace("{{orderId}}", ORDER_ID));
+    }
+
+    @Test
+    void placedOrderIsServedLocallyUntilItIsTooStale() {
+        readModel.put(placed);
+
+        advance(29_000);
+        assertThat(readModel.get(ORDER_ID, upstream("ON_GOING")).getData().getStatus()).isEqualTo("ASSIGNING_DRIVER");
+        assertThat(upstreamCalls).hasValue(0);
+
+        advance(2_000); // stale in memory and in the database
+        assertThat(readModel.get(ORDER_ID, upstream("ON_GOING")).getData().getStatus()).isEqualTo("ON_GOING");
+        assertThat(readModel.get(ORDER_ID, upstream("PICKED_UP")).getData().getStatus()).isEqualTo("ON_GOING");
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(snapshotRepository.findById(ORDER_ID)).get().extracting("status").isEqualTo("ON_GOING");
+        assertThat(readModel.getStats()).containsEntry("memoryHits", 2L).containsEntry("upstreamFetches", 1L);
+    }
+
+    @Test
+    void afterARestartTheSnapshotIsServedWithTheLatestWebhookStatus() {
+        readModel.put(placed);
+        advance(10_000);
+        storeEvent("evt-1", "ON_GOING", NOW_SECONDS + 10);
+        storeEvent("evt-0", "ASSIGNING_DRIVER", NOW_SECONDS + 9); // delivered late, older than evt-1
+
+        LalamoveOrderReadModel restarted = newReadModel();
+        assertThat(restarted.get(ORDER_ID, upstream("CANCELED")).getData().getStatus()).isEqualTo("ON_GOING");
+        assertThat(upstreamCalls).hasValue(0);
+        assertThat(restarted.getStats()).containsEntry("databaseHits", 1L);
+
+        // the event gave it a status, not freshness: the snapshot is as old as when it was placed
+        advance(21_000);
+        assertThat(newReadModel().get(ORDER_ID, upstream("CANCELED")).getData().getStatus()).isEqualTo("CANCELED");
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void webhookStatusesApplyInEventOrderAndNeverLeaveATerminalState() {
+        readModel.put(placed);
+
+        readModel.applyStatus(ORDER_ID, "PICKED_UP", NOW_SECONDS + 20);
+        readModel.applyStatus(ORDER_ID, "ON_GOING", NOW_SECONDS + 10);
+        assertThat(readModel.get(ORDER_ID, upstream("ON_GOING")).getData().getStatus()).isEqualTo("PICKED_UP");
+
+        readModel.applyStatus(ORDER_ID, "COMPLETED", NOW_SECONDS + 30);
+        readModel.applyStatus(ORDER_ID, "ON_GOING", NOW_SECONDS + 40);
+        assertThat(readModel.get(ORDER_ID, upstream("ON_GOING")).getData().getStatus()).isEqualTo("COMPLETED");
+        assertThat(readModel.getStats()).containsEntry("statusUpdates", 2L);
+        assertThat(upstreamCalls).hasValue(0);
+    }
+
+    @Test
+    void eventOlderThanTheLastReadIsIgnoredAndNoEventExtendsTheRead() {
+        advance(20_000);
+        readModel.get(ORDER_ID, upstream("PICKED_UP"));
+
+        readModel.applyStatus(ORDER_ID, "ASSIGNING_DRIVER", NOW_SECONDS + 5); // sent before the read, delivered after it
+        assertThat(readModel.peek(ORDER_ID, 0).getStatus()).isEqualTo("PICKED_UP");
+        assertThat(readModel.getStats()).containsEntry("statusUpdates", 0L);
+
+        advance(20_000);
+        readModel.applyStatus(ORDER_ID, "ON_GOING", NOW_SECONDS + 39);
+        assertThat(readModel.peek(ORDER_ID, NOW + 20_000)).isNull(); // a poll due now is not skipped
+        advance(11_000);
+        assertThat(readModel.get(ORDER_ID, upstream("COMPLETED")).getData().getStatus()).isEqualTo("COMPLETED");
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    private LalamoveOrderReadModel newReadModel() {
+        return new LalamoveOrderReadModel(snapshotRepository, eventRepository, lalamoveJson, constants, ticker::get, wallClock::get);
+    }
+
+    private Supplier<LalamoveOrderResponseDto> upstream(String status) {
+        return () -> {
+            upstreamCalls.incrementAndGet();
+            LalamoveOrderResponseDto order;
+            try {
+                order = lalamoveJson.getOrderResponse().read(lalamoveJson.getOrderResponse().write(placed));
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+            order.getData().setStatus(status);
+            return order;
+        };
+    }
+
+    private void storeEvent(String eventId, String status, long eventTimestamp) {
+        LalamoveWebhookEvent event = new LalamoveWebhookEvent();
+        event.setEventId(eventId);
+        event.setEventType("ORDER_STATUS_CHANGED");
+        event.setOrderId(ORDER_ID);
+        event.setOrderStatus(status);
+        event.setEventTimestamp(eventTimestamp);
+        event.setPayload("{}");
+        event.setReceivedAt(Instant.ofEpochMilli(wallClock.get()));
+        eventRepository.save(event);
+    }
+
+    private void advance(long millis) {
+        ticker.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+        wallClock.addAndGet(millis);
+    }
+}
@@ -0,0 +1,108 @@
+package com.fnp.integrations.lalamove.services;
+
+import com.fnp.integrations.config.ExecutorConfig;
+import com.fnp.integrations.constants.DynamicConstants;
+import com.fnp.integrations.enums.ResponseStatus;
+import com.fnp.integrations.exception.ResponseException;
+import com.fnp.integrations.lalamove.dtos.LalamoveDeliveryRequestWrapper;
+import com.fnp.integrations.lalamove.dtos.LalamoveQuotationBatchResponseDto;
+import com.fnp.integrations.lalamove.dtos.LalamoveQuotationResponseDto;
+import com.fnp.integrations.support.TestConstants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LalamoveQuotationBatchServiceTest {
+
+    private final LalamoveService lalamoveService = mock(LalamoveService.class);
+    private DynamicConstants constants;
+    private ThreadPoolTaskExecutor executor;
+    private LalamoveQuotationBatchService batchService;
+
+    @BeforeEach
+    void setUp() {
+        constants = TestConstants.dynamicConstants();
+        constants.setLalamoveQuotationBatchMaxItems(4);
+        constants.setLalamoveQuotationBatchParallelism(4);
+        executor = (ThreadPoolTaskExecutor) new ExecutorConfig(constants).lalamoveBatchExecutor();
+        executor.initialize();
+        batchService = new LalamoveQuotationBatchService(lalamoveService, constants, executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void itemsRunConcurrentlyAndKeepInputOrder() {
+        CountDownLatch allStarted = new CountDownLatch(4);
+        when(lalamoveService.getQuotations(any())).thenAnswer(invocation -> {
+            LalamoveDeliveryRequestWrapper request = invocation.getArgument(0);
+            allStarted.countDown();
+            assertThat(allStarted.await(5, TimeUnit.SECONDS)).isTrue(); // only passes if all four are in flight together
+            if ("VAN".equals(request.getData().getServiceType())) {
+                throw new ResponseException(ResponseStatus.MICROSERVICE_EXCHANGE_ERROR.getErrorCode(), "Service type unavailable");
+            }
+            return quotation(request.getData().getServiceType());
+        });
+
+        LalamoveQuotationBatchResponseDto response = batchService.getQuotations(
+                List.of(request("MOTORCYCLE"), request("VAN"), request("CAR"), request("TRUCK")));
+
+        assertThat(response.getSucceeded()).isEqualTo(3);
+        assertThat(response.getFailed()).isEqualTo(1);
+        assertThat(response.getResults()).extracting(LalamoveQuotationBatchResponseDto.Result::getIndex).containsExactly(0, 1, 2, 3);
+        assertThat(response.getResults()).extracting(LalamoveQuotationBatchResponseDto.Result::getStatus)
+                .containsExactly("SUCCESS", "ERROR", "SUCCESS", "SUCCESS");
+        assertThat(response.getResults().get(2).getQuotation().getData().getQuotationId()).isEqualTo("CAR");
+        assertThat(response.getResults().get(1).getErrorCode()).isEqualTo(502);
+        assertThat(response.getResults().get(1).getErrorMessage()).isEqualTo("Service type unavailable");
+    }
+
+    @Test
+    void missingItemIsReportedInPlace() {
+        when(lalamoveService.getQuotations(any())).thenAnswer(invocation ->
+                quotation(invocation.<LalamoveDeliveryRequestWrapper>getArgument(0).getData().getServiceType()));
+        List<LalamoveDeliveryRequestWrapper> requests = new ArrayList<>(List.of(request("CAR")));
+        requests.add(0, null);
+
+        LalamoveQuotationBatchResponseDto response = batchService.getQuotations(requests);
+
+        assertThat(response.getResults()).extracting(LalamoveQuotationBatchResponseDto.Result::getStatus).containsExactly("ERROR", "SUCCESS");
+        assertThat(response.getResults().get(0).getErrorCode()).isEqualTo(400);
+    }
+
+    @Test
+    void rejectsEmptyAndOversizedBatches() {
+        assertThatThrownBy(() -> batchService.getQuotations(List.of())).isInstanceOf(ResponseException.class);
+        assertThatThrownBy(() -> batchService.getQuotations(Collections.nCopies(5, request("CAR"))))
+                .isInstanceOf(ResponseException.class)
+                .hasMessageContaining("limit of 4");
+    }
+
+    private static LalamoveDeliveryRequestWrapper request(String serviceType) {
+        LalamoveDeliveryRequestWrapper.LalamoveDeliveryRequest data = new LalamoveDeliveryRequestWrapper.LalamoveDeliveryRequest();
+        data.setServiceType(serviceType);
+        return new LalamoveDeliveryRequestWrapper(data);
+    }
+
+    private static LalamoveQuotationResponseDto quotation(String quotationId) {
+        LalamoveQuotationResponseDto.QuotationData data = new LalamoveQuotationResponseDto.QuotationData();
+        data.setQuotationId(quotationId);
+        return new LalamoveQuotationResponseDto(data);
+    }
+}
@@ -0,0 +1,88 @@
+package com.fnp.integrations.lalamove.services;
+
+import com.fnp.integrations.constants.DynamicConstants;
+import com.fnp.integrations.lalamove.dtos.LalamoveDeliveryRequestWrapper;
+import com.fnp.integrations.lalamove.dtos.LalamoveQuotationResponseDto;
+import com.fnp.integrations.support.TestConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LalamoveQuotationCacheTest {
+
+    private static final long NOW = Instant.parse("2025-01-01T10:00:00Z").toEpochMilli();
+
+    private final AtomicLong ticker = new AtomicLong();
+    private final AtomicLong wallClock = new AtomicLong(NOW);
+    private DynamicConstants constants;
+    private LalamoveQuotationCache cache;
+
+    @BeforeEach
+    void setUp() {
+        constants = TestConstants.dynamicConstants();
+        constants.setCacheEnabled(true);
+        cache = new LalamoveQuotationCache(constants, ticker::get, wallClock::get);
+    }
+
+    @Test
+    void equivalentRequestsShareKey() {
+        LalamoveDeliveryRequestWrapper first = request("en_SG", List.of("THERMAL_BAG_1", "DOOR_TO_DOOR"), "1.31402561", "103.85636459");
+        LalamoveDeliveryRequestWrapper second = request("EN_SG", List.of("door_to_door", "THERMAL_BAG_1"), " 1.314025612", "103.8563646");
+
+        assertThat(cache.keyOf(first)).isEqualTo(cache.keyOf(second));
+        assertThat(cache.keyOf(first)).isNotEqualTo(cache.keyOf(request("en_SG", List.of(), "1.31402561", "103.85636459")));
+        assertThat(cache.keyOf(request("en_SG", List.of(), "not-a-number", "103.8"))).isNull();
+    }
+
+    @Test
+    void entryExpiresWithQuoteMinusMargin() {
+        LalamoveQuotationCache.QuotationKey key = cache.keyOf(request("en_SG", List.of(), "1.3140256", "103.8563646"));
+        cache.put(key, quotation("2025-01-01T10:05:00Z"));
+        assertThat(cache.get(key, null)).isNotNull();
+
+        advance(4 * 60_000L + 29_000L);
+        assertThat(cache.get(key, null)).isNotNull();
+        advance(2_000L);
+        assertThat(cache.get(key, null)).isNull();
+
+        cache.put(key, quotation("2025-01-01T10:04:50Z")); // already inside the margin, never cached
+        assertThat(cache.get(key, null)).isNull();
+        assertThat(cache.getStats()).containsEntry("hitCount", 2L).containsEntry("missCount", 2L);
+    }
+
+    @Test
+    void disabledCacheIsBypassed() {
+        LalamoveQuotationCache.QuotationKey key = cache.keyOf(request("en_SG", List.of(), "1.3140256", "103.8563646"));
+        constants.setCacheEnabled(false);
+        cache.put(key, quotation("2025-01-01T10:05:00Z"));
+        constants.setCacheEnabled(true);
+        assertThat(cache.get(key, null)).isNull();
+    }
+
+    private void advance(long millis) {
+        ticker.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+        wallClock.addAndGet(millis);
+    }
+
+    private static LalamoveDeliveryRequestWrapper request(String language, List<String> specialRequests, String lat, String lng) {
+        LalamoveDeliveryRequestWrapper.LalamoveDeliveryRequest data = new LalamoveDeliveryRequestWrapper.LalamoveDeliveryRequest(
+                null, "MOTORCYCLE", specialRequests, language,
+                List.of(new LalamoveDeliveryRequestWrapper.Stop(new LalamoveDeliveryRequestWrapper.Coordinates(lat, lng), "Pickup"),
+                        new LalamoveDeliveryRequestWrapper.Stop(new LalamoveDeliveryRequestWrapper.Coordinates("1.2966147", "103.8485095"), "Drop-off")),
+                true);
+        return new LalamoveDeliveryRequestWrapper(data);
+    }
+
+    private static LalamoveQuotationResponseDto quotation(String expiresAt) {
+        LalamoveQuotationResponseDto.QuotationData data = new LalamoveQuotationResponseDto.QuotationData();
+        data.setQuotationId("1514140994227007571");
+        data.setExpiresAt(expiresAt);
+        return new LalamoveQuotationResponseDto(data);
+    }
+}
@@ -0,0 +1,68 @@
+package com.fnp.integrations.lalamove.services;
+
+import com.fnp.integrations.support.TestConstants;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LalamoveRequestSignerTest {
+
+    private static final LalamoveRequestSigner.Target QUOTATIONS = LalamoveRequestSigner.target("POST", "/v3/quotations");
+
+    private final LalamoveRequestSigner signer =
+            new LalamoveRequestSigner(TestConstants.LALAMOVE_APP_KEY, TestConstants.LALAMOVE_APP_SECRET);
+
+    @Test
+    void matchesReferenceImplementation() throws Exception {
+        for (String body : List.of("", "{}", "{\"data\":{\"serviceType\":\"MOTORCYCLE\",\"language\":\"en_SG\"}}")) {
+            for (long timestamp : new long[]{0L, 7L, 1545880607433L, Long.MAX_VALUE}) {
+                assertThat(signer.authorization(timestamp, QUOTATIONS, body.getBytes(StandardCharsets.UTF_8)))
+                        .isEqualTo(expected(timestamp, body));
+            }
+        }
+    }
+
+    @Test
+    void isSafeForConcurrentUse() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                long timestamp = 1700000000000L + i;
+                String body = "{\"id\":" + i + "}";
+                results.add(executor.submit(() -> {
+                    for (int j = 0; j < 200; j++) {
+                        if (!signer.authorization(timestamp, QUOTATIONS, body.getBytes(StandardCharsets.UTF_8))
+                                .equals(expected(timestamp, body))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertThat(result.get()).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String expected(long timestamp, String body) throws Exception {
+        String rawSignature = timestamp + "\r\nPOST\r\n/v3/quotations\r\n\r\n" + body;
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(TestConstants.LALAMOVE_APP_SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return "hmac " + TestConstants.LALAMOVE_APP_KEY + ":" + timestamp + ":"
+                + HexFormat.of().formatHex(mac.doFinal(rawSignature.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,176 @@
+package com.fnp.integrations.lalamove.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fnp.integrations.constants.DynamicConstants;
+import com.fnp.integrations.exception.ResponseException;
+import com.fnp.integrations.http.CircuitBreakerRegistry;
+import com.fnp.integrations.http.HedgingPolicy;
+import com.fnp.integrations.http.OutboundLogger;
+import com.fnp.integrations.http.OutboundMetrics;
+import com.fnp.integrations.http.RateLimiterRegistry;
+import com.fnp.integrations.http.RetryPolicy;
+import com.fnp.integrations.lalamove.LalamoveStubServer;
+import com.fnp.integrations.lalamove.dtos.LalamoveDeliveryRequestWrapper;
+import com.fnp.integrations.lalamove.dtos.LalamoveOrderRequestWrapper;
+import com.fnp.integrations.lalamove.dtos.LalamoveQuotationResponseDto;
+import com.fnp.integrations.lalamove.repositories.LalamoveOrderSnapshotRepository;
+import com.fnp.integrations.lalamove.repositories.LalamoveWebhookEventRepository;
+import com.fnp.integrations.service.AsyncRestClient;
+import com.fnp.integrations.service.impl.RestClientImpl;
+import com.fnp.integrations.support.TestConstants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class LalamoveServiceTest {
+
+    private static final LalamoveRequestSigner SIGNER =
+            new LalamoveRequestSigner(TestConstants.LALAMOVE_APP_KEY, TestConstants.LALAMOVE_APP_SECRET);
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private MockRestServiceServer server;
+    private LalamoveService lalamoveService;
+
+    @BeforeEach
+    void setUp() {
+        DynamicConstants constants = TestConstants.dynamicConstants();
+        constants.setLalamoveHostname("rest.sandbox.lalamove.com");
+        constants.setLalamoveQuotationCoalescingWindow(0);
+        constants.setCacheEnabled(false); // a joined caller is answered by the flight, not the cache
+
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        RateLimiterRegistry rateLimiterRegistry = new RateLimiterRegistry(constants);
+        RetryPolicy retryPolicy = new RetryPolicy(constants);
+        CircuitBreakerRegistry circuitBreakerRegistry = new CircuitBreakerRegistry(constants);
+        RestClientImpl restClient = new RestClientImpl(restTemplate, rateLimiterRegistry, retryPolicy, circuitBreakerRegistry,
+                new OutboundLogger(objectMapper, constants),
+                new OutboundMetrics(new SimpleMeterRegistry(), rateLimiterRegistry, circuitBreakerRegistry, retryPolicy), objectMapper, constants);
+        // no snapshot is found or kept; with quotation hedging off the async client is never called
+        LalamoveOrderReadModel orderReadModel = new LalamoveOrderReadModel(mock(LalamoveOrderSnapshotRepository.class),
+                mock(LalamoveWebhookEventRepository.class), new LalamoveJson(objectMapper), constants);
+        lalamoveService = new LalamoveService(restClient, mock(AsyncRestClient.class), new LalamoveJson(objectMapper), SIGNER,
+                new LalamoveQuotationCache(constants), orderReadModel,
+                new HedgingPolicy(constants, rateLimiterRegistry, circuitBreakerRegistry), constants);
+    }
+
+    @Test
+    void quotationSignatureCoversExactBytesSent() throws Exception {
+        LalamoveDeliveryRequestWrapper request = objectMapper.readValue(
+                LalamoveStubServer.resource("lalamove/quotation-request.json"), LalamoveDeliveryRequestWrapper.class);
+        server.expect(requestTo("https://rest.sandbox.lalamove.com/v3/quotations"))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(sentRequest -> assertSignedBody((MockClientHttpRequest) sentRequest, "/v3/quotations"))
+                .andRespond(withSuccess(LalamoveStubServer.resource("lalamove/quotation-response.json"), MediaType.APPLICATION_JSON));
+
+        assertThat(lalamoveService.getQuotations(request).getData().getQuotationId()).isEqualTo("{{quotationId}}");
+        server.verify();
+    }
+
+    @Test
+    void coalescedQuotationCallersEachGetTheirOwnAddresses() throws Exception {
+        LalamoveDeliveryRequestWrapper first = objectMapper.readValue(
+                LalamoveStubServer.resource("lalamove/quotation-request.json"), LalamoveDeliveryRequestWrapper.class);
+        LalamoveDeliveryRequestWrapper second = objectMapper.readValue(
+                LalamoveStubServer.resource("lalamove/quotation-request.json"), LalamoveDeliveryRequestWrapper.class);
+        second.getData().getStops().get(0).setAddress("1 Raffles Place, Singapore 048616");
+        second.getData().getStops().get(1).setAddress("10 Bayfront Ave, Singapore 018956");
+        String quotation = LalamoveStubServer.resource("lalamove/quotation-response.json")
+                .replace("{{quotationId}}", "1514140994227007571")
+                .replace("{{expiresAt}}", Instant.now().plusSeconds(300).toString());
+        server.expect(ExpectedCount.once(), requestTo("https://rest.sandbox.lalamove.com/v3/quotations"))
+                .andRespond(request -> {
+                    // hold the upstream answer until the second caller has joined the flight
+                    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                    while (lalamoveService.getQuotationFlights().getCoalesced() == 0 && System.nanoTime() < deadline) {
+                        Thread.onSpinWait();
+                    }
+                    return withSuccess(quotation, MediaType.APPLICATION_JSON).createResponse(request);
+                });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<LalamoveQuotationResponseDto> leader = executor.submit(() -> lalamoveService.getQuotations(first));
+            while (lalamoveService.getQuotationFlights().getInFlight() == 0) {
+                Thread.onSpinWait();
+            }
+            Future<LalamoveQuotationResponseDto> joiner = executor.submit(() -> lalamoveService.getQuotations(second));
+
+            assertThat(addresses(leader.get(5, TimeUnit.SECONDS))).containsExactly(
+                    "Bras Basah Complex, Singapore 180231", "Lucky Plaza, 304 Orchard Rd, Singapore 238863");
+            LalamoveQuotationResponseDto joined = joiner.get(5, TimeUnit.SECONDS);
+            assertThat(addresses(joined)).containsExactly("1 Raffles Place, Singapore 048616", "10 Bayfront Ave, Singapore 018956");
+            assertThat(joined.getData().getQuotationId()).isEqualTo("1514140994227007571");
+            assertThat(joined).isNotSameAs(leader.get());
+        } finally {
+            executor.shutdownNow();
+        }
+        server.verify();
+    }
+
+    @Test
+    void orderSignatureCoversExactBytesSent() throws Exception {
+        LalamoveOrderRequestWrapper request = objectMapper.readValue(
+                LalamoveStubServer.resource("lalamove/order-request.json"), LalamoveOrderRequestWrapper.class);
+        server.expect(requestTo("https://rest.sandbox.lalamove.com/v3/orders"))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(sentRequest -> assertSignedBody((MockClientHttpRequest) sentRequest, "/v3/orders"))
+                .andRespond(withSuccess(LalamoveStubServer.resource("lalamove/order-response.json"), MediaType.APPLICATION_JSON));
+
+        assertThat(lalamoveService.placeOrders(request).getData().getStatus()).isEqualTo("ASSIGNING_DRIVER");
+        server.verify();
+    }
+
+    @Test
+    void orderIsReadFromLalamoveOnlyOnAMiss() throws Exception {
+        server.expect(requestTo("https://rest.sandbox.lalamove.com/v3/orders/107900701184"))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(sentRequest -> assertSigned((MockClientHttpRequest) sentRequest, "GET", "/v3/orders/107900701184"))
+                .andRespond(withSuccess(LalamoveStubServer.resource("lalamove/order-response.json").replace("{{orderId}}", "107900701184"),
+                        MediaType.APPLICATION_JSON));
+
+        assertThat(lalamoveService.getOrder("107900701184").getData().getStatus()).isEqualTo("ASSIGNING_DRIVER");
+        assertThat(lalamoveService.getOrder("107900701184").getData().getShareLink()).startsWith("https://share.sandbox.lalamove.com/");
+        server.verify();
+        assertThatThrownBy(() -> lalamoveService.getOrder("../quotations")).isInstanceOf(ResponseException.class);
+    }
+
+    private static List<String> addresses(LalamoveQuotationResponseDto quotation) {
+        return quotation.getData().getStops().stream().map(LalamoveQuotationResponseDto.Stop::getAddress).toList();
+    }
+
+    private static void assertSignedBody(MockClientHttpRequest sentRequest, String path) {
+        assertSigned(sentRequest, "POST", path);
+        assertThat(sentRequest.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+    }
+
+    private static void assertSigned(MockClientHttpRequest sentRequest, String method, String path) {
+        String[] authorization = sentRequest.getHeaders().getFirst("Authorization").substring("hmac ".length()).split(":");
+        assertThat(authorization[0]).isEqualTo(TestConstants.LALAMOVE_APP_KEY);
+
+        byte[] body = sentRequest.getBodyAsBytes();
+        assertThat(SIGNER.verify(Long.parseLong(authorization[1]), LalamoveRequestSigner.target(method, path), body, 0, body.length,
+                authorization[2])).isTrue();
+    }
+}
@@ -0,0 +1,169 @@
+package com.fnp.integrations.lalamove.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fnp.integrations.constants.DynamicConstants;
+import com.fnp.integrations.exception.ResponseException;
+import com.fnp.integrations.lalamove.entities.LalamoveWebhookEvent;
+import com.fnp.integrations.lalamove.repositories.LalamoveOrderSnapshotRepository;
+import com.fnp.integrations.lalamove.repositories.LalamoveWebhookEventRepository;
+import com.fnp.integrations.support.TestConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest(properties = TestConstants.H2_DIALECT)
+class LalamoveWebhookServiceTest {
+
+    private static final long TIMESTAMP = 1628512266L;
+    // spacing kept as sent: the signature covers these exact bytes
+    private static final String ORDER_STATUS_DATA = "{ \"order\": {\"orderId\": \"107900701184\", \"status\": \"ON_GOING\","
+            + " \"stops\": [{\"id\": \"1\"}]}, \"updatedAt\": \"2021-08-09T12:31:06.00Z\" }";
+
+    private final AtomicLong wallClock = new AtomicLong(TimeUnit.SECONDS.toMillis(TIMESTAMP));
+    private final LalamoveRequestSigner signer = new LalamoveRequestSigner(TestConstants.LALAMOVE_APP_KEY, TestConstants.LALAMOVE_APP_SECRET);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LalamoveWebhookEventRepository repository;
+
+    private LalamoveWebhookService webhookService;
+
+    @BeforeEach
+    void setUp() {
+        webhookService = newWebhookService();
+    }
+
+    @Test
+    void signedEventIsAcceptedOnceAndPersistedOnFlush() {
+        byte[] event = event("evt-1", "ORDER_STATUS_CHANGED", ORDER_STATUS_DATA, sign(ORDER_STATUS_DATA));
+
+        assertThat(webhookService.receive(event)).isEqualTo(LalamoveWebhookService.Outcome.ACCEPTED);
+        assertThat(webhookService.receive(event)).isEqualTo(LalamoveWebhookService.Outcome.DUPLICATE);
+        assertThat(repository.count()).isZero();
+
+        webhookService.flush();
+
+        List<LalamoveWebhookEvent> stored = repository.findByOrderIdOrderByReceivedAtAsc("107900701184");
+        assertThat(stored).hasSize(1);
+        assertThat(stored.get(0).getEventType()).isEqualTo("ORDER_STATUS_CHANGED");
+        assertThat(stored.get(0).getOrderStatus()).isEqualTo("ON_GOING");
+        assertThat(stored.get(0).getEventTimestamp()).isEqualTo(TIMESTAMP);
+        assertThat(stored.get(0).getPayload()).isEqualTo(ORDER_STATUS_DATA);
+
+        // a redelivery the dedupe set has forgotten (e.g. after a restart) is skipped by the database
+        LalamoveWebhookService restarted = newWebhookService();
+        restarted.receive(event);
+        restarted.receive(event("evt-2", "DRIVER_ASSIGNED", ORDER_STATUS_DATA, sign(ORDER_STATUS_DATA)));
+        restarted.flush();
+        assertThat(repository.count()).isEqualTo(2);
+        assertThat(restarted.getStats()).containsEntry("accepted", 2L).containsEntry("duplicates", 1L)
+                .containsEntry("persisted", 1L).containsEntry("buffered", 0);
+    }
+
+    @Test
+    void tamperedOrMalformedEventsAreRejected() {
+        String tampered = ORDER_STATUS_DATA.replace("ON_GOING", "COMPLETED");
+        assertThatThrownBy(() -> webhookService.receive(event("evt-3", "ORDER_STATUS_CHANGED", tampered, sign(ORDER_STATUS_DATA))))
+                .isInstanceOfSatisfying(ResponseException.class, e -> assertThat(e.getHttpStatus()).isEqualTo(HttpStatus.UNAUTHORIZED));
+        assertThatThrownBy(() -> webhookService.receive("{\"eventId\":".getBytes(StandardCharsets.UTF_8)))
+                .isInstanceOfSatisfying(ResponseException.class, e -> assertThat(e.getHttpStatus()).isEqualTo(HttpStatus.BAD_REQUEST));
+
+        webhookService.flush();
+        assertThat(repository.count()).isZero();
+        assertThat(webhookService.getStats()).containsEntry("rejected", 1L).containsEntry("accepted", 0L);
+    }
+
+    @Test
+    void eventsOutsideTheClockSkewAreRefused() {
+        byte[] event = event("evt-5", "ORDER_STATUS_CHANGED", ORDER_STATUS_DATA, sign(ORDER_STATUS_DATA));
+
+        wallClock.addAndGet(300_001);
+        assertThatThrownBy(() -> webhookService.receive(event))
+                .isInstanceOfSatisfying(ResponseException.class, e -> assertThat(e.getHttpStatus()).isEqualTo(HttpStatus.UNAUTHORIZED));
+        wallClock.addAndGet(-600_002); // from the future, as far
+        assertThatThrownBy(() -> webhookService.receive(event))
+                .isInstanceOfSatisfying(ResponseException.class, e -> assertThat(e.getHttpStatus()).isEqualTo(HttpStatus.UNAUTHORIZED));
+
+        assertThat(webhookService.getStats()).containsEntry("expired", 2L).containsEntry("accepted", 0L);
+    }
+
+    @Test
+    void capturedEventReplayedUnderANewIdIsRefusedOnceItIsStale() {
+        assertThat(webhookService.receive(event("evt-6", "ORDER_STATUS_CHANGED", ORDER_STATUS_DATA, sign(ORDER_STATUS_DATA))))
+                .isEqualTo(LalamoveWebhookService.Outcome.ACCEPTED);
+
+        // eventId is not signed: the same signed data under a fresh id gets past the dedupe set
+        wallClock.addAndGet(TimeUnit.MINUTES.toMillis(6));
+        assertThatThrownBy(() -> webhookService.receive(event("evt-replayed", "ORDER_STATUS_CHANGED", ORDER_STATUS_DATA, sign(ORDER_STATUS_DATA))))
+                .isInstanceOfSatisfying(ResponseException.class, e -> assertThat(e.getHttpStatus()).isEqualTo(HttpStatus.UNAUTHORIZED));
+
+        webhookService.flush();
+        assertThat(repository.findAll()).extracting(LalamoveWebhookEvent::getEventId).containsExactly("evt-6");
+        assertThat(webhookService.getStats()).containsEntry("accepted", 1L).containsEntry("expired", 1L);
+    }
+
+    @Test
+    void oversizedEventIsRefusedWithoutHoldingUpTheOnesAfterIt() {
+        BlockingDeque<LalamoveWebhookEvent> buffer = new LinkedBlockingDeque<>();
+        LalamoveWebhookService webhookService = newWebhookService(buffer);
+        String longId = "e".repeat(65);
+        assertThatThrownBy(() -> webhookService.receive(event(longId, "ORDER_STATUS_CHANGED", ORDER_STATUS_DATA, sign(ORDER_STATUS_DATA))))
+                .isInstanceOfSatisfying(ResponseException.class, e -> assertThat(e.getHttpStatus()).isEqualTo(HttpStatus.BAD_REQUEST));
+
+        // one the database refuses anyway is dropped at flush, and the valid event behind it is stored
+        LalamoveWebhookEvent refused = new LalamoveWebhookEvent();
+        refused.setEventId("evt-refused");
+        refused.setEventType("ORDER_STATUS_CHANGED");
+        refused.setOrderStatus("S".repeat(33));
+        refused.setPayload("{}");
+        refused.setReceivedAt(Instant.now());
+        buffer.offerLast(refused);
+        assertThat(webhookService.receive(event("evt-4", "ORDER_STATUS_CHANGED", ORDER_STATUS_DATA, sign(ORDER_STATUS_DATA))))
+                .isEqualTo(LalamoveWebhookService.Outcome.ACCEPTED);
+
+        webhookService.flush();
+        assertThat(repository.findAll()).extracting(LalamoveWebhookEvent::getEventId).containsExactly("evt-4");
+        assertThat(webhookService.getStats()).containsEntry("persisted", 1L).containsEntry("dropped", 1L).containsEntry("buffered", 0);
+    }
+
+    private LalamoveWebhookService newWebhookService() {
+        return newWebhookService(new LinkedBlockingDeque<>());
+    }
+
+    private LalamoveWebhookService newWebhookService(BlockingDeque<LalamoveWebhookEvent> buffer) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        DynamicConstants constants = TestConstants.dynamicConstants();
+        LalamoveOrderReadModel orderReadModel = new LalamoveOrderReadModel(mock(LalamoveOrderSnapshotRepository.class),
+                mock(LalamoveWebhookEventRepository.class), new LalamoveJson(objectMapper), constants);
+        return new LalamoveWebhookService(signer, orderReadModel, jdbcTemplate, objectMapper, constants, wallClock::get, buffer);
+    }
+
+    private String sign(String data) {
+        String authorization = signer.authorization(TIMESTAMP, LalamoveRequestSigner.target("POST", LalamoveWebhookService.PATH),
+                data.getBytes(StandardCharsets.UTF_8));
+        return authorization.substring(authorization.lastIndexOf(':') + 1);
+    }
+
+    private static byte[] event(String eventId, String eventType, String data, String signature) {
+        return ("{\"apiKey\":\"" + TestConstants.LALAMOVE_APP_KEY + "\",\"timestamp\":" + TIMESTAMP + ",\"signature\":\"" + signature
+                + "\",\"eventId\":\"" + eventId + "\",\"eventType\":\"" + eventType + "\",\"eventVersion\":\"v3\",\"data\":" + data + "}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+}
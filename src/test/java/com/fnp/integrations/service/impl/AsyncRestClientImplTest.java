@@ -0,0 +1,130 @@
+package com.fnp.integrations.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fnp.integrations.config.RestTemplateConfig;
+import com.fnp.integrations.constants.DynamicConstants;
+import com.fnp.integrations.exception.ResponseException;
+import com.fnp.integrations.http.CircuitBreakerRegistry;
+import com.fnp.integrations.http.HttpCompression;
+import com.fnp.integrations.http.OutboundLogger;
+import com.fnp.integrations.http.OutboundMetrics;
+import com.fnp.integrations.http.RateLimiterRegistry;
+import com.fnp.integrations.http.RetryPolicy;
+import com.fnp.integrations.support.StubHttpServer;
+import com.fnp.integrations.support.TestConstants;
+import com.sun.net.httpserver.HttpExchange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AsyncRestClientImplTest {
+
+    private final AtomicInteger unauthorizedCalls = new AtomicInteger();
+    private StubHttpServer server;
+    private DynamicConstants constants;
+    private AsyncRestClientImpl asyncRestClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new StubHttpServer(false, 0)
+                .handle("/items", exchange -> respond(exchange, 200, "[{\"id\":1},{\"id\":2}]"))
+                .handle("/echo", exchange -> respond(exchange, 200, new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8)))
+                .handle("/missing", exchange -> respond(exchange, 404, "{\"message\":\"no such item\"}"))
+                .handle("/broken", exchange -> respond(exchange, 503, ""))
+                .handle("/token", exchange -> respond(exchange, unauthorizedCalls.incrementAndGet() == 1 ? 401 : 200, "{\"ok\":true}"))
+                .start();
+        constants = TestConstants.dynamicConstants();
+        asyncRestClient = newAsyncRestClient(new RestTemplateConfig(constants).asyncHttpClient());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void decodesParameterizedResponseAndSerializesPayload() throws Exception {
+        List<Map<String, Object>> items = asyncRestClient.get(server.getBaseUrl() + "/items", new HttpHeaders(),
+                new ParameterizedTypeReference<List<Map<String, Object>>>() {}, true).get(5, TimeUnit.SECONDS);
+        Map<String, Object> echoed = asyncRestClient.post(server.getBaseUrl() + "/{path}", null, Map.of("name", "value"), Map.class, true, "echo")
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(items).extracting(item -> item.get("id")).containsExactly(1, 2);
+        assertThat(echoed).containsEntry("name", "value");
+    }
+
+    @Test
+    void clientAndServerErrorsMapLikeTheBlockingClient() {
+        assertThatThrownBy(() -> asyncRestClient.get(server.getBaseUrl() + "/missing", null, Map.class, true).join())
+                .hasCauseInstanceOf(ResponseException.class)
+                .cause()
+                .hasFieldOrPropertyWithValue("errorCode", 404)
+                .hasMessage("{\"message\":\"no such item\"} HOST: 127.0.0.1");
+        assertThatThrownBy(() -> asyncRestClient.get(server.getBaseUrl() + "/broken", null, Map.class, true).join())
+                .cause()
+                .hasFieldOrPropertyWithValue("errorCode", 500);
+        assertThat(asyncRestClient.get(server.getBaseUrl() + "/missing", null, Map.class, false).join()).isNull();
+    }
+
+    @Test
+    void unauthorizedIsNotResent() {
+        assertThatThrownBy(() -> asyncRestClient.get(server.getBaseUrl() + "/token", null, Map.class, true).join())
+                .cause()
+                .hasFieldOrPropertyWithValue("errorCode", 401);
+        assertThat(unauthorizedCalls).hasValue(1);
+
+        unauthorizedCalls.set(0);
+        assertThatThrownBy(() -> asyncRestClient.get(server.getBaseUrl() + "/token", null, Map.class, true, "token").join())
+                .cause()
+                .hasFieldOrPropertyWithValue("errorCode", 401);
+        assertThat(unauthorizedCalls).hasValue(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void cancellingTheFutureAbortsTheExchange() {
+        HttpClient httpClient = mock(HttpClient.class);
+        CompletableFuture<HttpResponse<byte[]>> exchange = new CompletableFuture<>();
+        when(httpClient.sendAsync(any(), any(HttpResponse.BodyHandler.class))).thenReturn(exchange);
+
+        CompletableFuture<Map> call = newAsyncRestClient(httpClient)
+                .get(server.getBaseUrl() + "/items", null, Map.class, true);
+        call.cancel(true);
+
+        assertThat(exchange).isCancelled();
+    }
+
+    private AsyncRestClientImpl newAsyncRestClient(HttpClient httpClient) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        return new AsyncRestClientImpl(httpClient, objectMapper, constants, new OutboundLogger(objectMapper, constants),
+                new OutboundMetrics(new SimpleMeterRegistry(), new RateLimiterRegistry(constants),
+                        new CircuitBreakerRegistry(constants), new RetryPolicy(constants)), new HttpCompression(constants));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+}
@@ -0,0 +1,238 @@
+package com.fnp.integrations.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fnp.integrations.constants.DynamicConstants;
+import com.fnp.integrations.exception.RequestNotSentException;
+import com.fnp.integrations.exception.ResponseException;
+import com.fnp.integrations.http.CircuitBreakerRegistry;
+import com.fnp.integrations.http.OutboundLogger;
+import com.fnp.integrations.http.OutboundMetrics;
+import com.fnp.integrations.http.RateLimiterRegistry;
+import com.fnp.integrations.http.RetryPolicy;
+import com.fnp.integrations.support.TestConstants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.headerDoesNotExist;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withException;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class RestClientImplTest {
+
+    private static final String URL = "https://upstream.example.com/v3/quotations";
+
+    private MockRestServiceServer server;
+    private RestClientImpl restClient;
+    private RateLimiterRegistry rateLimiterRegistry;
+    private SimpleMeterRegistry meterRegistry;
+    private DynamicConstants constants;
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    void setUp() {
+        constants = TestConstants.dynamicConstants();
+        constants.setHttpRetryBackoffBase(1);
+        constants.setHttpRetryBackoffMax(10);
+        restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        restClient = newRestClient();
+    }
+
+    @Test
+    void tooManyRequestsShrinksTheHostRateAndRetryAfterPausesIt() {
+        server.expect(requestTo(URL)).andExpect(method(HttpMethod.POST))
+                .andExpect(headerDoesNotExist(RateLimiterRegistry.TIMEOUT_HEADER))
+                .andRespond(withStatus(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "30"));
+
+        assertThatThrownBy(() -> restClient.post(URL, failFastHeaders(), Map.of(), Map.class, true))
+                .isInstanceOf(ResponseException.class)
+                .hasFieldOrPropertyWithValue("errorCode", 429);
+        assertThat(rateLimiterRegistry.forHost("upstream.example.com").getRate()).isEqualTo(25);
+
+        // paused by Retry-After: rejected locally without reaching the upstream
+        assertThatThrownBy(() -> restClient.post(URL, failFastHeaders(), Map.of(), Map.class, true))
+                .isInstanceOf(ResponseException.class)
+                .isInstanceOf(RequestNotSentException.class)
+                .hasFieldOrPropertyWithValue("errorCode", 429)
+                .hasMessage("Rate Limit Exceeded HOST: upstream.example.com");
+        assertThat(restClient.post(URL, failFastHeaders(), Map.of(), Map.class, false)).isNull();
+        server.verify();
+    }
+
+    @Test
+    void hostsAreLimitedIndependently() {
+        server.expect(requestTo(URL)).andRespond(withStatus(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "30"));
+        server.expect(requestTo("https://other.example.com/status")).andRespond(withSuccess("{\"ok\":true}", MediaType.APPLICATION_JSON));
+
+        assertThat(restClient.get(URL, failFastHeaders(), Map.class, false)).isNull();
+        assertThat(restClient.get("https://other.example.com/status", failFastHeaders(), Map.class, true)).containsEntry("ok", true);
+        server.verify();
+    }
+
+    @Test
+    void transientFailuresOfIdempotentCallsAreRetried() {
+        server.expect(requestTo(URL)).andRespond(withException(new SocketTimeoutException("Read timed out")));
+        server.expect(requestTo(URL)).andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+        server.expect(requestTo(URL)).andRespond(withSuccess("{\"ok\":true}", MediaType.APPLICATION_JSON));
+
+        assertThat(restClient.get(URL, new HttpHeaders(), Map.class, true)).containsEntry("ok", true);
+        server.verify();
+    }
+
+    @Test
+    void postIsRetriedOnlyWithAnIdempotencyKey() {
+        server.expect(requestTo(URL)).andRespond(withStatus(HttpStatus.BAD_GATEWAY));
+        assertThatThrownBy(() -> restClient.post(URL, new HttpHeaders(), Map.of(), Map.class, true))
+                .isInstanceOf(ResponseException.class)
+                .hasFieldOrPropertyWithValue("errorCode", 500);
+        server.verify();
+
+        server.reset();
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(RetryPolicy.IDEMPOTENCY_KEY_HEADER, "order-42");
+        server.expect(requestTo(URL)).andExpect(header(RetryPolicy.IDEMPOTENCY_KEY_HEADER, "order-42"))
+                .andRespond(withStatus(HttpStatus.BAD_GATEWAY));
+        server.expect(requestTo(URL)).andExpect(header(RetryPolicy.IDEMPOTENCY_KEY_HEADER, "order-42"))
+                .andRespond(withSuccess("{\"ok\":true}", MediaType.APPLICATION_JSON));
+        assertThat(restClient.post(URL, headers, Map.of(), Map.class, true)).containsEntry("ok", true);
+        server.verify();
+    }
+
+    @Test
+    void onlyFailuresBeforeTheRequestWasSentAreMarkedNotSent() {
+        server.expect(requestTo(URL)).andRespond(withException(new SocketTimeoutException("Read timed out")));
+        assertThatThrownBy(() -> restClient.post(URL, new HttpHeaders(), Map.of(), Map.class, true))
+                .isExactlyInstanceOf(ResponseException.class)
+                .hasFieldOrPropertyWithValue("errorCode", 500);
+        server.verify();
+
+        server.reset();
+        server.expect(requestTo(URL)).andRespond(withException(new ConnectException("Connection refused")));
+        assertThatThrownBy(() -> restClient.post(URL, new HttpHeaders(), Map.of(), Map.class, true))
+                .isInstanceOf(RequestNotSentException.class)
+                .hasFieldOrPropertyWithValue("errorCode", 500);
+        server.verify();
+    }
+
+    @Test
+    void clientErrorsAreNotRetriedAndRetriesStopAtTheConfiguredCount() {
+        server.expect(requestTo(URL)).andRespond(withStatus(HttpStatus.BAD_REQUEST));
+        assertThat(restClient.get(URL, new HttpHeaders(), Map.class, false)).isNull();
+        server.verify();
+
+        server.reset();
+        server.expect(ExpectedCount.times(4), requestTo(URL)).andRespond(withStatus(HttpStatus.INTERNAL_SERVER_ERROR));
+        assertThat(restClient.get(URL, new HttpHeaders(), Map.class, false)).isNull();
+        server.verify();
+    }
+
+    @Test
+    void openCircuitRefusesCallsWithoutReachingTheHost() {
+        constants.setHttpCircuitBreakerWindowSize(4);
+        constants.setHttpCircuitBreakerMinimumCalls(4);
+        restClient = newRestClient();
+        server.expect(ExpectedCount.times(4), requestTo(URL)).andRespond(withStatus(HttpStatus.GATEWAY_TIMEOUT));
+
+        assertThat(restClient.get(URL, new HttpHeaders(), Map.class, false)).isNull(); // first attempt plus three retries
+        assertThatThrownBy(() -> restClient.get(URL, new HttpHeaders(), Map.class, true))
+                .isInstanceOf(ResponseException.class)
+                .isInstanceOf(RequestNotSentException.class)
+                .hasFieldOrPropertyWithValue("errorCode", 502)
+                .hasMessage("Microservice Exchange Error: circuit open HOST: upstream.example.com");
+        server.verify();
+    }
+
+    @Test
+    void attemptsAreTimedAndErrorCodesCounted() {
+        server.expect(requestTo("https://upstream.example.com/v3/orders/3351234611470438?lang=en"))
+                .andRespond(withSuccess("{\"ok\":true}", MediaType.APPLICATION_JSON));
+        server.expect(requestTo(URL)).andRespond(withStatus(HttpStatus.NOT_FOUND));
+
+        restClient.get("https://upstream.example.com/v3/orders/3351234611470438?lang=en", new HttpHeaders(), Map.class, true);
+        assertThat(restClient.get(URL, new HttpHeaders(), Map.class, false)).isNull();
+
+        assertThat(meterRegistry.get(OutboundMetrics.OUTBOUND_REQUESTS)
+                .tags("host", "upstream.example.com", "method", "GET", "uri", "/v3/orders/{id}", "status", "200", "outcome", "SUCCESS")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(OutboundMetrics.OUTBOUND_REQUESTS)
+                .tags("uri", "/v3/quotations", "status", "404", "outcome", "CLIENT_ERROR").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(OutboundMetrics.ERRORS).tags("code", "404", "source", "upstream").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("http.client.circuit-breaker.state").tag("host", "upstream.example.com").gauge().value()).isZero();
+        server.verify();
+    }
+
+    @Test
+    void streamedArraysReachTheConsumerElementByElement() {
+        server.expect(requestTo(URL)).andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess("[{\"id\":1},{\"id\":2},{\"id\":3}]", MediaType.APPLICATION_JSON));
+        server.expect(requestTo(URL)).andRespond(withSuccess(
+                "{\"meta\":{\"pages\":[1,2]},\"data\":[{\"id\":4},{\"id\":5}],\"next\":null}", MediaType.APPLICATION_JSON));
+        server.expect(requestTo(URL)).andRespond(withSuccess("[{\"id\":6},{\"id\":7},{\"id\"", MediaType.APPLICATION_JSON));
+        List<Object> ids = new ArrayList<>();
+
+        assertThat(restClient.stream(URL, new HttpHeaders(), Map.class, element -> ids.add(element.get("id")), true)).isEqualTo(3);
+        assertThat(restClient.stream(URL, new HttpHeaders(), "data", Map.class, element -> ids.add(element.get("id")), true)).isEqualTo(2);
+        // a truncated body fails without a retry, after the complete elements were delivered
+        assertThatThrownBy(() -> restClient.stream(URL, new HttpHeaders(), Map.class, element -> ids.add(element.get("id")), true))
+                .isInstanceOf(ResponseException.class)
+                .hasFieldOrPropertyWithValue("errorCode", 422)
+                .hasMessage("Invalid Response Format: malformed JSON after 2 elements HOST: upstream.example.com");
+        assertThat(ids).containsExactly(1, 2, 3, 4, 5, 6, 7);
+        server.verify();
+    }
+
+    @Test
+    void streamedResponsesAboveTheMaximumSizeAreRefused() {
+        constants.setHttpClientMaxResponseSize(32);
+        HttpHeaders declared = new HttpHeaders();
+        declared.setContentLength(1 << 30);
+        server.expect(requestTo(URL)).andRespond(withSuccess("[]", MediaType.APPLICATION_JSON).headers(declared));
+        server.expect(requestTo(URL)).andRespond(withSuccess("[" + "{\"id\":1},".repeat(10) + "{\"id\":1}]", MediaType.APPLICATION_JSON));
+        List<Object> elements = new ArrayList<>();
+
+        assertThat(restClient.stream(URL, new HttpHeaders(), Map.class, elements::add, false)).isEqualTo(-1);
+        assertThatThrownBy(() -> restClient.stream(URL, new HttpHeaders(), Map.class, elements::add, true))
+                .isInstanceOf(ResponseException.class)
+                .hasFieldOrPropertyWithValue("errorCode", 422)
+                .hasMessage("Invalid Response Format: response exceeds 32 bytes HOST: upstream.example.com");
+        assertThat(elements).hasSizeLessThan(11);
+        server.verify();
+    }
+
+    private static HttpHeaders failFastHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(RateLimiterRegistry.TIMEOUT_HEADER, "0");
+        return headers;
+    }
+
+    private RestClientImpl newRestClient() {
+        rateLimiterRegistry = new RateLimiterRegistry(constants);
+        meterRegistry = new SimpleMeterRegistry();
+        RetryPolicy retryPolicy = new RetryPolicy(constants);
+        CircuitBreakerRegistry circuitBreakerRegistry = new CircuitBreakerRegistry(constants);
+        ObjectMapper objectMapper = new ObjectMapper();
+        return new RestClientImpl(restTemplate, rateLimiterRegistry, retryPolicy, circuitBreakerRegistry,
+                new OutboundLogger(objectMapper, constants),
+                new OutboundMetrics(meterRegistry, rateLimiterRegistry, circuitBreakerRegistry, retryPolicy), objectMapper, constants);
+    }
+}
@@ -0,0 +1,104 @@
+package com.fnp.integrations.support;
+
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.security.KeyStore;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process HTTP(S) server for benchmarks and load drivers.
+ * HTTPS uses the self-signed {@code stub-server.p12} test keystore (CN/SAN 127.0.0.1); call
+ * {@link #trustStubCertificate()} before any TLS client is created so the JDK and Apache
+ * clients accept it through their default trust managers.
+ */
+public class StubHttpServer implements AutoCloseable {
+
+    private static final String KEYSTORE = "stub-server.p12";
+    private static final char[] KEYSTORE_PASSWORD = "changeit".toCharArray();
+    private static final int BACKLOG = 4096;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final String scheme;
+
+    /**
+     * @param threads handler pool size, or 0 for a virtual thread per exchange (slow-upstream load tests)
+     */
+    public StubHttpServer(boolean tls, int threads) throws IOException {
+        this(tls, threads, 0);
+    }
+
+    /**
+     * @param port fixed listen port, or 0 for an ephemeral one
+     */
+    public StubHttpServer(boolean tls, int threads, int port) throws IOException {
+        // Without TCP_NODELAY the JDK server stalls small responses on delayed ACKs (~40ms per call)
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        InetSocketAddress address = new InetSocketAddress("127.0.0.1", port);
+        if (tls) {
+            HttpsServer httpsServer = HttpsServer.create(address, BACKLOG);
+            httpsServer.setHttpsConfigurator(new HttpsConfigurator(serverSslContext()));
+            server = httpsServer;
+            scheme = "https";
+        } else {
+            server = HttpServer.create(address, BACKLOG);
+            scheme = "http";
+        }
+        executor = threads > 0 ? Executors.newFixedThreadPool(threads) : Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+    }
+
+    public StubHttpServer handle(String path, HttpHandler handler) {
+        server.createContext(path, handler);
+        return this;
+    }
+
+    public StubHttpServer start() {
+        server.start();
+        return this;
+    }
+
+    public String getBaseUrl() {
+        return scheme + "://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public String getHostAndPort() {
+        return "127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public static void trustStubCertificate() {
+        String trustStore = StubHttpServer.class.getClassLoader().getResource(KEYSTORE).getPath();
+        System.setProperty("javax.net.ssl.trustStore", trustStore);
+        System.setProperty("javax.net.ssl.trustStorePassword", new String(KEYSTORE_PASSWORD));
+        System.setProperty("javax.net.ssl.trustStoreType", "PKCS12");
+    }
+
+    private static SSLContext serverSslContext() throws IOException {
+        try (InputStream in = StubHttpServer.class.getClassLoader().getResourceAsStream(KEYSTORE)) {
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(in, KEYSTORE_PASSWORD);
+            KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            keyManagerFactory.init(keyStore, KEYSTORE_PASSWORD);
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(keyManagerFactory.getKeyManagers(), null, null);
+            return sslContext;
+        } catch (Exception e) {
+            throw new IOException("Unable to load stub server keystore", e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.fnp.integrations.support;
+
+import com.fnp.integrations.constants.DynamicConstants;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+
+/**
+ * Settings for tests and benchmarks that build their components without a Spring context.
+ */
+public final class TestConstants {
+
+    public static final String LALAMOVE_APP_KEY = "pk_test_key";
+    public static final String LALAMOVE_APP_SECRET = "sk_test_secret";
+
+    /**
+     * Overrides the MySQL dialect of the local profile for tests on the embedded H2 database.
+     */
+    public static final String H2_DIALECT = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect";
+
+    // the properties DynamicConstants declares without a default
+    private static final Map<String, Object> REQUIRED = Map.ofEntries(
+            Map.entry("spring.profiles.active", "test"),
+            Map.entry("spring.application.name", "fnp-integrations"),
+            Map.entry("feature.debug-mode", "false"),
+            Map.entry("feature.cache-enabled", "false"),
+            Map.entry("api.base-url", "http://localhost"),
+            Map.entry("api.timeout", "30000"),
+            Map.entry("api.retry-count", "3"),
+            Map.entry("lalamove.hostname", "rest.sandbox.lalamove.com"),
+            Map.entry("lalamove.appKey", LALAMOVE_APP_KEY),
+            Map.entry("lalamove.appSecret", LALAMOVE_APP_SECRET),
+            Map.entry("lalamove.market", "SG"),
+            Map.entry("server.port", "0"),
+            Map.entry("server.servlet.context-path", ""));
+
+    private TestConstants() {
+    }
+
+    /**
+     * A fresh {@link DynamicConstants} holding the defaults of its {@code @Value} annotations, as
+     * Spring resolves them, so tests never run on a copy that drifted from the code.
+     */
+    public static DynamicConstants dynamicConstants() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", REQUIRED));
+            context.register(DynamicConstants.class);
+            context.refresh();
+            return context.getBean(DynamicConstants.class);
+        }
+    }
+}